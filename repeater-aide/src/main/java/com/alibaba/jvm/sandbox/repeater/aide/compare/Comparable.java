@@ -16,4 +16,18 @@ public interface Comparable {
      * @return compare result
      */
     CompareResult compare(Object left, Object right);
+
+    /**
+     * compare to object with a difference budget
+     * <p>
+     * compare stops when {@code maxDifferences} differences were found or the deadline passed,
+     * and the result is marked as {@link CompareResult#isTruncated()}
+     *
+     * @param left           left object to be compare
+     * @param right          right object to be compare
+     * @param maxDifferences max differences to collect
+     * @param deadline       deadline in {@link System#currentTimeMillis()}, 0 means no deadline
+     * @return compare result
+     */
+    CompareResult compare(Object left, Object right, int maxDifferences, long deadline);
 }
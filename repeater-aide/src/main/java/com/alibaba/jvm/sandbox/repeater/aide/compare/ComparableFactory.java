@@ -4,7 +4,9 @@ import com.alibaba.jvm.sandbox.repeater.aide.compare.comparator.Comparator;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 
 /**
@@ -19,6 +21,8 @@ public class ComparableFactory {
 
     private volatile List<Comparator> comparators = new ArrayList<Comparator>();
 
+    private final Map<Comparator.CompareMode, Comparable> comparables = new EnumMap<Comparator.CompareMode, Comparable>(Comparator.CompareMode.class);
+
     private ComparableFactory() {
         ServiceLoader<Comparator> serviceLoader = ServiceLoader.load(Comparator.class, this.getClass().getClassLoader());
         for (Comparator comparator : serviceLoader) {
@@ -30,6 +34,9 @@ public class ComparableFactory {
                 }
             });
         }
+        for (Comparator.CompareMode compareMode : Comparator.CompareMode.values()) {
+            comparables.put(compareMode, new PooledComparable(filter(compareMode), CompareOptions.defaults()));
+        }
     }
 
     public static ComparableFactory instance() {
@@ -40,13 +47,38 @@ public class ComparableFactory {
         return create(Comparator.CompareMode.DEFAULT);
     }
 
+    /**
+     * get the comparable of the compare mode
+     * <p>
+     * the returned comparable is shared and thread safe, comparator instances are pooled inside
+     *
+     * @param compareMode compare mode
+     * @return comparable
+     */
     public Comparable create(Comparator.CompareMode compareMode) {
+        return comparables.get(compareMode);
+    }
+
+    /**
+     * create a comparable of the compare mode with options, such as parallel or unordered compare
+     * <p>
+     * the returned comparable is thread safe, callers should keep and reuse it
+     *
+     * @param compareMode compare mode
+     * @param options     compare options
+     * @return comparable
+     */
+    public Comparable create(Comparator.CompareMode compareMode, CompareOptions options) {
+        return new PooledComparable(filter(compareMode), options);
+    }
+
+    private List<Comparator> filter(Comparator.CompareMode compareMode) {
         List<Comparator> comparators = new ArrayList<Comparator>();
         for (Comparator comparator : this.comparators) {
             if (comparator.support(compareMode)) {
                 comparators.add(comparator);
             }
         }
-        return new IntegratedComparator(comparators);
+        return comparators;
     }
 }
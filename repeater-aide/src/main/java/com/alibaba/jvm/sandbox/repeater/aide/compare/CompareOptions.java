@@ -0,0 +1,109 @@
+package com.alibaba.jvm.sandbox.repeater.aide.compare;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CompareOptions}
+ * <p>
+ * options of {@link IntegratedComparator} besides the compare mode
+ * <p>
+ * parallel: collections, arrays and maps with at least {@code parallelThreshold} elements are split into chunks,
+ * each chunk is compared by a forked comparator with its own difference buffer on the executor, and the buffers
+ * are merged in chunk order so the result is the same as sequential compare; chunks never split again
+ * <p>
+ * unordered: collection elements are matched by hash code instead of position, the elements left unmatched
+ * are compared by position
+ *
+ * @author zhaoyb1990
+ */
+public class CompareOptions {
+
+    private static final CompareOptions DEFAULT = new CompareOptions();
+
+    private static volatile ExecutorService defaultExecutor;
+
+    private int parallelThreshold = Integer.MAX_VALUE;
+
+    private ExecutorService executor;
+
+    private boolean unordered;
+
+    public static CompareOptions create() {
+        return new CompareOptions();
+    }
+
+    static CompareOptions defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * compare large collections, arrays and maps in parallel with the shared executor
+     *
+     * @param threshold min element count to compare in parallel
+     * @return this
+     */
+    public CompareOptions parallel(int threshold) {
+        return parallel(threshold, null);
+    }
+
+    /**
+     * compare large collections, arrays and maps in parallel
+     *
+     * @param threshold min element count to compare in parallel
+     * @param executor  executor to run chunks; null means the shared daemon executor
+     * @return this
+     */
+    public CompareOptions parallel(int threshold, ExecutorService executor) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("parallel threshold must be positive");
+        }
+        this.parallelThreshold = threshold;
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * match collection elements by hash code instead of position
+     *
+     * @param unordered true / false
+     * @return this
+     */
+    public CompareOptions unordered(boolean unordered) {
+        this.unordered = unordered;
+        return this;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public boolean isUnordered() {
+        return unordered;
+    }
+
+    ExecutorService getExecutor() {
+        if (executor != null) {
+            return executor;
+        }
+        if (defaultExecutor == null) {
+            synchronized (CompareOptions.class) {
+                if (defaultExecutor == null) {
+                    defaultExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                        private final AtomicInteger sequence = new AtomicInteger(0);
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "repeater-compare-" + sequence.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return defaultExecutor;
+    }
+}
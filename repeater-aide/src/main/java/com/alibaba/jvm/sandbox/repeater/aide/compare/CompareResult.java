@@ -14,6 +14,10 @@ public class CompareResult {
     private transient Object left;
     private transient Object right;
     private List<Difference> differences = new ArrayList<Difference>();
+    /**
+     * compare stopped early because of the difference budget, differences may be incomplete
+     */
+    private boolean truncated;
 
     CompareResult(Object left, Object right) {
         this.left = left;
@@ -26,6 +30,13 @@ public class CompareResult {
         this.differences = differences;
     }
 
+    CompareResult(Object left, Object right, List<Difference> differences, boolean truncated) {
+        this.left = left;
+        this.right = right;
+        this.differences = differences;
+        this.truncated = truncated;
+    }
+
     public Object getLeft() {
         return left;
     }
@@ -50,6 +61,14 @@ public class CompareResult {
         this.differences = differences;
     }
 
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
     public boolean hasDifference() {
         return differences != null && differences.size() > 0;
     }
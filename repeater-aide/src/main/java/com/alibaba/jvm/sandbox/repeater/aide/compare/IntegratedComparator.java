@@ -1,14 +1,25 @@
 package com.alibaba.jvm.sandbox.repeater.aide.compare;
 
 import com.alibaba.jvm.sandbox.repeater.aide.compare.comparator.Comparator;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.comparator.FieldPlan;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.cycle.CycleReferenceDetector;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.cycle.CycleReferenceException;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.path.JsonPathLocator;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.path.LinkedPath;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.path.Path;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.path.PathLocator;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link IntegratedComparator}
@@ -18,42 +29,147 @@ import java.util.List;
  */
 public class IntegratedComparator implements Comparable {
 
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    /**
+     * deadline is checked once per this many dispatches, must be power of 2
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
     private final List<Comparator> comparators;
+    private final CompareOptions options;
     private final PathLocator pathLocator = new JsonPathLocator();
-    private final CycleReferenceDetector leftDetector = new CycleReferenceDetector();
-    private final CycleReferenceDetector rightDetector = new CycleReferenceDetector();
+    private final CycleReferenceDetector leftDetector;
+    private final CycleReferenceDetector rightDetector;
+    /**
+     * forked comparator compares a chunk only and never splits again
+     */
+    private final boolean forked;
     private List<Difference> differences = new ArrayList<Difference>();
+    /**
+     * shared with forked comparators
+     */
+    private Budget budget = Budget.UNLIMITED;
+    private int ticks;
+    /**
+     * field plans of current compare; cleared with the compare result so that pooled instances do not pin classes
+     */
+    private final Map<Class<?>, FieldPlan> fieldPlans = new HashMap<Class<?>, FieldPlan>();
+    /**
+     * (left, right) pairs already compared in current compare, with the differences found under them;
+     * the cycle detector only tracks the current path, a subgraph shared by many references is compared once
+     * and its differences are replayed under the other paths
+     */
+    private final Map<ComparedPair, Compared> compared = new HashMap<ComparedPair, Compared>();
+    /**
+     * cycle references skipped so far; a subgraph with skipped cycle references depends on its path and is not memoized
+     */
+    private int cycles;
 
     IntegratedComparator(List<Comparator> comparators) {
+        this(comparators, CompareOptions.defaults());
+    }
+
+    IntegratedComparator(List<Comparator> comparators, CompareOptions options) {
         if (comparators == null || comparators.size() == 0) {
             throw new RuntimeException("comparators can not be null or empty");
         }
         this.comparators = comparators;
+        this.options = options;
+        this.leftDetector = new CycleReferenceDetector(pathLocator);
+        this.rightDetector = new CycleReferenceDetector(pathLocator);
+        this.forked = false;
+    }
+
+    private IntegratedComparator(IntegratedComparator parent) {
+        this.comparators = parent.comparators;
+        this.options = parent.options;
+        this.leftDetector = parent.leftDetector.fork();
+        this.rightDetector = parent.rightDetector.fork();
+        this.forked = true;
+        this.budget = parent.budget;
     }
 
     public void dispatch(Object left, Object right, List<Path> paths) {
+        if (isExhausted()) {
+            return;
+        }
         // cycle reference detect
+        boolean leftEntered = false;
+        boolean rightEntered = false;
         try {
-            String nodeName = pathLocator.encode(paths);
-            leftDetector.detect(left, nodeName);
-            rightDetector.detect(right, nodeName);
+            leftEntered = leftDetector.enter(left, paths);
+            rightEntered = rightDetector.enter(right, paths);
         } catch (CycleReferenceException e) {
            // LogUtil.error("error occurred when dispatch compare task", e);
+            if (leftEntered) {
+                leftDetector.exit(left);
+            }
+            cycles++;
             return;
         }
+        ComparedPair pair = leftEntered && rightEntered ? new ComparedPair(left, right) : null;
         //  do compare
-        for (Comparator comparator : comparators) {
-            if (comparator.accept(left, right)) {
-                comparator.compare(left, right, paths, this);
-                break;
+        try {
+            if (pair != null) {
+                Compared memo = compared.get(pair);
+                if (memo != null) {
+                    replay(memo, paths);
+                    return;
+                }
+            }
+            int from = differences.size();
+            int cyclesBefore = cycles;
+            for (Comparator comparator : comparators) {
+                if (comparator.accept(left, right)) {
+                    comparator.compare(left, right, paths, this);
+                    break;
+                }
             }
+            // a partial result (budget exhausted) or a path dependent result is not memoized
+            if (pair != null && cycles == cyclesBefore && !budget.exhausted) {
+                compared.put(pair, differences.size() == from ? Compared.SAME
+                        : new Compared(paths.size(), new ArrayList<Difference>(differences.subList(from, differences.size()))));
+            }
+        } finally {
+            if (leftEntered) {
+                leftDetector.exit(left);
+            }
+            if (rightEntered) {
+                rightDetector.exit(right);
+            }
+        }
+    }
+
+    /**
+     * report the differences of an already compared pair under current paths
+     *
+     * @param memo  differences found when the pair was compared
+     * @param paths current node paths
+     */
+    private void replay(Compared memo, List<Path> paths) {
+        for (Difference difference : memo.differences) {
+            List<Path> origin = difference.getPaths();
+            List<Path> target = new ArrayList<Path>(paths.size() + origin.size() - memo.depth);
+            target.addAll(paths);
+            target.addAll(origin.subList(memo.depth, origin.size()));
+            addDifference(difference.getLeft(), difference.getRight(), difference.getType(), target);
         }
     }
 
     @Override
     public CompareResult compare(Object left, Object right) {
+        return compare(left, right, Integer.MAX_VALUE, 0);
+    }
+
+    @Override
+    public CompareResult compare(Object left, Object right, int maxDifferences, long deadline) {
+        if (maxDifferences <= 0) {
+            throw new IllegalArgumentException("maxDifferences must be positive");
+        }
         // try clear last compare result
         tryClear();
+        budget = maxDifferences == Integer.MAX_VALUE && deadline <= 0 ? Budget.UNLIMITED : new Budget(maxDifferences, deadline);
         // dispatch compare task
         List<Path> paths = new ArrayList<Path>(0);
         try {
@@ -62,28 +178,243 @@ public class IntegratedComparator implements Comparable {
             // LogUtil.error("error occurred when dispatch compare task", e);
             addDifference(left, right, Difference.Type.COMPARE_ERR, paths);
         }
-        return new CompareResult(left, right, differences);
+        return new CompareResult(left, right, differences, budget.exhausted);
+    }
+
+    /**
+     * whether the difference budget is exhausted; comparators may stop iterating when it returns true
+     *
+     * @return true / false
+     */
+    public boolean isExhausted() {
+        if (budget.exhausted) {
+            return true;
+        }
+        if (budget.deadline > 0 && (ticks++ & (DEADLINE_CHECK_INTERVAL - 1)) == 0) {
+            if (System.currentTimeMillis() >= budget.deadline) {
+                budget.exhausted = true;
+            }
+        }
+        return budget.exhausted;
     }
 
     private void tryClear() {
         differences = new ArrayList<Difference>();
+        budget = Budget.UNLIMITED;
+        ticks = 0;
         leftDetector.clear();
         rightDetector.clear();
+        fieldPlans.clear();
+        compared.clear();
+        cycles = 0;
+    }
+
+    /**
+     * release the compared objects so that a pooled instance does not hold them
+     */
+    void release() {
+        tryClear();
+    }
+
+    /**
+     * get (or compile) the field plan of the class for current compare
+     *
+     * @param clazz class of instance
+     * @return field plan
+     */
+    public FieldPlan fieldPlan(Class<?> clazz) {
+        FieldPlan plan = fieldPlans.get(clazz);
+        if (plan == null) {
+            plan = FieldPlan.compile(clazz);
+            fieldPlans.put(clazz, plan);
+        }
+        return plan;
     }
 
     public void addDifference(Object left, Object right, Difference.Type type, List<Path> paths) {
-        differences.add(new Difference(left, right, type, paths, pathLocator.encode(paths)));
+        if (budget != Budget.UNLIMITED && !budget.acquire()) {
+            return;
+        }
+        // materialize the linked path only when a difference is reported
+        List<Path> target = new ArrayList<Path>(paths);
+        differences.add(new Difference(left, right, type, target, pathLocator.encode(target)));
+    }
+
+    /**
+     * whether collection elements should be matched by hash code instead of position
+     *
+     * @return true / false
+     */
+    public boolean isUnordered() {
+        return options.isUnordered();
+    }
+
+    /**
+     * compare {@code size} elements with the task; when parallel is enabled and the size reaches the threshold,
+     * elements are split into chunks compared by forked comparators, otherwise the task runs on this comparator
+     *
+     * @param size  element count
+     * @param paths current node paths
+     * @param task  chunk compare task
+     */
+    public void dispatchChunks(int size, List<Path> paths, ChunkTask task) {
+        if (forked || size < options.getParallelThreshold() || size < MIN_CHUNK_SIZE << 1) {
+            task.compare(0, size, this);
+            return;
+        }
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors() << 2, size / MIN_CHUNK_SIZE);
+        int chunkSize = (size + chunks - 1) / chunks;
+        ExecutorService executor = options.getExecutor();
+        List<FutureTask<IntegratedComparator>> futures = new ArrayList<FutureTask<IntegratedComparator>>(chunks);
+        for (int from = 0; from < size; from += chunkSize) {
+            FutureTask<IntegratedComparator> future = new FutureTask<IntegratedComparator>(
+                    new ChunkCallable(new IntegratedComparator(this), task, from, Math.min(from + chunkSize, size)));
+            futures.add(future);
+            // the first chunk runs on current thread
+            if (from > 0) {
+                try {
+                    executor.execute(future);
+                } catch (RejectedExecutionException e) {
+                    // run on current thread below
+                }
+            }
+        }
+        // chunks not started by executor yet run on current thread; run is ignored if already started
+        for (FutureTask<IntegratedComparator> future : futures) {
+            future.run();
+        }
+        for (FutureTask<IntegratedComparator> future : futures) {
+            IntegratedComparator chunk;
+            try {
+                chunk = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted when compare chunk", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("error occurred when compare chunk", e.getCause());
+            }
+            differences.addAll(chunk.differences);
+            cycles += chunk.cycles;
+        }
     }
 
     public List<Path> declarePath(List<Path> paths, int index) {
-        List<Path> target = new ArrayList<Path>(paths);
-        target.add(Path.indexPath(index));
-        return target;
+        return LinkedPath.of(paths, Path.indexPath(index));
     }
 
     public List<Path> declarePath(List<Path> paths, String key) {
-        List<Path> target = new ArrayList<Path>(paths);
-        target.add(Path.nodePath(key));
-        return target;
+        return LinkedPath.of(paths, Path.nodePath(key));
+    }
+
+    /**
+     * compare elements in [from, to)
+     */
+    public interface ChunkTask {
+
+        /**
+         * compare elements in [from, to)
+         *
+         * @param from       first index, inclusive
+         * @param to         last index, exclusive
+         * @param comparator comparator of the chunk; use it to dispatch elements
+         */
+        void compare(int from, int to, IntegratedComparator comparator);
+    }
+
+    /**
+     * difference budget of one compare
+     */
+    private static class Budget {
+
+        private static final Budget UNLIMITED = new Budget(Integer.MAX_VALUE, 0);
+
+        private final int maxDifferences;
+        private final long deadline;
+        private final AtomicInteger count = new AtomicInteger(0);
+        private volatile boolean exhausted;
+
+        Budget(int maxDifferences, long deadline) {
+            this.maxDifferences = maxDifferences;
+            this.deadline = deadline;
+        }
+
+        /**
+         * acquire a difference slot; the budget is exhausted when the last slot was acquired
+         */
+        boolean acquire() {
+            int current = count.incrementAndGet();
+            if (current >= maxDifferences) {
+                exhausted = true;
+            }
+            return current <= maxDifferences;
+        }
+    }
+
+    /**
+     * identity of a compared (left, right) pair
+     */
+    private static class ComparedPair {
+
+        private final Object left;
+        private final Object right;
+
+        ComparedPair(Object left, Object right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(left) * 31 + System.identityHashCode(right);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ComparedPair)) {
+                return false;
+            }
+            ComparedPair other = (ComparedPair) obj;
+            return left == other.left && right == other.right;
+        }
+    }
+
+    /**
+     * differences found under a compared pair
+     */
+    private static class Compared {
+
+        private static final Compared SAME = new Compared(0, Collections.<Difference>emptyList());
+
+        /**
+         * size of the paths where the pair was compared
+         */
+        private final int depth;
+        private final List<Difference> differences;
+
+        Compared(int depth, List<Difference> differences) {
+            this.depth = depth;
+            this.differences = differences;
+        }
+    }
+
+    private static class ChunkCallable implements Callable<IntegratedComparator> {
+
+        private final IntegratedComparator comparator;
+        private final ChunkTask task;
+        private final int from;
+        private final int to;
+
+        ChunkCallable(IntegratedComparator comparator, ChunkTask task, int from, int to) {
+            this.comparator = comparator;
+            this.task = task;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public IntegratedComparator call() throws Exception {
+            task.compare(from, to, comparator);
+            return comparator;
+        }
     }
 }
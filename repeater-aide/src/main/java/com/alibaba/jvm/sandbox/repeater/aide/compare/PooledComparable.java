@@ -0,0 +1,47 @@
+package com.alibaba.jvm.sandbox.repeater.aide.compare;
+
+import com.alibaba.jvm.sandbox.repeater.aide.compare.comparator.Comparator;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * {@link PooledComparable}
+ * <p>
+ * a thread safe {@link Comparable} which borrows an {@link IntegratedComparator} from the pool for each compare
+ * and returns it afterwards; the comparator list of the compare mode is resolved only once
+ *
+ * @author zhaoyb1990
+ */
+class PooledComparable implements Comparable {
+
+    private final List<Comparator> comparators;
+
+    private final CompareOptions options;
+
+    private final ConcurrentLinkedQueue<IntegratedComparator> pool = new ConcurrentLinkedQueue<IntegratedComparator>();
+
+    PooledComparable(List<Comparator> comparators, CompareOptions options) {
+        this.comparators = comparators;
+        this.options = options;
+    }
+
+    @Override
+    public CompareResult compare(Object left, Object right) {
+        return compare(left, right, Integer.MAX_VALUE, 0);
+    }
+
+    @Override
+    public CompareResult compare(Object left, Object right, int maxDifferences, long deadline) {
+        IntegratedComparator comparator = pool.poll();
+        if (comparator == null) {
+            comparator = new IntegratedComparator(comparators, options);
+        }
+        try {
+            return comparator.compare(left, right, maxDifferences, deadline);
+        } finally {
+            comparator.release();
+            pool.offer(comparator);
+        }
+    }
+}
@@ -33,15 +33,23 @@ public class ArrayComparator implements Comparator {
     }
 
     @Override
-    public void compare(Object left, Object right, List<Path> paths, IntegratedComparator comparator) {
-        Object[] leftArray = transfer(left);
-        Object[] rightArray = transfer(right);
+    public void compare(Object left, Object right, final List<Path> paths, IntegratedComparator comparator) {
+        final Object[] leftArray = transfer(left);
+        final Object[] rightArray = transfer(right);
         int max = Math.max(leftArray.length, rightArray.length);
-        for (int i = 0; i < max; i++) {
-            Object leftObject = safeGet(leftArray, i);
-            Object rightObject = safeGet(rightArray, i);
-            comparator.dispatch(leftObject, rightObject, comparator.declarePath(paths, i));
-        }
+        comparator.dispatchChunks(max, paths, new IntegratedComparator.ChunkTask() {
+            @Override
+            public void compare(int from, int to, IntegratedComparator comparator) {
+                for (int i = from; i < to; i++) {
+                    if (comparator.isExhausted()) {
+                        break;
+                    }
+                    Object leftObject = safeGet(leftArray, i);
+                    Object rightObject = safeGet(rightArray, i);
+                    comparator.dispatch(leftObject, rightObject, comparator.declarePath(paths, i));
+                }
+            }
+        });
     }
 
     @Override
@@ -6,13 +6,19 @@ import org.kohsuke.MetaInfServices;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 
 import static com.alibaba.jvm.sandbox.repeater.aide.compare.TypeUtils.isCollection;
 
 /**
  * {@link CollectionComparator}
  * <p>
+ * compare elements by position; with unordered option, elements are matched by hash code first and
+ * the unmatched are compared by position
  *
  * @author zhaoyb1990
  */
@@ -35,15 +41,27 @@ public class CollectionComparator implements Comparator {
     }
 
     @Override
-    public void compare(Object left, Object right, List<Path> paths, IntegratedComparator comparator) {
-        List<?> leftList = new ArrayList<Object>((Collection<?>) left);
-        List<?> rightList = new ArrayList<Object>((Collection<?>) right);
-        int max = Math.max(leftList.size(), rightList.size());
-        for (int index = 0; index < max; index++) {
-            Object leftObject = safeGet(leftList, index);
-            Object rightObject = safeGet(rightList, index);
-            comparator.dispatch(leftObject, rightObject, comparator.declarePath(paths, index));
+    public void compare(Object left, Object right, final List<Path> paths, IntegratedComparator comparator) {
+        final List<?> leftList = asList((Collection<?>) left);
+        final List<?> rightList = asList((Collection<?>) right);
+        if (comparator.isUnordered()) {
+            unorderedCompare(leftList, rightList, paths, comparator);
+            return;
         }
+        int max = Math.max(leftList.size(), rightList.size());
+        comparator.dispatchChunks(max, paths, new IntegratedComparator.ChunkTask() {
+            @Override
+            public void compare(int from, int to, IntegratedComparator comparator) {
+                for (int index = from; index < to; index++) {
+                    if (comparator.isExhausted()) {
+                        break;
+                    }
+                    Object leftObject = safeGet(leftList, index);
+                    Object rightObject = safeGet(rightList, index);
+                    comparator.dispatch(leftObject, rightObject, comparator.declarePath(paths, index));
+                }
+            }
+        });
     }
 
     @Override
@@ -51,6 +69,82 @@ public class CollectionComparator implements Comparator {
         return true;
     }
 
+    /**
+     * match elements with the same hash code, then pair the unmatched by position;
+     * a pair is located with the index of left element, or the index of right element if left is missing
+     */
+    private void unorderedCompare(final List<?> leftList, final List<?> rightList, final List<Path> paths, IntegratedComparator comparator) {
+        Map<Integer, LinkedList<Integer>> rightIndexes = new HashMap<Integer, LinkedList<Integer>>(rightList.size() * 2);
+        for (int i = 0; i < rightList.size(); i++) {
+            Integer hash = hash(rightList.get(i));
+            LinkedList<Integer> indexes = rightIndexes.get(hash);
+            if (indexes == null) {
+                indexes = new LinkedList<Integer>();
+                rightIndexes.put(hash, indexes);
+            }
+            indexes.add(i);
+        }
+        final int[] pairs = new int[leftList.size()];
+        boolean[] matched = new boolean[rightList.size()];
+        for (int i = 0; i < leftList.size(); i++) {
+            LinkedList<Integer> indexes = rightIndexes.get(hash(leftList.get(i)));
+            if (indexes == null || indexes.isEmpty()) {
+                pairs[i] = -1;
+            } else {
+                pairs[i] = indexes.removeFirst();
+                matched[pairs[i]] = true;
+            }
+        }
+        // pair the unmatched by position
+        int cursor = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            if (pairs[i] >= 0) {
+                continue;
+            }
+            while (cursor < matched.length && matched[cursor]) {
+                cursor++;
+            }
+            if (cursor < matched.length) {
+                pairs[i] = cursor;
+                matched[cursor] = true;
+            }
+        }
+        final List<Integer> extras = new ArrayList<Integer>();
+        for (int i = cursor; i < matched.length; i++) {
+            if (!matched[i]) {
+                extras.add(i);
+            }
+        }
+        comparator.dispatchChunks(pairs.length + extras.size(), paths, new IntegratedComparator.ChunkTask() {
+            @Override
+            public void compare(int from, int to, IntegratedComparator comparator) {
+                for (int index = from; index < to; index++) {
+                    if (comparator.isExhausted()) {
+                        break;
+                    }
+                    if (index < pairs.length) {
+                        Object rightObject = pairs[index] < 0 ? null : rightList.get(pairs[index]);
+                        comparator.dispatch(leftList.get(index), rightObject, comparator.declarePath(paths, index));
+                    } else {
+                        int rightIndex = extras.get(index - pairs.length);
+                        comparator.dispatch(null, rightList.get(rightIndex), comparator.declarePath(paths, rightIndex));
+                    }
+                }
+            }
+        });
+    }
+
+    private static Integer hash(Object object) {
+        return object == null ? 0 : object.hashCode();
+    }
+
+    private static List<?> asList(Collection<?> collection) {
+        if (collection instanceof List && collection instanceof RandomAccess) {
+            return (List<?>) collection;
+        }
+        return new ArrayList<Object>(collection);
+    }
+
     private Object safeGet(List<?> list, int index) {
         return index >= list.size() ? null : list.get(index);
     }
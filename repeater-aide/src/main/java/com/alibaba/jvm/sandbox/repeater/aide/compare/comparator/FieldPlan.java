@@ -0,0 +1,56 @@
+package com.alibaba.jvm.sandbox.repeater.aide.compare.comparator;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.reflect.Modifier.isStatic;
+import static java.lang.reflect.Modifier.isTransient;
+
+/**
+ * {@link FieldPlan}
+ * <p>
+ * per-class field access plan used by {@link ObjectComparator}
+ * <p>
+ * the plan collects all comparable fields of the class and its super classes (excluding {@link Object}) once and
+ * makes them accessible once; fields declared by the class come first, then fields of its super classes from near to far
+ * <p>
+ * plans are cached by {@link com.alibaba.jvm.sandbox.repeater.aide.compare.IntegratedComparator#fieldPlan(Class)} for a single compare only, a global cache would pin
+ * business classes and their class loaders across redeploys
+ *
+ * @author zhaoyb1990
+ */
+public class FieldPlan {
+
+    final Field[] fields;
+
+    final String[] names;
+
+    private FieldPlan(Field[] fields) {
+        this.fields = fields;
+        this.names = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getName();
+        }
+    }
+
+    /**
+     * compile the field plan of the class
+     *
+     * @param clazz class of instance
+     * @return field plan
+     */
+    public static FieldPlan compile(Class<?> clazz) {
+        List<Field> fields = new ArrayList<Field>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isSynthetic() || isTransient(field.getModifiers()) || isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return new FieldPlan(fields.toArray(new Field[fields.size()]));
+    }
+}
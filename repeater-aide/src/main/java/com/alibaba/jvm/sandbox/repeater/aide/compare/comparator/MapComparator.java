@@ -4,10 +4,9 @@ import com.alibaba.jvm.sandbox.repeater.aide.compare.IntegratedComparator;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.path.Path;
 import org.kohsuke.MetaInfServices;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * {@link MapComparator}
@@ -32,20 +31,35 @@ public class MapComparator implements Comparator {
     }
 
     @Override
-    public void compare(Object left, Object right, List<Path> paths, IntegratedComparator comparator) {
-        Map<?, ?> lm = (Map<?, ?>) left;
-        Map<?, ?> rm = (Map<?, ?>) right;
-        Set<Object> mergedKeySet = new HashSet<Object>();
-        mergedKeySet.addAll(lm.keySet());
-        mergedKeySet.addAll(rm.keySet());
-        for (Object key : mergedKeySet) {
-            if (key == null) {
-                continue;
+    public void compare(Object left, Object right, final List<Path> paths, IntegratedComparator comparator) {
+        final Map<?, ?> lm = (Map<?, ?>) left;
+        final Map<?, ?> rm = (Map<?, ?>) right;
+        // keys of left map, then keys only in right map
+        final List<Object> mergedKeys = new ArrayList<Object>(Math.max(lm.size(), rm.size()));
+        for (Object key : lm.keySet()) {
+            if (key != null) {
+                mergedKeys.add(key);
             }
-            Object lValue = lm.get(key);
-            Object rValue = rm.get(key);
-            comparator.dispatch(lValue, rValue, comparator.declarePath(paths, key.toString()));
         }
+        for (Object key : rm.keySet()) {
+            if (key != null && !lm.containsKey(key)) {
+                mergedKeys.add(key);
+            }
+        }
+        comparator.dispatchChunks(mergedKeys.size(), paths, new IntegratedComparator.ChunkTask() {
+            @Override
+            public void compare(int from, int to, IntegratedComparator comparator) {
+                for (int index = from; index < to; index++) {
+                    if (comparator.isExhausted()) {
+                        break;
+                    }
+                    Object key = mergedKeys.get(index);
+                    Object lValue = lm.get(key);
+                    Object rValue = rm.get(key);
+                    comparator.dispatch(lValue, rValue, comparator.declarePath(paths, key.toString()));
+                }
+            }
+        });
     }
 
     @Override
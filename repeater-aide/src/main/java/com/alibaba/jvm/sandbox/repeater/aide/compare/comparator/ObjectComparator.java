@@ -8,9 +8,6 @@ import org.kohsuke.MetaInfServices;
 import java.lang.reflect.Field;
 import java.util.List;
 
-import static java.lang.reflect.Modifier.isStatic;
-import static java.lang.reflect.Modifier.isTransient;
-
 /**
  * {@link ObjectComparator}
  * <p>
@@ -50,7 +47,7 @@ public class ObjectComparator implements Comparator {
     }
 
     /**
-     * inner recursively dispatch field with reflect access
+     * dispatch each field of the {@link FieldPlan} cached by integrated comparator
      *
      * @param clazz      class of two instance
      * @param left       the left object to handle
@@ -59,27 +56,23 @@ public class ObjectComparator implements Comparator {
      * @param comparator integrated comparator
      */
     private void innerCompare(Class<?> clazz, Object left, Object right, List<Path> paths, IntegratedComparator comparator) {
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            if (field.isSynthetic() || isTransient(field.getModifiers()) || isStatic(field.getModifiers())) {
-                continue;
+        FieldPlan plan = comparator.fieldPlan(clazz);
+        for (int i = 0; i < plan.fields.length; i++) {
+            if (comparator.isExhausted()) {
+                break;
             }
-            boolean accessible = field.isAccessible();
-            // recursively dispatch with integrated comparator
+            Field field = plan.fields[i];
+            Object lValue;
+            Object rValue;
             try {
-                field.setAccessible(true);
-                comparator.dispatch(field.get(left), field.get(right), comparator.declarePath(paths, field.getName()));
+                lValue = field.get(left);
+                rValue = field.get(right);
             } catch (Exception e) {
                 // this may not happen
                 throw new RuntimeException("illegal access with filed", e);
-            } finally {
-                field.setAccessible(accessible);
             }
-        }
-        Class<?> superClazz = clazz.getSuperclass();
-        while (superClazz != null && superClazz != Object.class) {
-            innerCompare(superClazz, left, right, paths, comparator);
-            superClazz = superClazz.getSuperclass();
+            // recursively dispatch with integrated comparator
+            comparator.dispatch(lValue, rValue, comparator.declarePath(paths, plan.names[i]));
         }
     }
 }
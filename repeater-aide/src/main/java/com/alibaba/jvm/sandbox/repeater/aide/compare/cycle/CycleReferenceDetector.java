@@ -1,61 +1,88 @@
 package com.alibaba.jvm.sandbox.repeater.aide.compare.cycle;
 
 import com.alibaba.jvm.sandbox.repeater.aide.compare.TypeUtils;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.path.JsonPathLocator;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.path.Path;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.path.PathLocator;
 
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * {@link CycleReferenceDetector}
  * <p>
+ * detect cycle reference along the current compare path; the instances on the path are kept in an identity map,
+ * an instance is entered before its children are compared and exited afterwards, so that an instance shared by
+ * two branches is not treated as cycle reference; the comparator memoizes compared pairs so that a shared instance
+ * is still compared only once
+ * <p>
+ * node name is only encoded when a cycle reference is reported
  *
  * @author zhaoyb1990
  */
 public class CycleReferenceDetector {
 
-    private List<Node> nodes = new LinkedList<Node>();
+    private final Map<Object, List<Path>> nodes = new IdentityHashMap<Object, List<Path>>();
+
+    private final PathLocator pathLocator;
 
-    public void detect(Object instance, String nodeName) throws CycleReferenceException {
+    public CycleReferenceDetector() {
+        this(new JsonPathLocator());
+    }
 
+    public CycleReferenceDetector(PathLocator pathLocator) {
+        this.pathLocator = pathLocator;
+    }
+
+    /**
+     * enter an instance on the current path
+     *
+     * @param instance instance to be compared
+     * @param paths    current node paths
+     * @return true if the instance was entered and {@link #exit(Object)} should be called after its children were compared
+     * @throws CycleReferenceException the instance is already on the current path
+     */
+    public boolean enter(Object instance, List<Path> paths) throws CycleReferenceException {
         if (instance == null) {
-            return;
+            return false;
         }
 
         // ignore basic type and well know detected
         Class<?> clazz = instance.getClass();
         if (clazz.isPrimitive() || TypeUtils.isJavaWellKnown(clazz)) {
-            return;
+            return false;
         }
 
-        Node node = findNode(instance);
-        if (node != null) {
-            throw new CycleReferenceException(node.nodeName + " detected cycle reference, current  nodeName = " + nodeName);
+        List<Path> exist = nodes.get(instance);
+        if (exist != null) {
+            throw new CycleReferenceException(pathLocator, exist, paths);
         }
-        nodes.add(new Node(instance, nodeName));
+        nodes.put(instance, paths);
+        return true;
     }
 
-    private Node findNode(Object instance) {
-        for (Node node : nodes) {
-            // is same instance
-            if (node.instance == instance) {
-                return node;
-            }
-        }
-        return null;
+    /**
+     * exit an instance from the current path
+     *
+     * @param instance instance entered by {@link #enter(Object, List)}
+     */
+    public void exit(Object instance) {
+        nodes.remove(instance);
     }
 
-    public void clear() {
-        nodes.clear();
+    /**
+     * copy the instances on the current path, used by a forked comparator which continues from the current path
+     *
+     * @return detector with the same path
+     */
+    public CycleReferenceDetector fork() {
+        CycleReferenceDetector detector = new CycleReferenceDetector(pathLocator);
+        detector.nodes.putAll(nodes);
+        return detector;
     }
 
-    class Node {
-
-        Object instance;
-        String nodeName;
-
-        Node(Object instance, String nodeName) {
-            this.instance = instance;
-            this.nodeName = nodeName;
-        }
+    public void clear() {
+        nodes.clear();
     }
 }
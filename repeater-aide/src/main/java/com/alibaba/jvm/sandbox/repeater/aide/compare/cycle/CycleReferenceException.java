@@ -1,5 +1,10 @@
 package com.alibaba.jvm.sandbox.repeater.aide.compare.cycle;
 
+import com.alibaba.jvm.sandbox.repeater.aide.compare.path.Path;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.path.PathLocator;
+
+import java.util.List;
+
 /**
  * {@link CycleReferenceException}
  * <p>
@@ -8,7 +13,34 @@ package com.alibaba.jvm.sandbox.repeater.aide.compare.cycle;
  */
 public class CycleReferenceException extends Exception {
 
+    private PathLocator pathLocator;
+
+    private List<Path> origin;
+
+    private List<Path> current;
+
     public CycleReferenceException(String message) {
         super(message);
     }
+
+    /**
+     * the message is encoded when it is read
+     *
+     * @param pathLocator path locator
+     * @param origin      paths where the instance was entered
+     * @param current     paths where the instance is referenced again
+     */
+    CycleReferenceException(PathLocator pathLocator, List<Path> origin, List<Path> current) {
+        this.pathLocator = pathLocator;
+        this.origin = origin;
+        this.current = current;
+    }
+
+    @Override
+    public String getMessage() {
+        if (pathLocator == null) {
+            return super.getMessage();
+        }
+        return pathLocator.encode(origin) + " detected cycle reference, current  nodeName = " + pathLocator.encode(current);
+    }
 }
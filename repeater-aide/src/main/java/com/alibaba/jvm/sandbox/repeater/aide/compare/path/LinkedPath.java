@@ -0,0 +1,84 @@
+package com.alibaba.jvm.sandbox.repeater.aide.compare.path;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@link LinkedPath}
+ * <p>
+ * an immutable node path which links to its parent path instead of copying it
+ * <p>
+ * declaring a child path is O(1); the whole path is only materialized when it is read,
+ * which usually happens when a difference is reported
+ *
+ * @author zhaoyb1990
+ */
+public class LinkedPath extends AbstractList<Path> {
+
+    private final List<Path> parent;
+
+    private final Path leaf;
+
+    private final int size;
+
+    private LinkedPath(List<Path> parent, Path leaf) {
+        this.parent = parent;
+        this.leaf = leaf;
+        this.size = parent.size() + 1;
+    }
+
+    /**
+     * declare a child path
+     *
+     * @param parent parent path; must not be modified afterwards
+     * @param leaf   leaf node
+     * @return child path
+     */
+    public static LinkedPath of(List<Path> parent, Path leaf) {
+        return new LinkedPath(parent, leaf);
+    }
+
+    @Override
+    public Path get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ",size=" + size);
+        }
+        List<Path> current = this;
+        while (current instanceof LinkedPath) {
+            LinkedPath linked = (LinkedPath) current;
+            if (index == linked.size - 1) {
+                return linked.leaf;
+            }
+            current = linked.parent;
+        }
+        return current.get(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Path[] paths = new Path[size];
+        int index = size;
+        List<Path> current = this;
+        while (current instanceof LinkedPath) {
+            LinkedPath linked = (LinkedPath) current;
+            paths[--index] = linked.leaf;
+            current = linked.parent;
+        }
+        for (int i = 0; i < index; i++) {
+            paths[i] = current.get(i);
+        }
+        return paths;
+    }
+
+    @Override
+    public Iterator<Path> iterator() {
+        return Arrays.asList((Path[]) toArray()).iterator();
+    }
+}
@@ -7,6 +7,9 @@ import org.testng.annotations.Test;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * {@link }
@@ -108,4 +111,58 @@ public class ComparableFactoryTest {
         Assert.assertTrue(result.hasDifference());
         Assert.assertEquals(result.getDifferences().size(), 3);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParallelCompare() {
+        List<Student> left = new ArrayList<Student>();
+        List<Student> right = new ArrayList<Student>();
+        for (int i = 0; i < 50000; i++) {
+            left.add(Student.builder().name("java").age(i).school("w3c").build());
+            right.add(Student.builder().name("java").age(i % 1000 == 0 ? -i : i).school("w3c").build());
+        }
+        right.add(Student.builder().name("groovy").build());
+        CompareResult sequential = ComparableFactory.instance().create(Comparator.CompareMode.DEFAULT).compare(left, right);
+        CompareResult parallel = ComparableFactory.instance().create(Comparator.CompareMode.DEFAULT,
+                CompareOptions.create().parallel(1000)).compare(left, right);
+        Assert.assertEquals(parallel.getDifferences().size(), 50);
+        Assert.assertEquals(parallel.getDifferences().size(), sequential.getDifferences().size());
+        for (int i = 0; i < parallel.getDifferences().size(); i++) {
+            Assert.assertEquals(parallel.getDifferences().get(i).getNodeName(), sequential.getDifferences().get(i).getNodeName());
+        }
+    }
+
+    @Test
+    public void testUnorderedCompare() {
+        List<String> left = Arrays.asList("a", "b", "c", "d");
+        List<String> right = Arrays.asList("d", "c", "e", "a", "f");
+        Comparable comparable = ComparableFactory.instance().create(Comparator.CompareMode.DEFAULT,
+                CompareOptions.create().unordered(true));
+        CompareResult result = comparable.compare(left, right);
+        // b <-> e, null <-> f
+        Assert.assertEquals(result.getDifferences().size(), 2);
+        Assert.assertEquals(result.getDifferences().get(0).getNodeName(), "$[1]");
+        Assert.assertEquals(result.getDifferences().get(1).getNodeName(), "$[4]");
+    }
+
+    @Test
+    public void testCompareWithBudget() {
+        List<Integer> left = new ArrayList<Integer>();
+        List<Integer> right = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            left.add(i);
+            right.add(-i);
+        }
+        Comparable comparable = ComparableFactory.instance().createDefault();
+        CompareResult result = comparable.compare(left, right, 5, 0);
+        Assert.assertEquals(result.getDifferences().size(), 5);
+        Assert.assertTrue(result.isTruncated());
+        Assert.assertEquals(result.getDifferences().get(4).getNodeName(), "$[5]");
+        // expired deadline
+        result = comparable.compare(left, right, Integer.MAX_VALUE, System.currentTimeMillis() - 1);
+        Assert.assertTrue(result.isTruncated());
+        Assert.assertTrue(result.getDifferences().size() < 99);
+        result = comparable.compare(left, right);
+        Assert.assertFalse(result.isTruncated());
+        Assert.assertEquals(result.getDifferences().size(), 99);
+    }
+}
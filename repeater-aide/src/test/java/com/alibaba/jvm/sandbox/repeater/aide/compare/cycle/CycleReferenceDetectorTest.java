@@ -0,0 +1,182 @@
+package com.alibaba.jvm.sandbox.repeater.aide.compare.cycle;
+
+import com.alibaba.jvm.sandbox.repeater.aide.compare.Comparable;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.ComparableFactory;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.CompareResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link }
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class CycleReferenceDetectorTest {
+
+    @Test
+    public void testSharedReference() {
+        GraphNode leftShared = new GraphNode(1);
+        GraphNode left = new GraphNode(0);
+        left.child = leftShared;
+        left.next = leftShared;
+        GraphNode rightShared = new GraphNode(2);
+        GraphNode right = new GraphNode(0);
+        right.child = rightShared;
+        right.next = rightShared;
+        CompareResult result = ComparableFactory.instance().createDefault().compare(left, right);
+        // shared instance is not a cycle reference, both branches are compared
+        Assert.assertEquals(result.getDifferences().size(), 2);
+        Assert.assertEquals(result.getDifferences().get(0).getNodeName(), "$.child.value");
+        Assert.assertEquals(result.getDifferences().get(1).getNodeName(), "$.next.value");
+    }
+
+    @Test
+    public void testCycleReference() {
+        GraphNode left = chain(100, -1);
+        GraphNode right = chain(100, 50);
+        tail(left).next = left;
+        tail(right).next = right;
+        CompareResult result = ComparableFactory.instance().createDefault().compare(left, right);
+        Assert.assertEquals(result.getDifferences().size(), 1);
+        Assert.assertEquals(result.getDifferences().get(0).getPaths().size(), 51);
+    }
+
+    @Test(timeOut = 10000)
+    public void testCompareGraphOf10k() {
+        compareGraph(10000);
+    }
+
+    @Test(timeOut = 30000)
+    public void testCompareGraphOf100k() {
+        compareGraph(100000);
+    }
+
+    @Test(timeOut = 10000)
+    public void testLargeSharedSubObject() {
+        int rows = 50000;
+        Comparable comparable = ComparableFactory.instance().createDefault();
+        CompareResult result = comparable.compare(rows(rows, dictionary(1000, -1)), rows(rows, dictionary(1000, 7)));
+        // the shared dictionary is compared once, its difference is reported under every row
+        Assert.assertEquals(result.getDifferences().size(), rows);
+        Assert.assertEquals(result.getDifferences().get(0).getNodeName(), "$[0].dictionary.entries[7].value");
+        Assert.assertEquals(result.getDifferences().get(rows - 1).getNodeName(), "$[" + (rows - 1) + "].dictionary.entries[7].value");
+    }
+
+    @Test(timeOut = 10000)
+    public void testNestedSharedGraph() {
+        // every node links its successor twice, 2^60 paths from the head
+        GraphNode left = diamond(60, false);
+        GraphNode right = diamond(60, true);
+        CompareResult result = ComparableFactory.instance().createDefault().compare(left, right);
+        Assert.assertEquals(result.getDifferences().size(), 1);
+        Assert.assertEquals(result.getDifferences().get(0).getNodeName(), "$.value");
+    }
+
+    private void compareGraph(int size) {
+        Comparable comparable = ComparableFactory.instance().createDefault();
+        List<GraphNode> left = graph(size, -1);
+        List<GraphNode> right = graph(size, 1000);
+        CompareResult result = comparable.compare(left, right);
+        Assert.assertEquals(result.getDifferences().size(), size / 1000);
+        for (int i = 0; i < result.getDifferences().size(); i++) {
+            Assert.assertEquals(result.getDifferences().get(i).getNodeName(), "$[" + i * 1000 + "].value");
+        }
+    }
+
+    /**
+     * build a graph with {@code size} nodes; each element links its successor and a shared node
+     */
+    private List<GraphNode> graph(int size, int diffEvery) {
+        GraphNode shared = new GraphNode(-1);
+        List<GraphNode> nodes = new ArrayList<GraphNode>(size);
+        for (int i = 0; i < size; i++) {
+            GraphNode node = new GraphNode(diffEvery > 0 && i % diffEvery == 0 ? -i - 1 : i);
+            node.child = shared;
+            nodes.add(node);
+        }
+        for (int i = 0; i + 1 < size; i++) {
+            // keep the link short to avoid deep recursion
+            nodes.get(i).next = i % 2 == 0 ? nodes.get(i + 1) : null;
+        }
+        return nodes;
+    }
+
+    private List<Row> rows(int size, Dictionary dictionary) {
+        List<Row> rows = new ArrayList<Row>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new Row(i, dictionary));
+        }
+        return rows;
+    }
+
+    private Dictionary dictionary(int size, int diffAt) {
+        Dictionary dictionary = new Dictionary();
+        for (int i = 0; i < size; i++) {
+            dictionary.entries.add(new GraphNode(i == diffAt ? -i : i));
+        }
+        return dictionary;
+    }
+
+    private GraphNode diamond(int depth, boolean diff) {
+        GraphNode current = new GraphNode(0);
+        for (int i = 1; i < depth; i++) {
+            GraphNode parent = new GraphNode(i);
+            parent.child = current;
+            parent.next = current;
+            current = parent;
+        }
+        current.value = diff ? -1 : current.value;
+        return current;
+    }
+
+    private GraphNode chain(int length, int diffAt) {
+        GraphNode head = new GraphNode(0);
+        GraphNode current = head;
+        for (int i = 1; i < length; i++) {
+            current.next = new GraphNode(i == diffAt ? -i : i);
+            current = current.next;
+        }
+        return head;
+    }
+
+    private GraphNode tail(GraphNode node) {
+        while (node.next != null) {
+            node = node.next;
+        }
+        return node;
+    }
+
+    static class Row {
+
+        private int id;
+
+        private Dictionary dictionary;
+
+        Row(int id, Dictionary dictionary) {
+            this.id = id;
+            this.dictionary = dictionary;
+        }
+    }
+
+    static class Dictionary {
+
+        private List<GraphNode> entries = new ArrayList<GraphNode>();
+    }
+
+    static class GraphNode {
+
+        private int value;
+
+        private GraphNode child;
+
+        private GraphNode next;
+
+        GraphNode(int value) {
+            this.value = value;
+        }
+    }
+}
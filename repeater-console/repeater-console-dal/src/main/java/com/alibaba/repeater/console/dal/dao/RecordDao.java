@@ -31,6 +31,16 @@ public class RecordDao {
         return recordRepository.save(record);
     }
 
+    /**
+     * 批量插入；{@link RecordRepository}是事务性的，整批在同一个事务中提交
+     *
+     * @param records 录制记录
+     * @return 插入后的记录
+     */
+    public List<Record> batchInsert(List<Record> records) {
+        return recordRepository.save(records);
+    }
+
     public Record selectByAppNameAndTraceId(String appName, String traceId) {
         return recordRepository.findByAppNameAndTraceId(appName, traceId);
     }
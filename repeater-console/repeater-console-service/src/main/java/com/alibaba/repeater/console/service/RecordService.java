@@ -24,6 +24,23 @@ public interface RecordService {
      */
     RepeaterResult<String> saveRecord(String body);
 
+    /**
+     * 存储二进制record（application/octet-stream）
+     *
+     * @param body hessian序列化后的录制记录
+     * @return 存储结果
+     */
+    RepeaterResult<String> saveRecord(byte[] body);
+
+    /**
+     * 批量存储record；整批在一个事务内完成
+     *
+     * @param frame 批量压缩帧
+     * @return 存储结果
+     * @see com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.RecordBatchCodec
+     */
+    RepeaterResult<String> batchSaveRecord(byte[] frame);
+
     /**
      * 查询
      *
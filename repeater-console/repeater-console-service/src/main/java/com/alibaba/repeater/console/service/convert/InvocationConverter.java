@@ -3,6 +3,7 @@ package com.alibaba.repeater.console.service.convert;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.Serializer;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializerProvider;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SerializerWrapper;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 import com.alibaba.repeater.console.common.domain.InvocationBO;
 import com.alibaba.repeater.console.service.util.JacksonUtil;
@@ -28,8 +29,8 @@ public class InvocationConverter implements ModelConverter<Invocation, Invocatio
         ibo.setIdentity(source.getIdentity().getUri());
         ibo.setInvokeType(source.getType().name());
         try {
-            ibo.setRequest(hessian.deserialize(source.getRequestSerialized(), Object[].class));
-            ibo.setResponse(hessian.deserialize(source.getResponseSerialized(), Object.class));
+            ibo.setRequest(hessian.deserialize(SerializerWrapper.getRequestBytes(source), Object[].class));
+            ibo.setResponse(hessian.deserialize(SerializerWrapper.getResponseBytes(source), Object.class));
         } catch (SerializeException e) {
             log.error("error deserialize record wrapper", e);
         }
@@ -3,7 +3,7 @@ package com.alibaba.repeater.console.service.impl;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.Comparable;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.ComparableFactory;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.CompareResult;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.RecordBatchCodec;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.RecordWrapper;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SerializerWrapper;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeatModel;
@@ -20,12 +20,15 @@ import com.alibaba.repeater.console.service.RecordService;
 import com.alibaba.repeater.console.service.convert.ModelConverter;
 import com.alibaba.repeater.console.service.util.ConvertUtil;
 import com.alibaba.repeater.console.service.util.JacksonUtil;
+import com.google.common.io.BaseEncoding;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -60,6 +63,42 @@ public class RecordServiceImpl implements RecordService {
         }
     }
 
+    @Override
+    public RepeaterResult<String> saveRecord(byte[] body) {
+        try {
+            RecordWrapper wrapper = SerializerWrapper.hessianDeserialize(body, RecordWrapper.class);
+            if (wrapper == null || StringUtils.isEmpty(wrapper.getAppName())) {
+                return RepeaterResult.builder().success(false).message("invalid request").build();
+            }
+            // 存储仍使用字符串格式，保证回放拉取接口与旧数据兼容
+            Record record = ConvertUtil.convertWrapper(wrapper, BaseEncoding.base64().encode(body));
+            recordDao.insert(record);
+            return RepeaterResult.builder().success(true).message("operate success").data("-/-").build();
+        } catch (Throwable throwable) {
+            return RepeaterResult.builder().success(false).message(throwable.getMessage()).build();
+        }
+    }
+
+    @Override
+    public RepeaterResult<String> batchSaveRecord(byte[] frame) {
+        try {
+            List<byte[]> payloads = RecordBatchCodec.decode(frame);
+            List<Record> records = new ArrayList<>(payloads.size());
+            for (byte[] payload : payloads) {
+                RecordWrapper wrapper = SerializerWrapper.hessianDeserialize(payload, RecordWrapper.class);
+                if (wrapper == null || StringUtils.isEmpty(wrapper.getAppName())) {
+                    log.warn("invalid record found in batch, skip it");
+                    continue;
+                }
+                records.add(ConvertUtil.convertWrapper(wrapper, BaseEncoding.base64().encode(payload)));
+            }
+            recordDao.batchInsert(records);
+            return RepeaterResult.builder().success(true).message("operate success").data(records.size() + "/" + payloads.size()).build();
+        } catch (Throwable throwable) {
+            return RepeaterResult.builder().success(false).message(throwable.getMessage()).build();
+        }
+    }
+
     @Override
     public RepeaterResult<String> get(String appName, String traceId) {
         Record record = recordDao.selectByAppNameAndTraceId(appName, traceId);
@@ -2,7 +2,9 @@ package com.alibaba.repeater.console.service.impl;
 
 import com.alibaba.jvm.sandbox.repeater.aide.compare.Comparable;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.ComparableFactory;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.CompareOptions;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.CompareResult;
+import com.alibaba.jvm.sandbox.repeater.aide.compare.comparator.Comparator;
 import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceGenerator;
@@ -32,6 +34,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import java.util.Date;
 import java.util.HashMap;
@@ -52,6 +55,11 @@ public class ReplayServiceImpl implements ReplayService {
     @Value("${repeat.repeat.url}")
     private String repeatURL;
 
+    @Value("${repeat.compare.parallel.threshold:10000}")
+    private int compareParallelThreshold;
+
+    private Comparable comparable;
+
     @Resource
     private ModuleInfoService moduleInfoService;
     @Resource
@@ -63,6 +71,12 @@ public class ReplayServiceImpl implements ReplayService {
     @Resource
     private DifferenceConvert differenceConvert;
 
+    @PostConstruct
+    public void init() {
+        comparable = ComparableFactory.instance().create(Comparator.CompareMode.DEFAULT,
+                CompareOptions.create().parallel(compareParallelThreshold));
+    }
+
     @Override
     public RepeaterResult<String> replay(ReplayParams params) {
         Optional.ofNullable(params.getIp()).orElseThrow(() -> new RuntimeException("ip can not be null"));
@@ -127,8 +141,7 @@ public class ReplayServiceImpl implements ReplayService {
             log.error("error occurred serialize replay response", e);
             return RepeaterResult.builder().message("operate failed").build();
         }
-        Comparable comparable = ComparableFactory.instance().createDefault();
-        // simple compare
+        // simple compare; large collections and maps are compared in parallel
         CompareResult result = comparable.compare(actual, expect);
         replay.setSuccess(!result.hasDifference());
         try {
@@ -6,6 +6,7 @@ import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializerProvider
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
 import com.alibaba.repeater.console.dal.model.Record;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.RecordWrapper;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SerializerWrapper;
 
 import java.util.Date;
 import java.util.HashMap;
@@ -28,13 +29,13 @@ public class ConvertUtil {
         record.setTraceId(wrapper.getTraceId());
         Serializer hessian = SerializerProvider.instance().provide(Serializer.Type.HESSIAN);
         try {
-            Object response = hessian.deserialize(wrapper.getEntranceInvocation().getResponseSerialized(), Object.class);
+            Object response = hessian.deserialize(SerializerWrapper.getResponseBytes(wrapper.getEntranceInvocation()), Object.class);
             if (response instanceof String) {
                 record.setResponse(convert2Json((String)response));
             } else {
                 record.setResponse(JacksonUtil.serialize(response));
             }
-            record.setRequest(JacksonUtil.serialize(hessian.deserialize(wrapper.getEntranceInvocation().getRequestSerialized(), Object[].class)));
+            record.setRequest(JacksonUtil.serialize(hessian.deserialize(SerializerWrapper.getRequestBytes(wrapper.getEntranceInvocation()), Object[].class)));
         } catch (SerializeException e) {
             // ignore
         }
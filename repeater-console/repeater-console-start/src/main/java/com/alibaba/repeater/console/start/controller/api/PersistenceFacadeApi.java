@@ -51,6 +51,16 @@ public class PersistenceFacadeApi {
         return recordService.saveRecord(body);
     }
 
+    @RequestMapping(value = "record/save", method = RequestMethod.POST, consumes = "application/octet-stream")
+    public RepeaterResult<String> recordSave(@RequestBody byte[] body) {
+        return recordService.saveRecord(body);
+    }
+
+    @RequestMapping(value = "record/batchSave", method = RequestMethod.POST)
+    public RepeaterResult<String> recordBatchSave(@RequestBody byte[] body) {
+        return recordService.batchSaveRecord(body);
+    }
+
     @RequestMapping(value = "repeat/save", method = RequestMethod.POST)
     public RepeaterResult<String> repeatSave(@RequestBody String body) {
         return replayService.saveRepeat(body);
@@ -12,6 +12,7 @@ import com.alibaba.jvm.sandbox.repeater.module.classloader.PluginClassLoader;
 import com.alibaba.jvm.sandbox.repeater.module.classloader.PluginClassRouting;
 import com.alibaba.jvm.sandbox.repeater.module.impl.JarFileLifeCycleManager;
 import com.alibaba.jvm.sandbox.repeater.module.util.LogbackUtils;
+import com.alibaba.jvm.sandbox.repeater.module.util.StartupTimer;
 import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.Broadcaster;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.ConfigManager;
@@ -20,14 +21,19 @@ import com.alibaba.jvm.sandbox.repeater.plugin.api.LifecycleManager;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.StandaloneSwitch;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.bridge.ClassloaderBridge;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.bridge.RepeaterBridge;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RecordCache;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.dedup.RecordDeduplicator;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.eventbus.EventBusInner;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.eventbus.RepeatEvent;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.AbstractBroadcaster;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultInvocationListener;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.model.ApplicationModel;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.sample.Sampler;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.Serializer;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializerProvider;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.spring.SpringContextInnerContainer;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.SubInvocationCollector;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TtlConcurrentAdvice;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.ExecutorInner;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PathUtils;
@@ -40,7 +46,10 @@ import com.alibaba.jvm.sandbox.repeater.plugin.exception.PluginLifeCycleExceptio
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.InvokePlugin;
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.Repeater;
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.SubscribeSupporter;
+import com.google.common.collect.Lists;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.kohsuke.MetaInfServices;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,8 +59,14 @@ import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.alibaba.jvm.sandbox.repeater.plugin.Constants.REPEAT_PLUGIN_PARALLEL_INIT;
 import static com.alibaba.jvm.sandbox.repeater.plugin.Constants.REPEAT_SPRING_ADVICE_SWITCH;
 
 /**
@@ -94,6 +109,8 @@ public class RepeaterModule implements Module, ModuleLifecycle {
 
     private AtomicBoolean initialized = new AtomicBoolean(false);
 
+    private final StartupTimer startupTimer = new StartupTimer();
+
     @Override
     public void onLoad() throws Throwable {
         // 初始化日志框架
@@ -114,6 +131,9 @@ public class RepeaterModule implements Module, ModuleLifecycle {
         if (lifecycleManager != null) {
             lifecycleManager.release();
         }
+        if (broadcaster instanceof AbstractBroadcaster) {
+            ((AbstractBroadcaster) broadcaster).destroy();
+        }
         heartbeatHandler.stop();
     }
 
@@ -132,13 +152,20 @@ public class RepeaterModule implements Module, ModuleLifecycle {
         ExecutorInner.execute(new Runnable() {
             @Override
             public void run() {
+                startupTimer.reset();
                 configManager = StandaloneSwitch.instance().getConfigManager();
                 broadcaster = StandaloneSwitch.instance().getBroadcaster();
+                if (broadcaster instanceof AbstractBroadcaster) {
+                    Sampler.instance().watch((AbstractBroadcaster) broadcaster);
+                }
                 invocationListener = new DefaultInvocationListener(broadcaster);
+                long start = startupTimer.getBegin();
                 RepeaterResult<RepeaterConfig> pr = configManager.pullConfig();
+                start = startupTimer.record("config.pull", start);
                 if (pr.isSuccess()) {
                     log.info("pull repeater config success,config={}", pr.getData());
                     ClassloaderBridge.init(loadedClassDataSource);
+                    startupTimer.record("classloader.bridge", start);
                     initialize(pr.getData());
                 }
             }
@@ -155,9 +182,11 @@ public class RepeaterModule implements Module, ModuleLifecycle {
     private synchronized void initialize(RepeaterConfig config) {
         if (initialized.compareAndSet(false, true)) {
             try {
+                long start = System.currentTimeMillis();
                 ApplicationModel.instance().setConfig(config);
                 // 特殊路由表;
                 PluginClassLoader.Routing[] routingArray = PluginClassRouting.wellKnownRouting(configInfo.getMode() == Mode.AGENT, 20L);
+                start = startupTimer.record("plugin.routing", start);
                 String pluginsPath;
                 if (StringUtils.isEmpty(config.getPluginsPath())) {
                     pluginsPath = PathUtils.getPluginPath();
@@ -165,19 +194,12 @@ public class RepeaterModule implements Module, ModuleLifecycle {
                     pluginsPath = config.getPluginsPath();
                 }
                 lifecycleManager = new JarFileLifeCycleManager(pluginsPath, routingArray);
+                start = startupTimer.record("plugin.jar", start);
                 // 装载插件
                 invokePlugins = lifecycleManager.loadInvokePlugins();
-                for (InvokePlugin invokePlugin : invokePlugins) {
-                    try {
-                        if (invokePlugin.enable(config)) {
-                            log.info("enable plugin {} success", invokePlugin.identity());
-                            invokePlugin.watch(eventWatcher, invocationListener);
-                            invokePlugin.onConfigChange(config);
-                        }
-                    } catch (PluginLifeCycleException e) {
-                        log.info("watch plugin occurred error", e);
-                    }
-                }
+                start = startupTimer.record("plugin.spi", start);
+                watchPlugins(config);
+                start = startupTimer.record("plugin.watch", start);
                 // 装载回放器
                 List<Repeater> repeaters = lifecycleManager.loadRepeaters();
                 for (Repeater repeater : repeaters) {
@@ -186,12 +208,15 @@ public class RepeaterModule implements Module, ModuleLifecycle {
                     }
                 }
                 RepeaterBridge.instance().build(repeaters);
+                start = startupTimer.record("repeater.load", start);
                 // 装载消息订阅器
                 List<SubscribeSupporter> subscribes = lifecycleManager.loadSubscribes();
                 for (SubscribeSupporter subscribe : subscribes) {
                     subscribe.register();
                 }
+                start = startupTimer.record("subscribe.load", start);
                 TtlConcurrentAdvice.watcher(eventWatcher).watch(config);
+                startupTimer.record("ttl.watch", start);
             } catch (Throwable throwable) {
                 initialized.compareAndSet(true, false);
                 log.error("error occurred when initialize module", throwable);
@@ -199,6 +224,66 @@ public class RepeaterModule implements Module, ModuleLifecycle {
         }
     }
 
+    /**
+     * 观察已开启的插件
+     * <p>
+     * 插件之间相互独立，开启repeat.plugin.parallel.init后各自的类匹配和retransform并行执行；单个插件的异常不影响其他插件
+     *
+     * @param config 配置文件
+     * @throws Throwable 插件观察过程中非插件生命周期的异常
+     */
+    private void watchPlugins(final RepeaterConfig config) throws Throwable {
+        List<InvokePlugin> enabled = Lists.newArrayList();
+        for (InvokePlugin invokePlugin : invokePlugins) {
+            if (invokePlugin.enable(config)) {
+                enabled.add(invokePlugin);
+            }
+        }
+        boolean parallel = Boolean.valueOf(PropertyUtil.getPropertyOrDefault(REPEAT_PLUGIN_PARALLEL_INIT, "false"));
+        int threads = parallel ? Math.min(enabled.size(), Runtime.getRuntime().availableProcessors()) : 1;
+        if (threads <= 1) {
+            for (InvokePlugin invokePlugin : enabled) {
+                watchPlugin(invokePlugin, config);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new BasicThreadFactory.Builder().namingPattern("repeater-plugin-init-%d").daemon(true).build());
+        try {
+            List<Future<?>> futures = Lists.newArrayList();
+            for (final InvokePlugin invokePlugin : enabled) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        watchPlugin(invokePlugin, config);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void watchPlugin(InvokePlugin invokePlugin, RepeaterConfig config) {
+        long start = System.currentTimeMillis();
+        try {
+            log.info("enable plugin {} success", invokePlugin.identity());
+            invokePlugin.watch(eventWatcher, invocationListener);
+            invokePlugin.onConfigChange(config);
+        } catch (PluginLifeCycleException e) {
+            log.info("watch plugin occurred error", e);
+        }
+        startupTimer.record("plugin.watch." + invokePlugin.identity(), start);
+    }
+
     /**
      * 回放http接口
      *
@@ -246,6 +331,7 @@ public class RepeaterModule implements Module, ModuleLifecycle {
     }
 
     private synchronized void reload() throws ModuleException {
+        startupTimer.reset();
         moduleController.frozen();
         // unwatch all plugin
         RepeaterResult<RepeaterConfig> result = configManager.pullConfig();
@@ -310,6 +396,69 @@ public class RepeaterModule implements Module, ModuleLifecycle {
         }
     }
 
+    /**
+     * 录制运行状态
+     *
+     * @param req    请求参数
+     * @param writer printWriter
+     */
+    @Command("status")
+    public void status(final Map<String, String> req, final PrintWriter writer) {
+        writer.println("invocation.inflight=" + RecordCache.getInvocationSize());
+        writer.println("invocation.expired=" + RecordCache.getExpiredInvocationCount());
+        writer.println("invocation.replaced=" + RecordCache.getReplacedInvocationCount());
+        writer.println("invocation.orphan=" + DefaultInvocationListener.getOrphanCount());
+        writer.println("subInvocation.overflow=" + SubInvocationCollector.getOverflowTotal());
+        writer.println("subInvocation.late=" + SubInvocationCollector.getLateTotal());
+        Sampler sampler = Sampler.instance();
+        writer.println("sampler.throttle=" + sampler.getThrottle());
+        writer.println("sampler.queueUsage=" + sampler.getQueueUsage());
+        writer.println("sampler.cpuUsage=" + sampler.getCpuUsage());
+        writer.println("sampler.accepted=" + sampler.getAcceptedCount());
+        writer.println("sampler.globalRejected=" + sampler.getGlobalRejectedCount());
+        writer.println("sampler.identityRejected=" + sampler.getIdentityRejectedCount());
+        writer.println("sampler.throttleRejected=" + sampler.getThrottleRejectedCount());
+        writer.println("sampler.backoff=" + sampler.getBackoffCount());
+        RecordDeduplicator deduplicator = RecordDeduplicator.instance();
+        writer.println("dedup.enabled=" + deduplicator.isEnabled());
+        writer.println("dedup.endpoints=" + deduplicator.getEndpointCount());
+        writer.println("dedup.hit=" + deduplicator.getHitCount());
+        writer.println("dedup.miss=" + deduplicator.getMissCount());
+        writer.println("dedup.bypass=" + deduplicator.getBypassCount());
+    }
+
+    /**
+     * 模块启动（或最近一次reload）各阶段耗时
+     *
+     * @param req    请求参数
+     * @param writer printWriter
+     */
+    @Command("startup")
+    public void startup(final Map<String, String> req, final PrintWriter writer) {
+        writer.println("initialized=" + initialized.get());
+        writer.println("elapsed=" + startupTimer.getElapsed());
+        for (Map.Entry<String, Long> entry : startupTimer.getPhases().entrySet()) {
+            writer.println(entry.getKey() + "=" + entry.getValue());
+        }
+    }
+
+    /**
+     * 各入口URI的采样计数
+     *
+     * @param req    请求参数（limit：最多输出的URI数，默认100）
+     * @param writer printWriter
+     */
+    @Command("sampler")
+    public void sampler(final Map<String, String> req, final PrintWriter writer) {
+        int limit = NumberUtils.toInt(req.get("limit"), 100);
+        List<Sampler.Quota> quotas = Sampler.instance().getQuotas();
+        writer.println("identities=" + quotas.size());
+        for (int i = 0; i < quotas.size() && i < limit; i++) {
+            Sampler.Quota quota = quotas.get(i);
+            writer.println(quota.getUri() + " accepted=" + quota.getAccepted() + ",rejected=" + quota.getRejected());
+        }
+    }
+
     /**
      * 通知配置变更
      *
@@ -0,0 +1,151 @@
+package com.alibaba.jvm.sandbox.repeater.module.classloader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ClassNameMatcher} 预编译的类名匹配器
+ * <p>
+ * 形如{@code ^com.foo..*}的包前缀规则放入前缀树，按包名前缀{@code com.foo.}匹配，一次遍历类名即可判定；
+ * 其他规则预编译为{@link Pattern}兜底，不再在每次类加载时重新编译正则
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+final class ClassNameMatcher {
+
+    private final static Logger log = LoggerFactory.getLogger(ClassNameMatcher.class);
+
+    private static final String ANY = ".*";
+
+    private final Node root = new Node();
+
+    private final Pattern[] patterns;
+
+    private boolean hasPrefix;
+
+    ClassNameMatcher(Collection<String> regexExpresses) {
+        List<Pattern> compiled = new ArrayList<Pattern>();
+        for (String regexExpress : regexExpresses) {
+            String prefix = literalPrefix(regexExpress);
+            if (prefix != null) {
+                root.insert(prefix);
+                hasPrefix = true;
+                continue;
+            }
+            try {
+                compiled.add(Pattern.compile(regexExpress));
+            } catch (Throwable cause) {
+                log.warn("invalid class routing regex-express = {}", regexExpress, cause);
+            }
+        }
+        this.patterns = compiled.toArray(new Pattern[0]);
+    }
+
+    /**
+     * 类名是否命中任一规则
+     *
+     * @param javaClassName 类名
+     * @return true:命中;false:不命中;
+     */
+    boolean matches(String javaClassName) {
+        if (hasPrefix && root.matchesPrefixOf(javaClassName)) {
+            return true;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(javaClassName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析包前缀规则：可选的{@code ^} + 由标识符和点组成的包名 + {@code .*}；规则中包名后的{@code .}按包分隔符处理
+     *
+     * @param regexExpress 规则表达式
+     * @return 包名前缀；不是包前缀规则返回null
+     */
+    static String literalPrefix(String regexExpress) {
+        String body = regexExpress.startsWith("^") ? regexExpress.substring(1) : regexExpress;
+        if (!body.endsWith(ANY)) {
+            return null;
+        }
+        body = body.substring(0, body.length() - ANY.length());
+        if (body.length() == 0) {
+            return null;
+        }
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c != '.' && !Character.isJavaIdentifierPart(c)) {
+                return null;
+            }
+        }
+        return body;
+    }
+
+    /**
+     * 按字符组织的前缀树；分支数很小，子节点用数组线性查找
+     */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private boolean terminal;
+
+        private void insert(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.childOrCreate(prefix.charAt(i));
+            }
+            node.terminal = true;
+        }
+
+        private boolean matchesPrefixOf(String name) {
+            Node node = this;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.child(name.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char c) {
+            Node child = child(c);
+            if (child != null) {
+                return child;
+            }
+            child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, keys.length);
+            System.arraycopy(children, 0, newChildren, 0, children.length);
+            newKeys[keys.length] = c;
+            newChildren[children.length] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
@@ -5,8 +5,6 @@ import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
 import com.google.common.collect.Lists;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.lang.reflect.Method;
@@ -16,30 +14,108 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarFile;
 
 /**
  * 插件类加载器；父类加载器是sandbox's module classLoader
  * <p>
+ * 路由规则在构造时预编译（见{@link ClassNameMatcher}）；类加载按类名分段加锁，不同类可以并行加载；所有途径都加载不到的类名进入负查找缓存，
+ * 缓存按类名过期（路由目标类加载器可能稍后才就绪）
+ * <p>
  *
  * @author zhaoyb1990
  */
 @Stealth
 public class PluginClassLoader extends URLClassLoader {
 
-    private final static Logger log = LoggerFactory.getLogger(PluginClassLoader.class);
+    /**
+     * 负查找缓存上限，超过后先清理过期的类名，仍然超过时不再缓存新的类名
+     */
+    private final static int MAX_MISSING = 4096;
+
+    /**
+     * 负查找缓存的有效期（毫秒）
+     */
+    private final static long MISSING_TTL = 5000L;
+
+    /**
+     * 加载锁分段数，必须是2的幂
+     */
+    private final static int LOCK_STRIPES = 64;
+
+    /**
+     * 使用模块加载的类；规则是常量，所有插件类加载器共用
+     */
+    private final static ClassNameMatcher PARENT_MATCHER = new ClassNameMatcher(Arrays.asList(Constants.PLUGIN_CLASS_PATTERN));
+
+    static {
+        // JDK7+支持按类名并行加载；JDK6上没有该方法，退化为按类名加锁
+        try {
+            registerAsParallelCapable();
+        } catch (Throwable cause) {
+            // ignore
+        }
+    }
 
     private final List<Routing> routingArray = Lists.newArrayList();
 
+    /**
+     * 按类名hash分段的加载锁，数量固定
+     */
+    private final Object[] loadingLocks = new Object[LOCK_STRIPES];
+
+    /**
+     * 所有途径都加载不到的类名及其过期时间；框架探测类是否存在时会反复加载同一个不存在的类
+     */
+    private final ConcurrentHashMap<String, Long> missing = new ConcurrentHashMap<String, Long>();
+
     public PluginClassLoader(URL[] urls, ClassLoader parent, Routing... routingArray) {
         super(urls, parent);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            loadingLocks[i] = new Object();
+        }
         if (ArrayUtils.isNotEmpty(routingArray)) {
             this.routingArray.addAll(Arrays.asList(routingArray));
         }
     }
 
     @Override
-    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Long expireAt = missing.get(name);
+        if (expireAt != null) {
+            if (expireAt > System.currentTimeMillis()) {
+                throw new ClassNotFoundException(name);
+            }
+            missing.remove(name, expireAt);
+        }
+        synchronized (loadingLock(name)) {
+            try {
+                return doLoadClass(name, resolve);
+            } catch (ClassNotFoundException e) {
+                markMissing(name);
+                throw e;
+            }
+        }
+    }
+
+    private void markMissing(String name) {
+        long now = System.currentTimeMillis();
+        if (missing.size() >= MAX_MISSING) {
+            for (Map.Entry<String, Long> entry : missing.entrySet()) {
+                if (entry.getValue() <= now) {
+                    missing.remove(entry.getKey(), entry.getValue());
+                }
+            }
+            if (missing.size() >= MAX_MISSING) {
+                return;
+            }
+        }
+        missing.put(name, now + MISSING_TTL);
+    }
+
+    private Class<?> doLoadClass(String name, boolean resolve) throws ClassNotFoundException {
 
         // plugin-api的类;slf4j;logback；使用模块加载
         if (userParent(name)) {
@@ -92,12 +168,12 @@ public class PluginClassLoader extends URLClassLoader {
      * @return 是否使用父类加载
      */
     private boolean userParent(String name) {
-        for (String pattern : Constants.PLUGIN_CLASS_PATTERN) {
-            if (name.matches(pattern)) {
-                return true;
-            }
-        }
-        return false;
+        return PARENT_MATCHER.matches(name);
+    }
+
+    private Object loadingLock(String name) {
+        int hash = name.hashCode();
+        return loadingLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
     }
 
     /**
@@ -153,6 +229,8 @@ public class PluginClassLoader extends URLClassLoader {
 
         private final Collection<String> regexExpresses = new ArrayList<String>();
 
+        private final ClassNameMatcher matcher;
+
         private final ClassLoader classLoader;
 
         /**
@@ -165,6 +243,7 @@ public class PluginClassLoader extends URLClassLoader {
             if (ArrayUtils.isNotEmpty(regexExpressArray)) {
                 regexExpresses.addAll(Arrays.asList(regexExpressArray));
             }
+            this.matcher = new ClassNameMatcher(regexExpresses);
             this.classLoader = classLoader;
         }
 
@@ -176,16 +255,7 @@ public class PluginClassLoader extends URLClassLoader {
          * @return true:命中;false:不命中;
          */
         private boolean isHit(final String javaClassName) {
-            for (final String regexExpress : regexExpresses) {
-                try {
-                    if (javaClassName.matches(regexExpress)) {
-                        return true;
-                    }
-                } catch (Throwable cause) {
-                    log.warn("routing {} failed, regex-express = {}", javaClassName, regexExpress, cause);
-                }
-            }
-            return false;
+            return matcher.matches(javaClassName);
         }
 
         @Override
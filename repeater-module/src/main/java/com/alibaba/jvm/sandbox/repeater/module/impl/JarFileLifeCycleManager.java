@@ -1,20 +1,30 @@
 package com.alibaba.jvm.sandbox.repeater.module.impl;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.List;
 
 import com.alibaba.jvm.sandbox.repeater.module.classloader.PluginClassLoader;
 import com.alibaba.jvm.sandbox.repeater.module.util.SPILoader;
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.LifecycleManager;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.InvokePlugin;
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.Repeater;
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.SubscribeSupporter;
 
 import com.google.common.collect.Lists;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +39,19 @@ public class JarFileLifeCycleManager implements LifecycleManager {
 
     private final static String JAR_FILE_SUFFIX = ".jar";
 
+    private final static String IN_PLACE = "inplace";
+
+    private final static String DEFAULT_CACHE_DIR = "repeater-plugin-cache";
+
+    private final static String STAMP_SUFFIX = ".stamp";
+
+    private final static String STAMP_SPLITTER = ":";
+
+    /**
+     * SHA-1十六进制摘要长度
+     */
+    private final static int DIGEST_LENGTH = 40;
+
     private final PluginClassLoader classLoader;
 
     public JarFileLifeCycleManager(String jarFilePath, PluginClassLoader.Routing ... routingArray) {
@@ -40,7 +63,7 @@ public class JarFileLifeCycleManager implements LifecycleManager {
         if (urLs.length == 0) {
             throw new IllegalArgumentException("does not have any available jar in path:" + jarFilePath);
         }
-        this.classLoader = new PluginClassLoader(getURLs(jarFilePath), this.getClass().getClassLoader(), routingArray);
+        this.classLoader = new PluginClassLoader(urLs, this.getClass().getClassLoader(), routingArray);
     }
 
     @Override
@@ -78,10 +101,7 @@ public class JarFileLifeCycleManager implements LifecycleManager {
             for (File jarFile : files) {
                 if (isJar(jarFile)) {
                     try {
-                        File tempFile = File.createTempFile("repeater_plugin", ".jar");
-                        tempFile.deleteOnExit();
-                        FileUtils.copyFile(jarFile, tempFile);
-                        jarPaths.add(new URL("file:" + tempFile.getPath()));
+                        jarPaths.add(resolve(jarFile).toURI().toURL());
                     } catch (IOException e) {
                         log.error("error occurred when get jar file", e);
                     }
@@ -91,9 +111,7 @@ public class JarFileLifeCycleManager implements LifecycleManager {
             }
         } else if (isJar(file)) {
             try {
-                File tempFile = File.createTempFile("repeater_plugin", ".jar");
-                FileUtils.copyFile(file, tempFile);
-                jarPaths.add(new URL("file:" + tempFile.getPath()));
+                jarPaths.add(resolve(file).toURI().toURL());
             } catch (IOException e) {
                 log.error("error occurred when get jar file", e);
             }
@@ -104,6 +122,120 @@ public class JarFileLifeCycleManager implements LifecycleManager {
         return jarPaths.toArray(new URL[0]);
     }
 
+    /**
+     * 获取实际加载的jar文件
+     * <p>
+     * 插件目录中的jar可能在运行中被覆盖（如升级后reload），因此默认不直接加载；拷贝到缓存目录，缓存文件名包含内容摘要。
+     * 缓存目录中为每个jar记录一个印记文件（源jar长度、修改时间、摘要），重启时印记不变直接复用缓存，不读取jar内容；
+     * 印记变化时边拷贝边计算摘要，并删除同名jar的旧缓存
+     * </p>
+     *
+     * @param jarFile 插件jar
+     * @return 实际加载的jar
+     * @throws IOException 读取或拷贝失败
+     */
+    private File resolve(File jarFile) throws IOException {
+        String cachePath = PropertyUtil.getPropertyOrDefault(Constants.REPEAT_PLUGIN_JAR_CACHE, "");
+        if (IN_PLACE.equalsIgnoreCase(cachePath)) {
+            return jarFile;
+        }
+        File cacheDir = StringUtils.isBlank(cachePath) ?
+                new File(System.getProperty("java.io.tmpdir"), DEFAULT_CACHE_DIR) : new File(cachePath.trim());
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            log.warn("plugin jar cache directory is unavailable, use temp file instead, path={}", cacheDir);
+            File tempFile = File.createTempFile("repeater_plugin", JAR_FILE_SUFFIX);
+            tempFile.deleteOnExit();
+            FileUtils.copyFile(jarFile, tempFile);
+            return tempFile;
+        }
+        String name = jarFile.getName();
+        File stampFile = new File(cacheDir, name + STAMP_SUFFIX);
+        String stamp = jarFile.length() + STAMP_SPLITTER + jarFile.lastModified();
+        String recorded = stampFile.isFile() ? FileUtils.readFileToString(stampFile, "UTF-8") : "";
+        if (recorded.startsWith(stamp + STAMP_SPLITTER)) {
+            File cached = new File(cacheDir, recorded.substring(stamp.length() + 1) + "-" + name);
+            if (cached.isFile() && cached.length() == jarFile.length()) {
+                return cached;
+            }
+        }
+        // 先写临时文件再改名，避免多个进程同时写入时加载到不完整的jar；摘要按实际拷贝的内容计算
+        File tempFile = File.createTempFile("repeater_plugin", JAR_FILE_SUFFIX, cacheDir);
+        try {
+            String digest = copy(jarFile, tempFile);
+            File cached = new File(cacheDir, digest + "-" + name);
+            if (!cached.isFile() || cached.length() != tempFile.length()) {
+                FileUtils.deleteQuietly(cached);
+                if (!tempFile.renameTo(cached) && !cached.isFile()) {
+                    throw new IOException("rename cached plugin jar failed, path=" + cached);
+                }
+            }
+            // 拷贝期间jar被修改时不记录印记，下次启动重新拷贝
+            if (stamp.equals(jarFile.length() + STAMP_SPLITTER + jarFile.lastModified())) {
+                FileUtils.writeStringToFile(stampFile, stamp + STAMP_SPLITTER + digest, "UTF-8");
+            }
+            prune(cacheDir, name, cached);
+            return cached;
+        } finally {
+            FileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * 拷贝jar并计算拷贝内容的摘要
+     *
+     * @param source 源文件
+     * @param target 目标文件
+     * @return 十六进制摘要
+     * @throws IOException 读写失败
+     */
+    private String copy(File source, File target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage());
+        }
+        InputStream is = new FileInputStream(source);
+        OutputStream os = new FileOutputStream(target);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                os.write(buffer, 0, read);
+            }
+        } finally {
+            IOUtils.closeQuietly(is);
+            IOUtils.closeQuietly(os);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 删除同名jar的旧缓存
+     *
+     * @param cacheDir 缓存目录
+     * @param name     jar文件名
+     * @param current  当前使用的缓存
+     */
+    private void prune(File cacheDir, String name, File current) {
+        File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String fileName = file.getName();
+            if (!file.equals(current) && fileName.length() == DIGEST_LENGTH + 1 + name.length()
+                    && fileName.endsWith("-" + name) && fileName.substring(0, DIGEST_LENGTH).matches("[0-9a-f]+")) {
+                FileUtils.deleteQuietly(file);
+            }
+        }
+    }
+
     /**
      * @param file
      * @return
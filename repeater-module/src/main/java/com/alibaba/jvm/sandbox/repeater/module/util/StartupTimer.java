@@ -0,0 +1,72 @@
+package com.alibaba.jvm.sandbox.repeater.module.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link StartupTimer} 模块启动各阶段耗时
+ * <p>
+ * 每次初始化插件（包括reload）重新计时；阶段按首次记录的顺序输出，同名阶段累加
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class StartupTimer {
+
+    private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+
+    private volatile long begin = System.currentTimeMillis();
+
+    private volatile long end = begin;
+
+    /**
+     * 清空已记录的阶段，重新开始计时
+     */
+    public synchronized void reset() {
+        phases.clear();
+        begin = System.currentTimeMillis();
+        end = begin;
+    }
+
+    /**
+     * 记录阶段耗时
+     *
+     * @param phase 阶段名
+     * @param start 阶段开始时间（毫秒）
+     * @return 当前时间，可作为下一阶段的开始时间
+     */
+    public synchronized long record(String phase, long start) {
+        long now = System.currentTimeMillis();
+        Long exist = phases.get(phase);
+        phases.put(phase, (exist == null ? 0L : exist) + now - start);
+        end = Math.max(end, now);
+        return now;
+    }
+
+    /**
+     * 计时开始的时间
+     *
+     * @return 开始时间（毫秒）
+     */
+    public long getBegin() {
+        return begin;
+    }
+
+    /**
+     * 计时开始到最后一个阶段结束的耗时
+     *
+     * @return 耗时（毫秒）
+     */
+    public long getElapsed() {
+        return end - begin;
+    }
+
+    /**
+     * 各阶段耗时快照
+     *
+     * @return 阶段名 -> 耗时（毫秒）
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<String, Long>(phases);
+    }
+}
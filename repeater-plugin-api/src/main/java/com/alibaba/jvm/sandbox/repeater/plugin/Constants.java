@@ -33,6 +33,141 @@ public class Constants {
      */
     public static final String DEFAULT_RECORD_BROADCASTER = "broadcaster.record.url";
 
+    /**
+     * 录制消息队列容量（会向上取整为2的幂）
+     */
+    public static final String RECORD_QUEUE_SIZE = "broadcaster.queue.size";
+
+    /**
+     * 录制消息队列消费线程数
+     */
+    public static final String RECORD_QUEUE_CONSUMERS = "broadcaster.queue.consumers";
+
+    /**
+     * 录制消息队列消费者等待策略：blocking/spinning/parking
+     */
+    public static final String RECORD_QUEUE_WAIT_STRATEGY = "broadcaster.queue.wait.strategy";
+
+    /**
+     * 录制消息队列满时的丢弃策略：discard_newest/discard_oldest
+     */
+    public static final String RECORD_QUEUE_DROP_POLICY = "broadcaster.queue.drop.policy";
+
+    /**
+     * 是否开启录制消息批量投递
+     */
+    public static final String RECORD_BATCH_MODE = "broadcaster.batch.mode";
+
+    /**
+     * 批量录制消息投递地址
+     */
+    public static final String RECORD_BATCH_BROADCASTER = "broadcaster.record.batch.url";
+
+    /**
+     * 单批最大消息数
+     */
+    public static final String RECORD_BATCH_MAX_COUNT = "broadcaster.batch.max.count";
+
+    /**
+     * 单批最大字节数（压缩前）
+     */
+    public static final String RECORD_BATCH_MAX_BYTES = "broadcaster.batch.max.bytes";
+
+    /**
+     * 单批最长等待时间（毫秒）
+     */
+    public static final String RECORD_BATCH_LINGER_MS = "broadcaster.batch.linger.ms";
+
+    /**
+     * 单批投递失败时的最大尝试次数
+     */
+    public static final String RECORD_BATCH_RETRY = "broadcaster.batch.retry";
+
+    /**
+     * 是否开启快照录制模式；开启后业务线程只对入参/返回值做结构拷贝，序列化由投递线程完成
+     */
+    public static final String RECORD_SNAPSHOT_MODE = "record.snapshot.mode";
+
+    /**
+     * 快照拷贝的最大深度，超过深度的对象直接引用
+     */
+    public static final String RECORD_SNAPSHOT_MAX_DEPTH = "record.snapshot.max.depth";
+
+    /**
+     * 单次快照最多拷贝的元素数，超过后退回到及时序列化
+     */
+    public static final String RECORD_SNAPSHOT_MAX_SIZE = "record.snapshot.max.size";
+
+    /**
+     * 单条链路最多收集的子调用数
+     */
+    public static final String RECORD_SUB_INVOCATION_MAX_COUNT = "record.sub.invocation.max.count";
+
+    /**
+     * 单条链路最多收集的子调用字节数（序列化后）
+     */
+    public static final String RECORD_SUB_INVOCATION_MAX_BYTES = "record.sub.invocation.max.bytes";
+
+    /**
+     * 全局每秒最多录制的入口调用数，小于等于0不限制
+     */
+    public static final String RECORD_SAMPLE_GLOBAL_RATE = "record.sample.global.rate";
+
+    /**
+     * 单个入口URI每秒最多录制的调用数，小于等于0不限制
+     */
+    public static final String RECORD_SAMPLE_IDENTITY_RATE = "record.sample.identity.rate";
+
+    /**
+     * 独立配额的入口URI数上限，超过后新URI共用一个配额
+     */
+    public static final String RECORD_SAMPLE_MAX_IDENTITIES = "record.sample.max.identities";
+
+    /**
+     * 录制队列使用率超过该值时采样退避
+     */
+    public static final String RECORD_SAMPLE_QUEUE_WATERMARK = "record.sample.queue.watermark";
+
+    /**
+     * 投递线程CPU占用（占全部CPU的比例）超过该值时采样退避
+     */
+    public static final String RECORD_SAMPLE_CPU_LIMIT = "record.sample.cpu.limit";
+
+    /**
+     * 是否开启录制消息去重；开启后同一入口URI在时间窗口内结构相同的录制消息不再投递
+     */
+    public static final String RECORD_DEDUP_MODE = "record.dedup.mode";
+
+    /**
+     * 录制消息去重的时间窗口（毫秒）
+     */
+    public static final String RECORD_DEDUP_WINDOW_MS = "record.dedup.window.ms";
+
+    /**
+     * 单个入口URI去重过滤器的位数
+     */
+    public static final String RECORD_DEDUP_BLOOM_BITS = "record.dedup.bloom.bits";
+
+    /**
+     * 做去重的入口URI数上限
+     */
+    public static final String RECORD_DEDUP_MAX_ENDPOINTS = "record.dedup.max.endpoints";
+
+    /**
+     * 开启ttl时的上下文跨线程传递方式(ttl/light)；light只对注册的线程池传递上下文，上下文载体使用普通ThreadLocal
+     */
+    public static final String TRACE_PROPAGATION_MODE = "trace.propagation.mode";
+
+    /**
+     * light传递方式下需要传递上下文的线程池类（逗号分隔）
+     */
+    public static final String TRACE_PROPAGATION_EXECUTORS = "trace.propagation.executors";
+
+    /**
+     * 参数匹配mock时的相似度计算实现(levenshtein/banded/minhash)
+     */
+    public static final String REPEAT_MOCK_SIMILARITY_ENGINE = "repeat.mock.similarity.engine";
+
     /**
      * 是否开启单机工作模式
      */
@@ -48,6 +183,16 @@ public class Constants {
      */
     public static final String REPEAT_HEARTBEAT_URL= "repeat.heartbeat.url";
 
+    /**
+     * 插件jar缓存目录；插件jar按内容摘要拷贝到该目录，jar长度和修改时间不变时重启直接复用；配置为inplace时直接加载插件目录中的jar
+     */
+    public static final String REPEAT_PLUGIN_JAR_CACHE = "repeat.plugin.jar.cache";
+
+    /**
+     * 是否并行初始化插件，默认关闭
+     */
+    public static final String REPEAT_PLUGIN_PARALLEL_INIT = "repeat.plugin.parallel.init";
+
     /**
      * 插件自有类正则
      */
@@ -64,6 +64,13 @@ public class Invocation implements java.io.Serializable {
      */
     private String requestSerialized;
 
+    /**
+     * 序列化之后的请求二进制值；录制默认使用该字段传输，避免base64编码的膨胀和拷贝
+     * <p>
+     * 旧版本数据只有{@link Invocation#requestSerialized}，读取时需要兼容两种格式
+     */
+    private byte[] requestBytes;
+
     /**
      * 返回结果 - snapshot 不做传输使用
      */
@@ -74,6 +81,11 @@ public class Invocation implements java.io.Serializable {
      */
     private String responseSerialized;
 
+    /**
+     * 序列化之后的返回二进制值，与{@link Invocation#responseSerialized}二选一，见{@link Invocation#requestBytes}
+     */
+    private byte[] responseBytes;
+
     /**
      * 异常信息 - snapshot 不做传输使用
      */
@@ -84,6 +96,11 @@ public class Invocation implements java.io.Serializable {
      */
     private String throwableSerialized;
 
+    /**
+     * 序列化之后的异常二进制值，与{@link Invocation#throwableSerialized}二选一，见{@link Invocation#requestBytes}
+     */
+    private byte[] throwableBytes;
+
     /**
      * 调用开始时间
      */
@@ -104,6 +121,11 @@ public class Invocation implements java.io.Serializable {
      */
     private transient ClassLoader classLoader;
 
+    /**
+     * 请求/返回值是否已做快照；快照模式下业务线程只做结构拷贝，序列化延迟到投递线程（透传不做传输）
+     */
+    private transient boolean snapshot;
+
     public InvokeType getType() {
         return type;
     }
@@ -176,6 +198,14 @@ public class Invocation implements java.io.Serializable {
         this.requestSerialized = requestSerialized;
     }
 
+    public byte[] getRequestBytes() {
+        return requestBytes;
+    }
+
+    public void setRequestBytes(byte[] requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+
     public Object getResponse() {
         return response;
     }
@@ -192,6 +222,14 @@ public class Invocation implements java.io.Serializable {
         this.responseSerialized = responseSerialized;
     }
 
+    public byte[] getResponseBytes() {
+        return responseBytes;
+    }
+
+    public void setResponseBytes(byte[] responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
     public Throwable getThrowable() {
         return throwable;
     }
@@ -208,6 +246,14 @@ public class Invocation implements java.io.Serializable {
         this.throwableSerialized = throwableSerialized;
     }
 
+    public byte[] getThrowableBytes() {
+        return throwableBytes;
+    }
+
+    public void setThrowableBytes(byte[] throwableBytes) {
+        this.throwableBytes = throwableBytes;
+    }
+
     public Long getStart() {
         return start;
     }
@@ -239,4 +285,12 @@ public class Invocation implements java.io.Serializable {
     public void setClassLoader(ClassLoader classLoader) {
         this.classLoader = classLoader;
     }
-}
\ No newline at end of file
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+}
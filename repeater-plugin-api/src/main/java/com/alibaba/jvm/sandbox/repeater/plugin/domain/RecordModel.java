@@ -35,6 +35,11 @@ public class RecordModel implements java.io.Serializable {
 
     private List<Invocation> subInvocations;
 
+    /**
+     * 子调用索引；回放分发时构建，不做传输
+     */
+    private transient SubInvocationIndex subInvocationIndex;
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -90,4 +95,12 @@ public class RecordModel implements java.io.Serializable {
     public void setSubInvocations(List<Invocation> subInvocations) {
         this.subInvocations = subInvocations;
     }
-}
\ No newline at end of file
+
+    public SubInvocationIndex getSubInvocationIndex() {
+        return subInvocationIndex;
+    }
+
+    public void setSubInvocationIndex(SubInvocationIndex subInvocationIndex) {
+        this.subInvocationIndex = subInvocationIndex;
+    }
+}
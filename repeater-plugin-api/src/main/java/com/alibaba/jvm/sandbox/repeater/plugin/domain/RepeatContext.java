@@ -1,5 +1,7 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.domain;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * <p>
  *
@@ -9,6 +11,10 @@ public class RepeatContext {
     private RepeatMeta meta;
     private RecordModel recordModel;
     private String traceId;
+    /**
+     * mock调用序列，与回放同生命周期
+     */
+    private final AtomicInteger mockSequence = new AtomicInteger(0);
 
     public RepeatContext(RepeatMeta meta, RecordModel recordModel, String traceId) {
         this.meta = meta;
@@ -39,4 +45,13 @@ public class RepeatContext {
     public void setTraceId(String traceId) {
         this.traceId = traceId;
     }
+
+    /**
+     * 生成mock调用序列，从1开始
+     *
+     * @return 序列
+     */
+    public int nextMockSequence() {
+        return mockSequence.incrementAndGet();
+    }
 }
@@ -0,0 +1,208 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SubInvocationIndex} 回放时子调用的索引
+ * <p>
+ * 回放分发时按{@link Identity#getUri()}把{@link RecordModel#getSubInvocations()}分组，组内按{@link Invocation#getIndex()}排序；
+ * mock选择时直接定位到同一URI的候选，匹配成功的候选标记为已消费，不再修改原始的子调用列表
+ * <p>
+ * 同一次回放中的子调用可能在多个线程上同时mock，{@link Bucket}的操作都是同步的
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class SubInvocationIndex {
+
+    private static final Comparator<Invocation> INDEX_ORDER = new Comparator<Invocation>() {
+        @Override
+        public int compare(Invocation o1, Invocation o2) {
+            int i1 = o1.getIndex() == null ? Integer.MAX_VALUE : o1.getIndex();
+            int i2 = o2.getIndex() == null ? Integer.MAX_VALUE : o2.getIndex();
+            return i1 < i2 ? -1 : (i1 == i2 ? 0 : 1);
+        }
+    };
+
+    private final Map<String, Bucket> buckets;
+
+    private SubInvocationIndex(Map<String, Bucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * 构建子调用索引
+     *
+     * @param subInvocations 录制的子调用
+     * @return 子调用索引
+     */
+    public static SubInvocationIndex build(List<Invocation> subInvocations) {
+        Map<String, List<Invocation>> groups = new HashMap<String, List<Invocation>>();
+        if (subInvocations != null) {
+            for (Invocation invocation : subInvocations) {
+                if (invocation == null || invocation.getIdentity() == null) {
+                    continue;
+                }
+                String uri = invocation.getIdentity().getUri();
+                List<Invocation> group = groups.get(uri);
+                if (group == null) {
+                    group = new ArrayList<Invocation>();
+                    groups.put(uri, group);
+                }
+                group.add(invocation);
+            }
+        }
+        Map<String, Bucket> buckets = new HashMap<String, Bucket>(groups.size() * 2);
+        for (Map.Entry<String, List<Invocation>> entry : groups.entrySet()) {
+            List<Invocation> group = entry.getValue();
+            Collections.sort(group, INDEX_ORDER);
+            buckets.put(entry.getKey(), new Bucket(group.toArray(new Invocation[group.size()])));
+        }
+        return new SubInvocationIndex(buckets);
+    }
+
+    /**
+     * 获取URI对应的候选
+     *
+     * @param uri 调用URI
+     * @return 候选；没有录制过该URI的子调用返回null
+     */
+    public Bucket bucket(String uri) {
+        return buckets.get(uri);
+    }
+
+    /**
+     * 计算子调用入参摘要，用于{@link Bucket#peekExact(int, Digester)}精确匹配
+     */
+    public interface Digester {
+
+        /**
+         * 计算摘要
+         *
+         * @param invocation 录制的子调用
+         * @return 摘要
+         */
+        int digest(Invocation invocation);
+    }
+
+    /**
+     * 同一URI下按index排序的候选队列
+     */
+    public static class Bucket {
+
+        private final Invocation[] invocations;
+
+        private final boolean[] consumed;
+
+        private final IdentityHashMap<Invocation, Integer> positions;
+
+        /**
+         * 第一个未消费的位置
+         */
+        private int head;
+
+        private int remaining;
+
+        /**
+         * 入参摘要到位置（升序）的映射；第一次精确匹配时构建
+         */
+        private Map<Integer, LinkedList<Integer>> digests;
+
+        private Bucket(Invocation[] invocations) {
+            this.invocations = invocations;
+            this.consumed = new boolean[invocations.length];
+            this.positions = new IdentityHashMap<Invocation, Integer>(invocations.length);
+            for (int i = 0; i < invocations.length; i++) {
+                positions.put(invocations[i], i);
+            }
+            this.remaining = invocations.length;
+        }
+
+        /**
+         * 未消费的候选，按index排序
+         *
+         * @return 候选列表
+         */
+        public synchronized List<Invocation> remaining() {
+            if (remaining == 0) {
+                return Collections.emptyList();
+            }
+            List<Invocation> result = new ArrayList<Invocation>(remaining);
+            for (int i = head; i < invocations.length; i++) {
+                if (!consumed[i]) {
+                    result.add(invocations[i]);
+                }
+            }
+            return result;
+        }
+
+        public synchronized int size() {
+            return remaining;
+        }
+
+        /**
+         * 查找入参摘要相同且index最小的未消费候选，不做消费；摘要可能冲突，调用方需要再校验入参
+         *
+         * @param digest   当前请求的入参摘要
+         * @param digester 候选的摘要计算
+         * @return 候选；没有返回null
+         */
+        public synchronized Invocation peekExact(int digest, Digester digester) {
+            if (remaining == 0) {
+                return null;
+            }
+            if (digests == null) {
+                digests = new HashMap<Integer, LinkedList<Integer>>(invocations.length * 2);
+                for (int i = 0; i < invocations.length; i++) {
+                    Integer key = digester.digest(invocations[i]);
+                    LinkedList<Integer> slots = digests.get(key);
+                    if (slots == null) {
+                        slots = new LinkedList<Integer>();
+                        digests.put(key, slots);
+                    }
+                    slots.add(i);
+                }
+            }
+            LinkedList<Integer> slots = digests.get(digest);
+            if (slots == null) {
+                return null;
+            }
+            // 已消费的位置出队，均摊O(1)
+            while (!slots.isEmpty() && consumed[slots.getFirst()]) {
+                slots.removeFirst();
+            }
+            return slots.isEmpty() ? null : invocations[slots.getFirst()];
+        }
+
+        /**
+         * 消费一个候选
+         *
+         * @param invocation 候选
+         * @return 是否消费成功；已被其他调用消费返回false
+         */
+        public synchronized boolean consume(Invocation invocation) {
+            Integer position = positions.get(invocation);
+            if (position == null || consumed[position]) {
+                return false;
+            }
+            consumed[position] = true;
+            remaining--;
+            while (head < invocations.length && consumed[head]) {
+                head++;
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "Bucket{size=" + invocations.length + ",remaining=" + remaining + "}";
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.alibaba.jvm.sandbox.repeater.plugin.core;
 import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.Broadcaster;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.ConfigManager;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.BatchBroadcaster;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultBroadcaster;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultConfigManager;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.standalone.StandaloneBroadcaster;
@@ -36,7 +37,8 @@ public class StandaloneSwitch {
             configManager = new StandaloneConfigManager();
         } else {
             configManager = new DefaultConfigManager();
-            broadcaster = new DefaultBroadcaster();
+            boolean batchMode = Boolean.valueOf(PropertyUtil.getPropertyOrDefault(Constants.RECORD_BATCH_MODE, "false"));
+            broadcaster = batchMode ? new BatchBroadcaster() : new DefaultBroadcaster();
         }
     }
 
@@ -1,20 +1,32 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.core.bridge;
 
 import com.alibaba.jvm.sandbox.api.resource.LoadedClassDataSource;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang3.StringUtils;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * {@link ClassloaderBridge} 类加载桥接模式
  * <p>
  * repeater核心能力之一，classLoader还原，保证序列化/反序列化能够完整还原
  * <p>
- * 需要优化的点：init之后没有更新claCache；若运行时（agent方式启动时可能大部分cls无法缓存）新增cls，没有及时更新
+ * 类加载器和按类名查找的类都有索引，索引只弱引用类加载器和类，不影响业务类加载器的卸载：
+ * <ul>
+ * <li>类加载器只在{@link #encode(ClassLoader)}时登记，token由类加载器类名和实例标识组成，同一类型的多个类加载器实例可以区分</li>
+ * <li>扫描已加载类时每种类加载器类型只记录一个实例，用于解析旧版本或其他实例录制的token</li>
+ * <li>按类名查找时只索引被查找过的类名，之后直接读索引；索引中的类被回收、结果为空或超过{@link #REFRESH_INTERVAL}毫秒时重新扫描</li>
+ * </ul>
+ * 扫描至少间隔{@link #RESCAN_INTERVAL}毫秒，并发的扫描请求共用一次扫描；第一次查找的类名最多等待一个扫描间隔
  * </p>
  *
  * @author zhaoyb1990
@@ -22,9 +34,32 @@ import java.util.Map;
 public class ClassloaderBridge {
 
     private final static String BOOTSTRAP_CLASSLOADER = "BootstrapClassLoader";
+    private final static String TOKEN_SPLITTER = "@";
+    private final static long RESCAN_INTERVAL = 1000L;
+    private final static long REFRESH_INTERVAL = 60 * 1000L;
+    /**
+     * 已登记但还没有被扫描过的类名
+     */
+    private final static List<WeakReference<Class<?>>> PENDING = Collections.unmodifiableList(new ArrayList<WeakReference<Class<?>>>(0));
     private static ClassloaderBridge instance;
-    private final Map<String, ClassLoader> clsCached = Maps.newConcurrentMap();
+    /**
+     * 类加载器 -> token
+     */
+    private final Cache<ClassLoader, String> tokens = CacheBuilder.newBuilder().weakKeys().build();
+    /**
+     * token -> 类加载器
+     */
+    private final Cache<String, ClassLoader> clsCached = CacheBuilder.newBuilder().weakValues().build();
+    /**
+     * 类加载器类名 -> 一个该类型的类加载器；用于解析旧版本或其他实例录制的token
+     */
+    private final Cache<String, ClassLoader> typeCached = CacheBuilder.newBuilder().weakValues().build();
+    /**
+     * 被查找过的类名 -> 已加载的类（不含sandbox加载的类）
+     */
+    private final ConcurrentMap<String, List<WeakReference<Class<?>>>> classCached = Maps.newConcurrentMap();
     private final LoadedClassDataSource loadedClassDataSource;
+    private volatile long lastScan;
 
     private ClassloaderBridge(LoadedClassDataSource loadedClassDataSource) {
         this.loadedClassDataSource = loadedClassDataSource;
@@ -36,23 +71,79 @@ public class ClassloaderBridge {
 
     /**
      * 初始化内容；需要再模块加载的时候进行显示初始化
+     * <p>
+     * 不再预先扫描，第一次查找类名或解析token未命中时扫描
      *
      * @param loadedClassDataSource sandbox-api提供的已加载的类集合
      * @see com.alibaba.jvm.sandbox.api.resource.LoadedClassDataSource
      */
     public synchronized static void init(LoadedClassDataSource loadedClassDataSource) {
         instance = new ClassloaderBridge(loadedClassDataSource);
-        instance().cacheClassLoader();
     }
 
-    private void cacheClassLoader() {
+    /**
+     * 扫描已加载类，记录类加载器类型并刷新被查找过的类名
+     *
+     * @param since 调用方看到的上次扫描时间，期间已有其他线程完成扫描时直接返回
+     */
+    private synchronized void scan(long since) {
+        if (lastScan != since) {
+            return;
+        }
+        Map<String, List<WeakReference<Class<?>>>> found = Maps.newHashMap();
+        for (String className : classCached.keySet()) {
+            found.put(className, Lists.<WeakReference<Class<?>>>newArrayList());
+        }
+        ConcurrentMap<String, ClassLoader> types = typeCached.asMap();
+        ClassLoader previous = null;
         Iterator<Class<?>> iterator = loadedClassDataSource.iteratorForLoadedClasses();
         while (iterator.hasNext()) {
             final Class<?> next = iterator.next();
             ClassLoader loader = next.getClassLoader();
-            if (loader != null) {
-                clsCached.put(encode(loader), loader);
+            // 相邻的类大多来自同一个类加载器
+            if (loader != null && loader != previous) {
+                types.putIfAbsent(loader.getClass().getName(), loader);
+                previous = loader;
+            }
+            List<WeakReference<Class<?>>> classes = found.get(next.getName());
+            if (classes != null && !isSandboxLoadedClass(next) && !contains(classes, next)) {
+                classes.add(new WeakReference<Class<?>>(next));
+            }
+        }
+        for (Map.Entry<String, List<WeakReference<Class<?>>>> entry : found.entrySet()) {
+            classCached.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        lastScan = System.currentTimeMillis();
+    }
+
+    /**
+     * 距上次扫描超过间隔时重新扫描
+     */
+    private void rescanIfNecessary() {
+        long since = lastScan;
+        if (System.currentTimeMillis() - since >= RESCAN_INTERVAL) {
+            scan(since);
+        }
+    }
+
+    /**
+     * 等待包含该类名的扫描完成；距上次扫描不足间隔时等到间隔结束
+     *
+     * @param className 类名
+     */
+    private void awaitScan(String className) {
+        while (classCached.get(className) == PENDING) {
+            long since = lastScan;
+            long wait = since + RESCAN_INTERVAL - System.currentTimeMillis();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
+            scan(since);
         }
     }
 
@@ -63,21 +154,30 @@ public class ClassloaderBridge {
      * @return classLoader 类加载器
      */
     public ClassLoader decode(String token) {
-        if (StringUtils.equals(BOOTSTRAP_CLASSLOADER, token)) {
+        if (StringUtils.equals(BOOTSTRAP_CLASSLOADER, token) || token == null) {
             return null;
         }
-        ClassLoader loader = clsCached.get(token);
-        // reset cache;会一定的性能开销
+        ClassLoader loader = lookup(token);
         if (loader == null) {
-            cacheClassLoader();
+            rescanIfNecessary();
+            loader = lookup(token);
         }
-        return clsCached.get(token);
+        return loader;
+    }
+
+    private ClassLoader lookup(String token) {
+        ClassLoader loader = clsCached.getIfPresent(token);
+        if (loader != null) {
+            return loader;
+        }
+        // 旧版本token只有类加载器类名；其他实例录制的token实例标识不同，按类型退化匹配
+        return typeCached.getIfPresent(StringUtils.substringBefore(token, TOKEN_SPLITTER));
     }
 
     /**
      * 通过classLoader获得编码后token
      * <p>
-     * 目前这个方式不够严谨；如果采用classLoader隔离（类似sandbox的classLoader）时不work，需要重写一下classLoader的toString
+     * token为类加载器类名@实例标识，同一类型的不同类加载器实例（如多个webapp）token不同；调用时顺带登记类加载器
      * </p>
      *
      * @param classLoader 类加载器
@@ -85,9 +185,28 @@ public class ClassloaderBridge {
      */
     public String encode(ClassLoader classLoader) {
         if (classLoader == null) {
-            return "BootstrapClassLoader";
+            return BOOTSTRAP_CLASSLOADER;
+        }
+        String token = tokens.getIfPresent(classLoader);
+        return token != null ? token : register(classLoader);
+    }
+
+    private synchronized String register(ClassLoader loader) {
+        String token = tokens.getIfPresent(loader);
+        if (token != null) {
+            return token;
         }
-        return classLoader.getClass().getName();
+        String type = loader.getClass().getName();
+        String base = type + TOKEN_SPLITTER + Integer.toHexString(System.identityHashCode(loader));
+        token = base;
+        // 实例标识冲突时追加序号；已被回收的类加载器的token可以复用
+        for (int i = 1; clsCached.getIfPresent(token) != null; i++) {
+            token = base + "-" + i;
+        }
+        clsCached.put(token, loader);
+        typeCached.asMap().putIfAbsent(type, loader);
+        tokens.put(loader, token);
+        return token;
     }
 
     /**
@@ -97,14 +216,8 @@ public class ClassloaderBridge {
      * @return 具体加载的类
      */
     public Class<?> findClassInstance(String className) {
-        Iterator<Class<?>> iterator = loadedClassDataSource.iteratorForLoadedClasses();
-        while (iterator.hasNext()) {
-            final Class<?> next = iterator.next();
-            if (className.equals(next.getName()) && !isSandboxLoadedClass(next)) {
-                return next;
-            }
-        }
-        return null;
+        List<Class<?>> classes = findClassInstances(className);
+        return classes.isEmpty() ? null : classes.get(0);
     }
 
     /**
@@ -114,17 +227,43 @@ public class ClassloaderBridge {
      * @return 具体加载的类
      */
     public List<Class<?>> findClassInstances(String className) {
-        List<Class<?>> classes = Lists.newArrayList();
-        Iterator<Class<?>> iterator = loadedClassDataSource.iteratorForLoadedClasses();
-        while (iterator.hasNext()) {
-            final Class<?> next = iterator.next();
-            if (className.equals(next.getName()) && !isSandboxLoadedClass(next)) {
-                classes.add(next);
+        List<WeakReference<Class<?>>> references = classCached.get(className);
+        if (references == null || references == PENDING) {
+            // 第一次查找的类名，登记后等待下一次扫描
+            classCached.putIfAbsent(className, PENDING);
+            awaitScan(className);
+            references = classCached.get(className);
+        }
+        List<Class<?>> classes = resolve(references);
+        // 结果为空、有类已被回收（如应用重新部署）或索引过旧时重新扫描
+        if (classes.isEmpty() || classes.size() < references.size()
+                || System.currentTimeMillis() - lastScan >= REFRESH_INTERVAL) {
+            rescanIfNecessary();
+            classes = resolve(classCached.get(className));
+        }
+        return classes;
+    }
+
+    private static List<Class<?>> resolve(List<WeakReference<Class<?>>> references) {
+        List<Class<?>> classes = Lists.newArrayListWithCapacity(references.size());
+        for (WeakReference<Class<?>> reference : references) {
+            Class<?> clazz = reference.get();
+            if (clazz != null) {
+                classes.add(clazz);
             }
         }
         return classes;
     }
 
+    private static boolean contains(List<WeakReference<Class<?>>> references, Class<?> clazz) {
+        for (WeakReference<Class<?>> reference : references) {
+            if (reference.get() == clazz) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 是否sandbox classloader加载的类
      *
@@ -0,0 +1,248 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ExpiringIntMap} int为key的并发哈希表，带过期清理
+ * <p>
+ * 按key分段加锁，段内使用线性探测的开放地址表（key为基本类型int，不装箱）；段容量随在途数量增长，不设固定上限
+ * <p>
+ * 调用方需要显式{@link #remove(int)}；段扩容前以及每隔一个过期时间清理一次超时数据，避免调用方漏删导致泄漏，
+ * 清理掉的数据计入{@link #getExpiredCount()}
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class ExpiringIntMap<V> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Segment<V>[] segments;
+
+    private final int segmentShift;
+
+    private final long expireMillis;
+
+    private final AtomicLong expired = new AtomicLong(0);
+
+    private final AtomicLong replaced = new AtomicLong(0);
+
+    @SuppressWarnings("unchecked")
+    public ExpiringIntMap(int concurrency, long expireMillis) {
+        int size = 1;
+        int bits = 0;
+        while (size < concurrency) {
+            size <<= 1;
+            bits++;
+        }
+        this.segments = new Segment[size];
+        for (int i = 0; i < size; i++) {
+            segments[i] = new Segment<V>();
+        }
+        this.segmentShift = 32 - bits;
+        this.expireMillis = expireMillis;
+    }
+
+    /**
+     * 写入数据；key已存在时覆盖并计数
+     *
+     * @param key   key
+     * @param value value，不能为空
+     */
+    public void put(int key, V value) {
+        int hash = hash(key);
+        segmentFor(hash).put(key, hash, value, System.currentTimeMillis(), this);
+    }
+
+    /**
+     * 获取数据
+     *
+     * @param key key
+     * @return value；不存在返回null
+     */
+    public V get(int key) {
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * 移除数据
+     *
+     * @param key key
+     * @return 被移除的value；不存在返回null
+     */
+    public V remove(int key) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * 当前数据量（各段加总，近似值）
+     *
+     * @return 数据量
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * 因超时被清理的数据数（调用方未移除，通常意味着录制数据丢失）
+     *
+     * @return 清理数
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * 因key重复被覆盖的数据数
+     *
+     * @return 覆盖数
+     */
+    public long getReplacedCount() {
+        return replaced.get();
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment<V> {
+
+        private int[] keys = new int[INITIAL_CAPACITY];
+
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        private long[] timestamps = new long[INITIAL_CAPACITY];
+
+        private int size;
+
+        private long lastSweep = System.currentTimeMillis();
+
+        synchronized void put(int key, int hash, V value, long now, ExpiringIntMap<V> owner) {
+            if ((size + 1) << 1 > keys.length || now - lastSweep >= owner.expireMillis) {
+                rebuild(now, owner);
+            }
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    owner.replaced.incrementAndGet();
+                    values[index] = value;
+                    timestamps[index] = now;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            timestamps[index] = now;
+            size++;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V get(int key, int hash) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    return (V) values[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V remove(int key, int hash) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    V value = (V) values[index];
+                    deleteAt(index, mask);
+                    size--;
+                    return value;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * 删除后把同一探测链上的数据往前移，不留墓碑
+         */
+        private void deleteAt(int index, int mask) {
+            int hole = index;
+            int next = index;
+            for (; ; ) {
+                next = (next + 1) & mask;
+                if (values[next] == null) {
+                    break;
+                }
+                int ideal = hash(keys[next]) & mask;
+                // ideal在(hole, next]区间内的数据不能前移
+                boolean stay = hole <= next ? (hole < ideal && ideal <= next) : (hole < ideal || ideal <= next);
+                if (stay) {
+                    continue;
+                }
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                timestamps[hole] = timestamps[next];
+                hole = next;
+            }
+            values[hole] = null;
+        }
+
+        /**
+         * 清理过期数据，并根据剩余数量扩容或缩容
+         */
+        private void rebuild(long now, ExpiringIntMap<V> owner) {
+            int live = 0;
+            long deadline = now - owner.expireMillis;
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != null && timestamps[i] >= deadline) {
+                    live++;
+                }
+            }
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < (live + 1) << 2) {
+                capacity <<= 1;
+            }
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] oldTimestamps = timestamps;
+            keys = new int[capacity];
+            values = new Object[capacity];
+            timestamps = new long[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] == null) {
+                    continue;
+                }
+                if (oldTimestamps[i] < deadline) {
+                    owner.expired.incrementAndGet();
+                    continue;
+                }
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                timestamps[index] = oldTimestamps[i];
+            }
+            size = live;
+            lastSweep = now;
+        }
+    }
+}
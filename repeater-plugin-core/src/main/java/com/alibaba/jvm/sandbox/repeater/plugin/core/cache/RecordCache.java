@@ -1,16 +1,9 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.core.cache;
 
-import java.util.List;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.Lists;
-
 /**
  * {@link RecordCache} 录制缓存
  * <p>
@@ -19,27 +12,11 @@ import com.google.common.collect.Lists;
  */
 public class RecordCache {
 
-    private static final LoadingCache<Integer, Invocation> INVOCATION_CACHE = CacheBuilder
-            .newBuilder()
-            .maximumSize(4096)
-            .expireAfterWrite(30, TimeUnit.SECONDS)
-            .build(new CacheLoader<Integer, Invocation>() {
-                @Override
-                public Invocation load(Integer s) throws Exception {
-                    return new Invocation();
-                }
-            });
-
-    private static final LoadingCache<String, List<Invocation>> SUB_INVOCATION_CACHE = CacheBuilder
-            .newBuilder()
-            .maximumSize(4096)
-            .expireAfterWrite(30, TimeUnit.SECONDS)
-            .build(new CacheLoader<String, List<Invocation>>() {
-                @Override
-                public List<Invocation> load(String s){
-                    return Lists.newArrayList();
-                }
-            });
+    /**
+     * 在途调用；before时写入，return/throw时移除，超时未移除的数据由{@link ExpiringIntMap}清理并计数
+     */
+    private static final ExpiringIntMap<Invocation> INVOCATION_CACHE = new ExpiringIntMap<Invocation>(
+            Runtime.getRuntime().availableProcessors() * 4, TimeUnit.SECONDS.toMillis(30));
 
     /**
      * 缓存调用；根据{@link com.alibaba.jvm.sandbox.api.event.InvokeEvent#invokeId}进行缓存，根据traceId在多入口场景下会乱
@@ -52,33 +29,49 @@ public class RecordCache {
     }
 
     /**
-     * 获取调用
+     * 获取调用；不移除，用于同一次调用有多个事件的场景
      *
      * @param invokeId 调用ID
      * @return 调用
      */
     public static Invocation getInvocation(int invokeId) {
-        return INVOCATION_CACHE.getIfPresent(invokeId);
+        return INVOCATION_CACHE.get(invokeId);
     }
 
     /**
-     * 缓存子调用
+     * 获取并移除调用；调用完成（return/throw）时使用
      *
-     * @param invocation 子调用
+     * @param invokeId 调用ID
+     * @return 调用
      */
-    public static void cacheSubInvocation(Invocation invocation) {
-        try {
-            SUB_INVOCATION_CACHE.get(invocation.getTraceId()).add(invocation);
-        } catch (ExecutionException e) {
-            // impossible
-        }
+    public static Invocation removeInvocation(int invokeId) {
+        return INVOCATION_CACHE.remove(invokeId);
     }
 
-    public static List<Invocation> getSubInvocation(String traceId) {
-        try{
-            return SUB_INVOCATION_CACHE.getIfPresent(traceId);
-        } finally {
-            SUB_INVOCATION_CACHE.invalidate(traceId);
-        }
+    /**
+     * 在途调用数
+     *
+     * @return 在途调用数
+     */
+    public static int getInvocationSize() {
+        return INVOCATION_CACHE.size();
+    }
+
+    /**
+     * 超时未完成被清理的调用数（即丢失的录制调用数）
+     *
+     * @return 清理数
+     */
+    public static long getExpiredInvocationCount() {
+        return INVOCATION_CACHE.getExpiredCount();
+    }
+
+    /**
+     * invokeId重复被覆盖的调用数
+     *
+     * @return 覆盖数
+     */
+    public static long getReplacedInvocationCount() {
+        return INVOCATION_CACHE.getReplacedCount();
     }
 }
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceContext;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.MockInvocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
@@ -19,6 +20,9 @@ import org.apache.commons.lang3.StringUtils;
 /**
  * {@link RepeatCache} 回放缓存
  * <p>
+ * 回放上下文只在分发时经由这里跨线程交接：{@link Tracer#start(String)}开启追踪时查询一次并绑定到{@link com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceContext}，
+ * 事件处理过程中的回放判断使用{@link Tracer#isRepeatFlow()}
+ * <p>
  *
  * @author zhaoyb1990
  */
@@ -56,7 +60,15 @@ public class RepeatCache {
      * @return 是否回放流量
      */
     public static boolean isRepeatFlow(String traceId) {
-        return StringUtils.isNotEmpty(traceId) && CONTEXT_CACHE.getIfPresent(traceId) != null;
+        if (StringUtils.isEmpty(traceId)) {
+            return false;
+        }
+        // 当前调用的上下文已经解析过回放标识
+        TraceContext context = Tracer.getContext();
+        if (context != null && traceId.equals(context.getTraceId())) {
+            return context.isRepeatFlow();
+        }
+        return CONTEXT_CACHE.getIfPresent(traceId) != null;
     }
 
 
@@ -68,7 +80,7 @@ public class RepeatCache {
      * @return 是否回放流量
      */
     public static boolean isRepeatFlow() {
-        return StringUtils.isNotEmpty(Tracer.getTraceId()) && CONTEXT_CACHE.getIfPresent(Tracer.getTraceId()) != null;
+        return Tracer.isRepeatFlow();
     }
 
     /**
@@ -0,0 +1,116 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.dedup;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link BloomWindow} 按时间窗口轮换的布隆过滤器
+ * <p>
+ * 保留当前和上一代两个过滤器，指纹在任一代中出现即视为重复；当前代超过窗口时长或写入数超过容量时轮换，
+ * 因此一个指纹在写入后的一到两个窗口内被认为重复，之后会再次放行
+ * <p>
+ * 检查与写入不是原子的，并发的相同指纹可能同时放行
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+class BloomWindow {
+
+    private static final int HASHES = 3;
+
+    private final int mask;
+
+    private final int capacity;
+
+    private final long windowMillis;
+
+    private volatile Generation current;
+
+    private volatile Generation previous;
+
+    /**
+     * @param bits         单代过滤器位数（会向上取整为2的幂）
+     * @param windowMillis 窗口时长
+     */
+    BloomWindow(int bits, long windowMillis) {
+        int size = 64;
+        while (size < bits) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        // 每个指纹约10位时3个哈希的误判率在2%以内
+        this.capacity = Math.max(1, size / 10);
+        this.windowMillis = windowMillis;
+        this.current = new Generation(size, System.currentTimeMillis());
+    }
+
+    /**
+     * 检查指纹是否已出现过，未出现时写入当前代
+     *
+     * @param fingerprint 指纹
+     * @param now         当前时间（毫秒）
+     * @return 是否重复
+     */
+    boolean checkAndPut(long fingerprint, long now) {
+        Generation generation = current;
+        if (now - generation.start >= windowMillis || generation.count.get() >= capacity) {
+            generation = rotate(generation, now);
+        }
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32) | 1;
+        Generation old = previous;
+        if (generation.contains(h1, h2, mask) || (old != null && old.contains(h1, h2, mask))) {
+            return true;
+        }
+        generation.put(h1, h2, mask);
+        return false;
+    }
+
+    private synchronized Generation rotate(Generation expected, long now) {
+        if (current != expected) {
+            return current;
+        }
+        // 超过两个窗口没有流量时上一代也已过期
+        previous = now - expected.start >= windowMillis << 1 ? null : expected;
+        current = new Generation(mask + 1, now);
+        return current;
+    }
+
+    private static final class Generation {
+
+        private final AtomicLongArray words;
+
+        private final long start;
+
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        private Generation(int bits, long start) {
+            this.words = new AtomicLongArray(bits >>> 6);
+            this.start = start;
+        }
+
+        private boolean contains(int h1, int h2, int mask) {
+            for (int i = 0; i < HASHES; i++) {
+                int index = (h1 + i * h2) & mask;
+                if ((words.get(index >>> 6) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(int h1, int h2, int mask) {
+            for (int i = 0; i < HASHES; i++) {
+                int index = (h1 + i * h2) & mask;
+                long bit = 1L << index;
+                for (; ; ) {
+                    long word = words.get(index >>> 6);
+                    if ((word & bit) != 0 || words.compareAndSet(index >>> 6, word, word | bit)) {
+                        break;
+                    }
+                }
+            }
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.dedup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * {@link RecordDeduplicator} 录制消息去重
+ * <p>
+ * 位于{@link com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultInvocationListener}与投递器之间；
+ * 按入口URI维护{@link BloomWindow}，同一窗口内{@link ShapeFingerprint}相同的录制消息不再投递
+ * <p>
+ * 默认关闭；入口URI数超过上限后新URI不做去重
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class RecordDeduplicator {
+
+    private static final RecordDeduplicator instance = new RecordDeduplicator();
+
+    private final boolean enabled = Boolean.valueOf(PropertyUtil.getPropertyOrDefault(Constants.RECORD_DEDUP_MODE, "false"));
+
+    private final long windowMillis = NumberUtils.toLong(PropertyUtil.getPropertyOrDefault(Constants.RECORD_DEDUP_WINDOW_MS, ""), 60000L);
+
+    private final int bits = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_DEDUP_BLOOM_BITS, ""), 8192);
+
+    private final int maxEndpoints = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_DEDUP_MAX_ENDPOINTS, ""), 1024);
+
+    private final ConcurrentHashMap<String, BloomWindow> windows = new ConcurrentHashMap<String, BloomWindow>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+
+    private final AtomicLong misses = new AtomicLong(0);
+
+    private final AtomicLong bypassed = new AtomicLong(0);
+
+    private RecordDeduplicator() {
+    }
+
+    public static RecordDeduplicator instance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 录制消息是否与窗口内已投递的消息重复；不重复时记录指纹
+     *
+     * @param recordModel 录制消息
+     * @return 是否重复
+     */
+    public boolean isDuplicate(RecordModel recordModel) {
+        if (!enabled) {
+            return false;
+        }
+        Invocation entrance = recordModel.getEntranceInvocation();
+        BloomWindow window = entrance == null || entrance.getIdentity() == null ? null : window(entrance.getIdentity().getUri());
+        if (window == null) {
+            bypassed.incrementAndGet();
+            return false;
+        }
+        if (window.checkAndPut(ShapeFingerprint.of(recordModel), System.currentTimeMillis())) {
+            hits.incrementAndGet();
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    private BloomWindow window(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        BloomWindow window = windows.get(uri);
+        if (window != null) {
+            return window;
+        }
+        if (windows.size() >= maxEndpoints) {
+            return null;
+        }
+        window = new BloomWindow(bits, windowMillis);
+        BloomWindow exist = windows.putIfAbsent(uri, window);
+        return exist == null ? window : exist;
+    }
+
+    /**
+     * 判定为重复而未投递的录制消息数
+     *
+     * @return 命中数
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * 判定为不重复而投递的录制消息数
+     *
+     * @return 未命中数
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * 入口URI数超限等原因未做去重的录制消息数
+     *
+     * @return 跳过数
+     */
+    public long getBypassCount() {
+        return bypassed.get();
+    }
+
+    public int getEndpointCount() {
+        return windows.size();
+    }
+}
@@ -0,0 +1,168 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.dedup;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
+
+/**
+ * {@link ShapeFingerprint} 录制消息的结构指纹
+ * <p>
+ * 指纹由入口URI、入参/返回值的结构、异常类型以及子调用URI序列组成；结构只包含类型、容器大小（按2的幂分档）、
+ * 字符串长度（按2的幂分档）、Map的字符串key、枚举值，不包含具体的值
+ * <p>
+ * 容器中连续结构相同的元素只计一次，同一分档内元素数不同的同构容器指纹相同
+ * <p>
+ * 业务对象只取类型不展开字段；容器最多展开{@link #MAX_ELEMENTS}个元素、{@link #MAX_DEPTH}层，单次计算最多访问{@link #MAX_NODES}个节点
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+final class ShapeFingerprint {
+
+    private static final int MAX_DEPTH = 4;
+
+    private static final int MAX_ELEMENTS = 8;
+
+    private static final int MAX_NODES = 256;
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private int nodes;
+
+    private ShapeFingerprint() {
+    }
+
+    /**
+     * 计算录制消息的结构指纹
+     *
+     * @param recordModel 录制消息
+     * @return 指纹
+     */
+    static long of(RecordModel recordModel) {
+        ShapeFingerprint fingerprint = new ShapeFingerprint();
+        Invocation entrance = recordModel.getEntranceInvocation();
+        long h = SEED;
+        h = mix(h, uriHash(entrance));
+        if (entrance.getRequest() != null) {
+            h = fingerprint.shape(h, entrance.getRequest(), 0);
+        } else {
+            h = mix(h, bucket(entrance.getRequestBytes() == null ? 0 : entrance.getRequestBytes().length));
+        }
+        if (entrance.getResponse() != null) {
+            h = fingerprint.shape(h, entrance.getResponse(), 0);
+        } else {
+            h = mix(h, bucket(entrance.getResponseBytes() == null ? 0 : entrance.getResponseBytes().length));
+        }
+        h = mix(h, entrance.getThrowable() == null ? 0 : entrance.getThrowable().getClass().getName().hashCode());
+        List<Invocation> subInvocations = recordModel.getSubInvocations();
+        if (subInvocations != null) {
+            for (Invocation invocation : subInvocations) {
+                h = mix(h, uriHash(invocation));
+            }
+        }
+        return finish(h);
+    }
+
+    private long shape(long h, Object value, int depth) {
+        if (value == null) {
+            return mix(h, 1);
+        }
+        if (++nodes > MAX_NODES || depth > MAX_DEPTH) {
+            return h;
+        }
+        Class<?> clazz = value.getClass();
+        h = mix(h, clazz.getName().hashCode());
+        if (value instanceof CharSequence) {
+            return mix(h, bucket(((CharSequence) value).length()));
+        }
+        if (value instanceof Enum) {
+            return mix(h, ((Enum<?>) value).ordinal());
+        }
+        if (value instanceof Boolean) {
+            return mix(h, (Boolean) value ? 3 : 2);
+        }
+        if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            h = mix(h, bucket(array.length));
+            long last = 0;
+            for (int i = 0; i < array.length && i < MAX_ELEMENTS; i++) {
+                long element = shape(SEED, array[i], depth + 1);
+                if (element != last) {
+                    h = mix(h, element);
+                    last = element;
+                }
+            }
+            return h;
+        }
+        if (clazz.isArray()) {
+            return mix(h, bucket(Array.getLength(value)));
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            h = mix(h, bucket(collection.size()));
+            Iterator<?> iterator = collection.iterator();
+            long last = 0;
+            for (int i = 0; i < MAX_ELEMENTS && iterator.hasNext(); i++) {
+                long element = shape(SEED, iterator.next(), depth + 1);
+                if (element != last) {
+                    h = mix(h, element);
+                    last = element;
+                }
+            }
+            return h;
+        }
+        if (value instanceof Map) {
+            return shapeMap(h, (Map<?, ?>) value, depth);
+        }
+        // 业务对象的字段由类型决定，不再展开
+        return h;
+    }
+
+    /**
+     * Map的字符串key与遍历顺序无关，按加法合并；值只展开前几个
+     */
+    private long shapeMap(long h, Map<?, ?> map, int depth) {
+        h = mix(h, bucket(map.size()));
+        if (map.size() > MAX_NODES) {
+            return h;
+        }
+        long keys = 0;
+        int expanded = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object key = entry.getKey();
+            if (key instanceof String) {
+                keys += finish(key.hashCode());
+            }
+            if (expanded++ < MAX_ELEMENTS) {
+                h = shape(h, entry.getValue(), depth + 1);
+            }
+        }
+        return mix(h, keys);
+    }
+
+    private static long uriHash(Invocation invocation) {
+        return invocation.getIdentity() == null || invocation.getIdentity().getUri() == null ? 0 : invocation.getIdentity().getUri().hashCode();
+    }
+
+    private static int bucket(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size);
+    }
+
+    private static long mix(long h, long value) {
+        return (h ^ value) * 0x100000001B3L + 0x632BE59BD9B4E019L;
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
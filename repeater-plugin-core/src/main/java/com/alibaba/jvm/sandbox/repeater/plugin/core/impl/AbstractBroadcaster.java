@@ -1,17 +1,27 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.core.impl;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.Broadcaster;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.util.ExecutorInner;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.queue.DropPolicy;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.queue.RingBuffer;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.queue.WaitStrategy;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SerializerWrapper;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeatModel;
 
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +29,8 @@ import org.slf4j.LoggerFactory;
  * {@link AbstractBroadcaster} 抽象的消息转发实现
  * <p>
  * 由于录制过程发生在程序调用期间；因此序列化/消息发送需要异步进行，不占用主程序的rt（response time）
+ * <p>
+ * 录制消息先进入预分配的{@link RingBuffer}，由消费线程直接完成序列化和发送；队列满时按照{@link DropPolicy}丢弃并计数
  * <p/>
  *
  * @author zhaoyb1990
@@ -27,23 +39,29 @@ public abstract class AbstractBroadcaster implements Broadcaster {
 
     protected final static Logger log = LoggerFactory.getLogger(AbstractBroadcaster.class);
 
-    private final ConcurrentLinkedQueue<RecordModel> queue = new ConcurrentLinkedQueue<RecordModel>();
-
     /**
      * 最大队列深度
      */
-    private final static int maxQueueSize = 4096;
+    private final static int maxQueueSize = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_QUEUE_SIZE, ""), 4096);
     /**
      * 消费队列任务数
      */
-    private final static int consumerThreadNum = 4;
+    private final static int consumerThreadNum = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_QUEUE_CONSUMERS, ""), 4);
+
+    private final RingBuffer<RecordModel> queue = new RingBuffer<RecordModel>(maxQueueSize,
+        WaitStrategy.of(PropertyUtil.getPropertyOrDefault(Constants.RECORD_QUEUE_WAIT_STRATEGY, "parking")),
+        DropPolicy.of(PropertyUtil.getPropertyOrDefault(Constants.RECORD_QUEUE_DROP_POLICY, "discard_newest")));
     /**
      * 创建多个线程来消费队列
      */
-    private static ExecutorService executor = new ThreadPoolExecutor(4, 4,
-        5L, TimeUnit.MINUTES, new LinkedBlockingDeque<Runnable>(128),
+    private final ExecutorService executor = new ThreadPoolExecutor(consumerThreadNum, consumerThreadNum,
+        5L, TimeUnit.MINUTES, new LinkedBlockingDeque<Runnable>(consumerThreadNum),
         new BasicThreadFactory.Builder().namingPattern("queue-consumer-pool-%d").build(),
-        new ThreadPoolExecutor.CallerRunsPolicy());
+        new ThreadPoolExecutor.AbortPolicy());
+    /**
+     * 消费线程ID，用于统计投递线程的CPU占用
+     */
+    private final List<Long> consumerThreadIds = new CopyOnWriteArrayList<Long>();
 
     public AbstractBroadcaster() {
         for (int i = 0; i < consumerThreadNum; i++) {
@@ -53,12 +71,84 @@ public abstract class AbstractBroadcaster implements Broadcaster {
 
     @Override
     public void sendRecord(RecordModel recordModel) {
-        final int size = queue.size();
-        if (size >= maxQueueSize) {
-            log.info("can't offer queue cause size limit,aboard this record;current={},max={}", size, maxQueueSize);
-            return;
+        if (!queue.publish(recordModel)) {
+            final long dropped = queue.getDropped();
+            // 队列打满时每条都打日志会放大问题，按照丢弃数抽样打印
+            if ((dropped & 1023) == 1) {
+                log.info("can't offer queue cause size limit,aboard this record;current={},max={},dropped={}", queue.size(), queue.getCapacity(), dropped);
+            }
+        }
+    }
+
+    /**
+     * 录制队列当前深度
+     *
+     * @return 队列深度
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 录制队列容量
+     *
+     * @return 队列容量
+     */
+    public int getQueueCapacity() {
+        return queue.getCapacity();
+    }
+
+    /**
+     * 成功进入队列的录制消息数
+     *
+     * @return 入队数
+     */
+    public long getOfferedCount() {
+        return queue.getOffered();
+    }
+
+    /**
+     * 因队列满被丢弃的录制消息数
+     *
+     * @return 丢弃数
+     */
+    public long getDroppedCount() {
+        return queue.getDropped();
+    }
+
+    /**
+     * 消费线程累计的CPU时间
+     *
+     * @return CPU时间（纳秒）；JVM不支持线程CPU时间统计时返回-1
+     */
+    public long getConsumerCpuTime() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadCpuTimeSupported() || !bean.isThreadCpuTimeEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (Long id : consumerThreadIds) {
+            long time = bean.getThreadCpuTime(id);
+            if (time > 0) {
+                total += time;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 停止消费线程；模块卸载时调用，避免卸载后消费线程仍在空轮询
+     */
+    public void destroy() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queue.size() > 0) {
+            log.warn("broadcaster destroyed, {} records left in queue are discarded", queue.size());
         }
-        queue.offer(recordModel);
     }
 
     @Override
@@ -81,31 +171,36 @@ public abstract class AbstractBroadcaster implements Broadcaster {
     abstract protected void broadcastRepeat(RepeatModel record);
 
     /**
-     * 消费队列任务（线程比较消耗CPU，因为存在多次序列化动作）
+     * 消费队列任务（线程比较消耗CPU，因为存在多次序列化动作）；直接在消费线程完成序列化和发送，不再二次投递到通用线程池
      */
     class QueueConsumerTask implements Runnable {
 
-        private boolean working = true;
-
         @Override
         public void run() {
-            while (working) {
+            consumerThreadIds.add(Thread.currentThread().getId());
+            while (!Thread.currentThread().isInterrupted()) {
+                final RecordModel recordModel;
+                try {
+                    recordModel = queue.take();
+                } catch (InterruptedException e) {
+                    log.info("queue consumer thread interrupted : {};stop this job", Thread.currentThread().getName());
+                    return;
+                }
+                try {
+                    // 快照模式下业务线程没有序列化，在消费线程完成
+                    SerializerWrapper.inTimeSerialize(recordModel);
+                } catch (SerializeException e) {
+                    log.error("Error occurred serialize record, traceId={}", recordModel.getTraceId(), e);
+                    continue;
+                } catch (Throwable throwable) {
+                    log.error("[Error-0000]-serialize record failed, traceId={}", recordModel.getTraceId(), throwable);
+                    continue;
+                }
                 try {
-                    final RecordModel recordModel = queue.poll();
-                    if (recordModel != null) {
-                        ExecutorInner.execute(new Runnable() {
-                            @Override
-                            public void run() {
-                                broadcastRecord(recordModel);
-                            }
-                        });
-                    } else {
-                        Thread.sleep(50);
-                    }
+                    broadcastRecord(recordModel);
                 } catch (Throwable throwable) {
-                    log.error("uncaught exception occurred in queue consumer thread : {};stop this job",
+                    log.error("uncaught exception occurred in queue consumer thread : {}",
                         Thread.currentThread().getName(), throwable);
-                    working = false;
                 }
             }
         }
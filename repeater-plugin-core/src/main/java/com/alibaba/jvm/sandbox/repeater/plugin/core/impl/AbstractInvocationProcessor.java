@@ -4,8 +4,7 @@ import com.alibaba.jvm.sandbox.api.ProcessControlException;
 import com.alibaba.jvm.sandbox.api.event.*;
 import com.alibaba.jvm.sandbox.api.event.Event.Type;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationProcessor;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RepeatCache;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.SequenceGenerator;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceContext;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Identity;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
@@ -49,7 +48,8 @@ public abstract class AbstractInvocationProcessor implements InvocationProcessor
         /*
          * 获取回放上下文
          */
-        RepeatContext context = RepeatCache.getRepeatContext(Tracer.getTraceId());
+        TraceContext traceContext = Tracer.getContext();
+        RepeatContext context = traceContext == null ? null : traceContext.getRepeatContext();
         /*
          * mock执行条件
          */
@@ -67,7 +67,7 @@ public abstract class AbstractInvocationProcessor implements InvocationProcessor
                         .traceId(context.getTraceId())
                         .type(type)
                         .repeatId(context.getMeta().getRepeatId())
-                        .index(SequenceGenerator.generate(context.getTraceId()))
+                        .index(traceContext.nextSequence())
                         .build();
                 /*
                  * 执行mock动作
@@ -112,6 +112,20 @@ public abstract class AbstractInvocationProcessor implements InvocationProcessor
         return true;
     }
 
+    /**
+     * 快照录制模式下是否允许使用快照；
+     *
+     * 快照只拷贝JDK容器/数组结构，业务对象仍然是引用，如果业务对象会在调用结束后被修改（例如Mybatis自动生成ID回填入参），
+     *
+     * 需要返回false，在业务线程上及时序列化
+     *
+     * @param invocation 调用
+     * @return true / false
+     */
+    public boolean snapshotCapture(Invocation invocation) {
+        return true;
+    }
+
     /* 考虑到 event.argumentArray 中可能存在null的情况，无法还原原始类型；采用event.javaMethodDesc来还原 */
 
     @Deprecated
@@ -1,8 +1,14 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.core.impl;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.alibaba.jvm.sandbox.api.event.Event;
 import com.alibaba.jvm.sandbox.api.listener.EventListener;
 import com.alibaba.jvm.sandbox.api.listener.ext.EventWatchBuilder;
 import com.alibaba.jvm.sandbox.api.listener.ext.EventWatchBuilder.IBuildingForBehavior;
@@ -19,6 +25,7 @@ import com.alibaba.jvm.sandbox.repeater.plugin.spi.InvokePlugin;
 import com.google.common.collect.Lists;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +41,8 @@ public abstract class AbstractInvokePluginAdapter implements InvokePlugin {
 
     protected final static Logger log = LoggerFactory.getLogger(AbstractInvokePluginAdapter.class);
 
+    private final static Event.Type[] ROUTABLE_TYPES = new Event.Type[]{Event.Type.BEFORE, Event.Type.RETURN, Event.Type.THROWS};
+
     protected volatile RepeaterConfig configTemporary;
 
     private ModuleEventWatcher watcher;
@@ -107,6 +116,10 @@ public abstract class AbstractInvokePluginAdapter implements InvokePlugin {
 
     /**
      * 执行观察事件
+     * <p>
+     * 每次watch都会触发sandbox的类匹配和retransform，类名精确、不包含子类且观察before/return/throw的增强模型合并为一次watch；
+     * 合并后每个类仍使用独立的事件监听器，由{@link ClassRoutingEventListener}按类分发，跨类调用不会被当作嵌套调用。
+     * 其他增强模型按（类名模式、是否包含子类、观察事件类型）分组watch
      *
      * @throws PluginLifeCycleException 插件异常
      */
@@ -116,28 +129,79 @@ public abstract class AbstractInvokePluginAdapter implements InvokePlugin {
             if (CollectionUtils.isEmpty(enhanceModels)) {
                 throw new PluginLifeCycleException("enhance models is empty, plugin type is " + identity());
             }
+            Map<String, List<EnhanceModel>> merged = new LinkedHashMap<String, List<EnhanceModel>>();
+            Map<String, List<EnhanceModel>> groups = new LinkedHashMap<String, List<EnhanceModel>>();
             for (EnhanceModel em : enhanceModels) {
+                if (ArrayUtils.isEmpty(em.getMethodPatterns())) {
+                    continue;
+                }
+                if (isRoutable(em)) {
+                    group(merged, em.getClassPattern(), em);
+                } else {
+                    group(groups, em.getClassPattern() + "|" + em.isIncludeSubClasses() + "|" + Arrays.toString(em.getWatchTypes()), em);
+                }
+            }
+            if (!merged.isEmpty()) {
                 IBuildingForBehavior behavior = null;
-                IBuildingForClass builder4Class = new EventWatchBuilder(watcher).onClass(em.getClassPattern());
-                if (em.isIncludeSubClasses()) {
+                Map<String, EventListener> listeners = new HashMap<String, EventListener>();
+                for (Map.Entry<String, List<EnhanceModel>> entry : merged.entrySet()) {
+                    behavior = onBehaviors(behavior == null ?
+                            new EventWatchBuilder(watcher).onClass(entry.getKey()) : behavior.onClass(entry.getKey()), entry.getValue());
+                    listeners.put(entry.getKey(), getEventListener(listener));
+                }
+                EventListener eventListener = listeners.size() == 1 ?
+                        listeners.values().iterator().next() : new ClassRoutingEventListener(listeners);
+                addWatch(behavior.onWatch(eventListener, ROUTABLE_TYPES).getWatchId(), listeners.size());
+            }
+            for (List<EnhanceModel> group : groups.values()) {
+                IBuildingForClass builder4Class = new EventWatchBuilder(watcher).onClass(group.get(0).getClassPattern());
+                if (group.get(0).isIncludeSubClasses()) {
                     builder4Class = builder4Class.includeSubClasses();
                 }
-                for (EnhanceModel.MethodPattern mp : em.getMethodPatterns()) {
-                    behavior = builder4Class.onBehavior(mp.getMethodName());
-                    if (ArrayUtils.isNotEmpty(mp.getParameterType())) {
-                        behavior.withParameterTypes(mp.getParameterType());
-                    }
-                    if (ArrayUtils.isNotEmpty(mp.getAnnotationTypes())) {
-                        behavior.hasAnnotationTypes(mp.getAnnotationTypes());
-                    }
+                IBuildingForBehavior behavior = onBehaviors(builder4Class, group);
+                addWatch(behavior.onWatch(getEventListener(listener), group.get(0).getWatchTypes()).getWatchId(), group.size());
+            }
+        }
+    }
+
+    /**
+     * 是否可以按类名分发事件：类名精确、不包含子类，且before都有配对的return/throw事件
+     */
+    private boolean isRoutable(EnhanceModel em) {
+        return !em.isIncludeSubClasses()
+                && StringUtils.containsNone(em.getClassPattern(), '*', '?')
+                && em.getWatchTypes() != null
+                && new HashSet<Event.Type>(Arrays.asList(em.getWatchTypes())).equals(new HashSet<Event.Type>(Arrays.asList(ROUTABLE_TYPES)));
+    }
+
+    private void group(Map<String, List<EnhanceModel>> groups, String key, EnhanceModel em) {
+        List<EnhanceModel> group = groups.get(key);
+        if (group == null) {
+            group = Lists.newArrayList();
+            groups.put(key, group);
+        }
+        group.add(em);
+    }
+
+    private IBuildingForBehavior onBehaviors(IBuildingForClass builder4Class, List<EnhanceModel> models) {
+        IBuildingForBehavior behavior = null;
+        for (EnhanceModel em : models) {
+            for (EnhanceModel.MethodPattern mp : em.getMethodPatterns()) {
+                behavior = builder4Class.onBehavior(mp.getMethodName());
+                if (ArrayUtils.isNotEmpty(mp.getParameterType())) {
+                    behavior.withParameterTypes(mp.getParameterType());
                 }
-                if (behavior != null) {
-                    int watchId = behavior.onWatch(getEventListener(listener), em.getWatchTypes()).getWatchId();
-                    watchIds.add(watchId);
-                    log.info("add watcher success,type={},watcherId={}", getType().name(), watchId);
+                if (ArrayUtils.isNotEmpty(mp.getAnnotationTypes())) {
+                    behavior.hasAnnotationTypes(mp.getAnnotationTypes());
                 }
             }
         }
+        return behavior;
+    }
+
+    private void addWatch(int watchId, int classes) {
+        watchIds.add(watchId);
+        log.info("add watcher success,type={},watcherId={},classes={}", getType().name(), watchId, classes);
     }
 
     /**
@@ -1,9 +1,12 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.core.impl;
 
 import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RepeatCache;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.SequenceGenerator;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.MockInvocation;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeatContext;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.SubInvocationIndex;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.mock.MockRequest;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.mock.MockResponse;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.mock.MockResponse.Action;
@@ -32,6 +35,32 @@ public abstract class AbstractMockStrategy implements MockStrategy {
      */
     protected abstract SelectResult select(final MockRequest request);
 
+    /**
+     * 获取当前请求URI对应的候选子调用
+     * <p>
+     * 索引在回放分发时构建，未构建时（如插件自行发起的回放）在这里补建一次
+     *
+     * @param request mock回放请求
+     * @return 候选；没有录制过该URI的子调用返回null
+     */
+    protected SubInvocationIndex.Bucket candidates(final MockRequest request) {
+        RecordModel recordModel = request.getRecordModel();
+        if (recordModel == null) {
+            return null;
+        }
+        SubInvocationIndex index = recordModel.getSubInvocationIndex();
+        if (index == null) {
+            synchronized (recordModel) {
+                index = recordModel.getSubInvocationIndex();
+                if (index == null) {
+                    index = SubInvocationIndex.build(recordModel.getSubInvocations());
+                    recordModel.setSubInvocationIndex(index);
+                }
+            }
+        }
+        return index.bucket(request.getIdentity().getUri());
+    }
+
     @Override
     public MockResponse execute(final MockRequest request) {
         MockResponse response;
@@ -46,7 +75,7 @@ public abstract class AbstractMockStrategy implements MockStrategy {
             SelectResult select = select(request);
             Invocation invocation = select.getInvocation();
             MockInvocation mi = new MockInvocation();
-            mi.setIndex(SequenceGenerator.generate(request.getTraceId() + "#"));
+            mi.setIndex(nextMockSequence(request));
             mi.setCurrentUri(request.getIdentity().getUri());
             mi.setCurrentArgs(request.getArgumentArray());
             mi.setTraceId(request.getTraceId());
@@ -82,4 +111,18 @@ public abstract class AbstractMockStrategy implements MockStrategy {
         }
         return response;
     }
+
+    /**
+     * 生成mock调用序列；序列挂在回放上下文上，找不到回放上下文时返回-1
+     *
+     * @param request mock回放请求
+     * @return 序列
+     */
+    private static int nextMockSequence(final MockRequest request) {
+        RepeatContext context = Tracer.getRepeatContext();
+        if (context == null) {
+            context = RepeatCache.getRepeatContext(request.getTraceId());
+        }
+        return context == null ? -1 : context.nextMockSequence();
+    }
 }
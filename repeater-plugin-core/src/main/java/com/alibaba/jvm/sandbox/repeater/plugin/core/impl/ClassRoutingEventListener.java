@@ -0,0 +1,87 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.impl;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import com.alibaba.jvm.sandbox.api.ProcessControlException;
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+import com.alibaba.jvm.sandbox.api.event.Event;
+import com.alibaba.jvm.sandbox.api.listener.EventListener;
+
+/**
+ * {@link ClassRoutingEventListener} 合并watch的事件路由
+ * <p>
+ * 多个增强模型合并为一次watch时，每个模型仍然持有自己的事件监听器（及其嵌套调用偏移量），
+ * 跨类调用不会被同一个监听器当作嵌套调用；before事件按类名分发，return/throw事件按线程上的调用栈分发给对应before的监听器
+ * <p>
+ * 只适用于类名精确（不含通配符、不包含子类）且观察before/return/throw三种事件的模型，保证每个before都有配对的return/throw
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+class ClassRoutingEventListener implements EventListener {
+
+    private final Map<String, EventListener> listeners;
+
+    private final ThreadLocal<ArrayList<EventListener>> frames = new ThreadLocal<ArrayList<EventListener>>() {
+        @Override
+        protected ArrayList<EventListener> initialValue() {
+            return new ArrayList<EventListener>(4);
+        }
+    };
+
+    /**
+     * @param listeners 类名 -> 该类增强模型的事件监听器
+     */
+    ClassRoutingEventListener(Map<String, EventListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void onEvent(Event event) throws Throwable {
+        ArrayList<EventListener> stack = frames.get();
+        EventListener target;
+        switch (event.type) {
+            case BEFORE:
+                target = listeners.get(((BeforeEvent) event).javaClassName);
+                stack.add(target);
+                if (target == null) {
+                    return;
+                }
+                try {
+                    target.onEvent(event);
+                } catch (ProcessControlException pe) {
+                    // 流程干预后不会再有return/throw事件
+                    pop(stack);
+                    throw pe;
+                }
+                return;
+            case RETURN:
+            case THROWS:
+                if (stack.isEmpty()) {
+                    frames.remove();
+                    return;
+                }
+                target = pop(stack);
+                if (target != null) {
+                    target.onEvent(event);
+                }
+                return;
+            default:
+                return;
+        }
+    }
+
+    private EventListener pop(ArrayList<EventListener> stack) {
+        EventListener target = stack.remove(stack.size() - 1);
+        if (stack.isEmpty()) {
+            frames.remove();
+        }
+        return target;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassRoutingEventListener:" + listeners;
+    }
+}
@@ -0,0 +1,200 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.HttpUtil;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.HttpUtil.Resp;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.RecordBatchCodec;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.RecordWrapper;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SerializerWrapper;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * {@link BatchBroadcaster} 批量投递录制消息
+ * <p>
+ * 消费线程把录制消息序列化后放入当前批次，满足条数/字节数/等待时间任一条件时，将整批消息编码为一个压缩帧{@link RecordBatchCodec}，一次POST投递
+ * <p>
+ * 投递失败的批次按照配置次数重试；{@link #destroy()}时投递尚未满足条件的批次
+ * <p>
+ * 回放消息和拉取录制数据仍沿用{@link DefaultBroadcaster}的实现
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class BatchBroadcaster extends DefaultBroadcaster {
+
+    private final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1,
+        new BasicThreadFactory.Builder().namingPattern("batch-broadcast-pool-%d").daemon(true).build());
+
+    /**
+     * 批量录制消息投递的URL
+     */
+    private String broadcastBatchUrl = PropertyUtil.getPropertyOrDefault(Constants.RECORD_BATCH_BROADCASTER, "");
+
+    private final int maxCount = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_BATCH_MAX_COUNT, ""), 64);
+
+    private final long maxBytes = NumberUtils.toLong(PropertyUtil.getPropertyOrDefault(Constants.RECORD_BATCH_MAX_BYTES, ""), 1024 * 1024L);
+
+    private final long lingerMs = NumberUtils.toLong(PropertyUtil.getPropertyOrDefault(Constants.RECORD_BATCH_LINGER_MS, ""), 200L);
+
+    private final int retryTimes = Math.max(NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_BATCH_RETRY, ""), 3), 1);
+
+    private final Object lock = new Object();
+
+    private List<byte[]> batch = new ArrayList<byte[]>();
+
+    private long batchBytes;
+
+    private long batchStart;
+
+    private final AtomicLong sentBatches = new AtomicLong(0);
+
+    private final AtomicLong failedBatches = new AtomicLong(0);
+
+    public BatchBroadcaster() {
+        super();
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flushIfLingerExpired();
+                } catch (Throwable throwable) {
+                    log.error("[Error-0000]-flush record batch failed", throwable);
+                }
+            }
+        }, lingerMs, Math.max(lingerMs / 2, 10L), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 先停止消费线程，再停止定时投递并把当前未满的批次投递出去，避免卸载时丢失
+     */
+    @Override
+    public void destroy() {
+        super.destroy();
+        scheduler.shutdownNow();
+        List<byte[]> remaining;
+        synchronized (lock) {
+            remaining = batch.isEmpty() ? null : swap();
+        }
+        if (remaining != null) {
+            send(remaining);
+        }
+    }
+
+    public void setBroadcastBatchUrl(String broadcastBatchUrl) {
+        this.broadcastBatchUrl = broadcastBatchUrl;
+    }
+
+    @Override
+    protected void broadcastRecord(RecordModel recordModel) {
+        byte[] payload;
+        try {
+            payload = SerializerWrapper.hessianSerializeBytes(new RecordWrapper(recordModel));
+        } catch (SerializeException e) {
+            log.error("broadcast record failed", e);
+            return;
+        } catch (Throwable throwable) {
+            log.error("[Error-0000]-broadcast record failed", throwable);
+            return;
+        }
+        List<byte[]> full = null;
+        synchronized (lock) {
+            if (batch.isEmpty()) {
+                batchStart = System.currentTimeMillis();
+            }
+            batch.add(payload);
+            batchBytes += payload.length;
+            if (batch.size() >= maxCount || batchBytes >= maxBytes) {
+                full = swap();
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    /**
+     * 当前批次超过等待时间时投递
+     */
+    private void flushIfLingerExpired() {
+        List<byte[]> expired = null;
+        synchronized (lock) {
+            if (!batch.isEmpty() && System.currentTimeMillis() - batchStart >= lingerMs) {
+                expired = swap();
+            }
+        }
+        if (expired != null) {
+            send(expired);
+        }
+    }
+
+    /**
+     * 取出当前批次并重置；需要持有锁调用
+     *
+     * @return 当前批次
+     */
+    private List<byte[]> swap() {
+        List<byte[]> current = batch;
+        batch = new ArrayList<byte[]>(Math.min(maxCount, 1024));
+        batchBytes = 0;
+        return current;
+    }
+
+    /**
+     * 投递一个批次；在锁外执行，避免阻塞其他消费线程。失败时间隔100ms重试，超过次数后丢弃该批次
+     *
+     * @param payloads 批次
+     */
+    private void send(List<byte[]> payloads) {
+        byte[] frame;
+        try {
+            frame = RecordBatchCodec.encode(payloads);
+        } catch (SerializeException e) {
+            failedBatches.incrementAndGet();
+            log.error("broadcast batch failed,count={}", payloads.size(), e);
+            return;
+        }
+        for (int times = 1; times <= retryTimes; times++) {
+            try {
+                Resp resp = HttpUtil.invokePostBody(broadcastBatchUrl, null, "application/octet-stream", frame);
+                if (resp.isSuccess()) {
+                    sentBatches.incrementAndGet();
+                    log.info("broadcast batch success,count={},bytes={},resp={}", payloads.size(), frame.length, resp);
+                    return;
+                }
+                log.info("broadcast batch failed,count={},times={},resp={}", payloads.size(), times, resp);
+            } catch (Throwable throwable) {
+                log.error("[Error-0000]-broadcast batch failed,count={},times={}", payloads.size(), times, throwable);
+            }
+            if (times < retryTimes) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        failedBatches.incrementAndGet();
+        log.error("broadcast batch dropped after retry,count={},bytes={}", payloads.size(), frame.length);
+    }
+
+    public long getSentBatches() {
+        return sentBatches.get();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.get();
+    }
+}
@@ -0,0 +1,23 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api;
+
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+
+/**
+ * {@link CommandExtractor} 命令提取器
+ * <p>
+ * 命令由参数决定的客户端（如redis的{@code Connection.sendCommand(ProtocolCommand, byte[]...)}），插件只需要拦截一个发送点，
+ * 由提取器从参数中识别出具体命令，不需要为每个命令方法注册匹配器；配合{@link CommandInvocationProcessor}使用
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public interface CommandExtractor {
+
+    /**
+     * 提取命令名
+     *
+     * @param event before事件
+     * @return 命令名；不是命令时返回null，使用方法名作为identity
+     */
+    String extract(BeforeEvent event);
+}
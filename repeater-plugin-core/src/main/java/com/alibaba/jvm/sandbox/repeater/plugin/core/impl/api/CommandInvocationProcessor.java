@@ -0,0 +1,86 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api;
+
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Identity;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CommandInvocationProcessor} 按命令录制的调用处理器
+ * <p>
+ * 命令类插件（如redis）只拦截一个发送点，由{@link CommandExtractor}从参数中识别命令，identity按命令区分；
+ * 发送点以外的方法（提取结果为null）使用默认的identity
+ * <p>
+ * 命令对应的identity与{@link DefaultInvocationProcessor}格式一致（命令名取代方法名），按类名/命令/方法描述缓存，
+ * 不在每次调用时重新拼装；因此{@link #getExtra()}需要与调用无关
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class CommandInvocationProcessor extends DefaultInvocationProcessor {
+
+    private final static int MAX_CACHED_IDENTITIES = 4096;
+
+    private final CommandExtractor extractor;
+
+    private final ConcurrentHashMap<Key, Identity> identities = new ConcurrentHashMap<Key, Identity>();
+
+    public CommandInvocationProcessor(InvokeType type, CommandExtractor extractor) {
+        super(type);
+        this.extractor = extractor;
+    }
+
+    @Override
+    public Identity assembleIdentity(BeforeEvent event) {
+        String command = extractor.extract(event);
+        if (command == null) {
+            return super.assembleIdentity(event);
+        }
+        Key key = new Key(event.javaClassName, command, event.javaMethodDesc);
+        Identity identity = identities.get(key);
+        if (identity == null) {
+            identity = new Identity(getType().name(), event.javaClassName, command + "~" + event.javaMethodDesc, getExtra());
+            if (identities.size() < MAX_CACHED_IDENTITIES) {
+                identities.putIfAbsent(key, identity);
+            }
+        }
+        return identity;
+    }
+
+    private static final class Key {
+
+        private final String className;
+
+        private final String command;
+
+        private final String methodDesc;
+
+        private final int hash;
+
+        private Key(String className, String command, String methodDesc) {
+            this.className = className;
+            this.command = command;
+            this.methodDesc = methodDesc;
+            this.hash = (className.hashCode() * 31 + command.hashCode()) * 31 + (methodDesc == null ? 0 : methodDesc.hashCode());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && className.equals(other.className) && command.equals(other.command)
+                    && (methodDesc == null ? other.methodDesc == null : methodDesc.equals(other.methodDesc));
+        }
+    }
+}
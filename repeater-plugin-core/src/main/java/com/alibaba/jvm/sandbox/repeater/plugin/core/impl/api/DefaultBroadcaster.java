@@ -61,7 +61,7 @@ public class DefaultBroadcaster extends AbstractBroadcaster {
     protected void broadcastRecord(RecordModel recordModel) {
         try {
             RecordWrapper wrapper = new RecordWrapper(recordModel);
-            String body = SerializerWrapper.hessianSerialize(wrapper);
+            byte[] body = SerializerWrapper.hessianSerializeBytes(wrapper);
             broadcast(broadcastRecordUrl, body, recordModel.getTraceId());
         } catch (SerializeException e) {
             log.error("broadcast record failed", e);
@@ -99,6 +99,21 @@ public class DefaultBroadcaster extends AbstractBroadcaster {
         }
     }
 
+    /**
+     * 二进制请求发送；录制消息不再做base64编码，以application/octet-stream投递
+     * @param url 地址
+     * @param body 请求内容
+     * @param traceId traceId
+     */
+    private void broadcast(String url, byte[] body, String traceId) {
+        Resp resp = HttpUtil.invokePostBody(url, null, "application/octet-stream", body);
+        if (resp.isSuccess()) {
+            log.info("broadcast success,traceId={},resp={}", traceId, resp);
+        } else {
+            log.info("broadcast failed ,traceId={},resp={}", traceId, resp);
+        }
+    }
+
     @Override
     public RepeaterResult<RecordModel> pullRecord(RepeatMeta meta) {
         String url;
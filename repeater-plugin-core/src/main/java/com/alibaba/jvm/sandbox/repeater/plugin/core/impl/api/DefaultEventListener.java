@@ -8,13 +8,14 @@ import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationListener;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationProcessor;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.bridge.ClassloaderBridge;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RecordCache;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RepeatCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.model.ApplicationModel;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.sample.Sampler;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.SequenceGenerator;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceContext;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SerializerWrapper;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SnapshotWrapper;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Identity;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
 import org.slf4j.Logger;
@@ -147,16 +148,22 @@ public class DefaultEventListener implements EventListener {
      * @param event before事件
      */
     protected void doBefore(BeforeEvent event) throws ProcessControlException {
+        // 通过采样的事件一定存在上下文，这里只读取一次
+        final TraceContext context = Tracer.getContext();
         // 回放流量；如果是入口则放弃；子调用则进行mock
-        if (RepeatCache.isRepeatFlow(Tracer.getTraceId())) {
+        if (context.isRepeatFlow()) {
             processor.doMock(event, entrance, invokeType);
             return;
         }
+        final Identity identity = processor.assembleIdentity(event);
+        if (entrance && !acquireRecord(identity == null ? null : identity.getUri())) {
+            return;
+        }
         Invocation invocation = initInvocation(event);
         invocation.setStart(System.currentTimeMillis());
-        invocation.setTraceId(Tracer.getTraceId());
-        invocation.setIndex(entrance ? 0 : SequenceGenerator.generate(Tracer.getTraceId()));
-        invocation.setIdentity(processor.assembleIdentity(event));
+        invocation.setTraceId(context.getTraceId());
+        invocation.setIndex(entrance ? 0 : context.nextSequence());
+        invocation.setIdentity(identity);
         invocation.setEntrance(entrance);
         invocation.setType(invokeType);
         invocation.setProcessId(event.processId);
@@ -166,11 +173,11 @@ public class DefaultEventListener implements EventListener {
         invocation.setSerializeToken(ClassloaderBridge.instance().encode(event.javaClassLoader));
         try {
             // fix issue#14 : useGeneratedKeys
-            if (processor.inTimeSerializeRequest(invocation, event)) {
+            if (processor.inTimeSerializeRequest(invocation, event) && !SnapshotWrapper.capture(invocation, processor)) {
                 SerializerWrapper.inTimeSerialize(invocation);
             }
         } catch (SerializeException e) {
-            Tracer.getContext().setSampled(false);
+            context.setSampled(false);
             log.error("Error occurred serialize", e);
         }
         RecordCache.cacheInvocation(event.invokeId, invocation);
@@ -202,22 +209,39 @@ public class DefaultEventListener implements EventListener {
         }
     }
 
+    /**
+     * 入口流量的速率限制；在比例采样、processor过滤和插件自身的过滤之后调用，只有确定要录制的流量才消耗令牌
+     * <p>
+     * 未获取到令牌时当前链路标记为不采样，子调用和return/throw事件都会被跳过
+     *
+     * @param uri 入口URI，作为采样器的配额key
+     * @return 是否录制
+     */
+    protected boolean acquireRecord(String uri) {
+        if (Sampler.instance().acquire(uri)) {
+            return true;
+        }
+        Tracer.getContext().setSampled(false);
+        return false;
+    }
+
     /**
      * 处理return事件
      *
      * @param event return事件
      */
     protected void doReturn(ReturnEvent event) {
-        if (RepeatCache.isRepeatFlow(Tracer.getTraceId())) {
+        if (Tracer.isRepeatFlow()) {
             return;
         }
-        Invocation invocation = RecordCache.getInvocation(event.invokeId);
+        Invocation invocation = RecordCache.removeInvocation(event.invokeId);
         if (invocation == null) {
             log.debug("no valid invocation found in return,type={},traceId={}", invokeType, Tracer.getTraceId());
             return;
         }
         invocation.setResponse(processor.assembleResponse(event));
         invocation.setEnd(System.currentTimeMillis());
+        SnapshotWrapper.capture(invocation, processor);
         listener.onInvocation(invocation);
     }
 
@@ -227,16 +251,17 @@ public class DefaultEventListener implements EventListener {
      * @param event throw事件
      */
     protected void doThrow(ThrowsEvent event) {
-        if (RepeatCache.isRepeatFlow(Tracer.getTraceId())) {
+        if (Tracer.isRepeatFlow()) {
             return;
         }
-        Invocation invocation = RecordCache.getInvocation(event.invokeId);
+        Invocation invocation = RecordCache.removeInvocation(event.invokeId);
         if (invocation == null) {
             log.debug("no valid invocation found in throw,type={},traceId={}", invokeType, Tracer.getTraceId());
             return;
         }
         invocation.setThrowable(processor.assembleThrowable(event));
         invocation.setEnd(System.currentTimeMillis());
+        SnapshotWrapper.capture(invocation, processor);
         listener.onInvocation(invocation);
     }
 
@@ -323,7 +348,7 @@ public class DefaultEventListener implements EventListener {
      */
     protected boolean access(Event event) {
         return ApplicationModel.instance().isWorkingOn() &&
-                (!ApplicationModel.instance().isDegrade() || RepeatCache.isRepeatFlow(Tracer.getTraceId()));
+                (!ApplicationModel.instance().isDegrade() || Tracer.isRepeatFlow());
     }
 
     @Override
@@ -7,6 +7,7 @@ import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceGenerator;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeatContext;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeatMeta;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.SubInvocationIndex;
 import com.alibaba.jvm.sandbox.repeater.plugin.exception.RepeatException;
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.Repeater;
 
@@ -37,6 +38,8 @@ public class DefaultFlowDispatcher implements FlowDispatcher {
         if (repeater == null) {
             throw new RepeatException("no valid repeat found for invoke type:" + recordModel.getEntranceInvocation().getType());
         }
+        // 预先构建子调用索引，mock选择时按URI直接定位候选
+        recordModel.setSubInvocationIndex(SubInvocationIndex.build(recordModel.getSubInvocations()));
         RepeatContext context = new RepeatContext(meta, recordModel, TraceGenerator.generate());
         // 放置到回放缓存中
         RepeatCache.putRepeatContext(context);
@@ -3,12 +3,14 @@ package com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.jvm.sandbox.repeater.plugin.api.Broadcaster;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationListener;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RecordCache;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.dedup.RecordDeduplicator;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.model.ApplicationModel;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceContext;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SerializerWrapper;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
@@ -29,6 +31,8 @@ public class DefaultInvocationListener implements InvocationListener {
 
     private final static Logger log = LoggerFactory.getLogger(DefaultInvocationListener.class);
 
+    private static final AtomicLong orphans = new AtomicLong(0);
+
     private final Broadcaster broadcast;
 
     public DefaultInvocationListener(Broadcaster broadcast) {
@@ -37,11 +41,22 @@ public class DefaultInvocationListener implements InvocationListener {
 
     @Override
     public void onInvocation(Invocation invocation) {
-        try {
-            SerializerWrapper.inTimeSerialize(invocation);
-        } catch (SerializeException e) {
-            Tracer.getContext().setSampled(false);
-            log.error("Error occurred serialize", e);
+        // 快照模式下由投递线程序列化
+        if (!invocation.isSnapshot()) {
+            try {
+                SerializerWrapper.inTimeSerialize(invocation);
+            } catch (SerializeException e) {
+                Tracer.getContext().setSampled(false);
+                log.error("Error occurred serialize", e);
+            }
+        }
+        final TraceContext context = Tracer.getContext();
+        if (context == null || !context.getTraceId().equals(invocation.getTraceId())) {
+            orphans.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("no trace context found for invocation,traceId={},type={}", invocation.getTraceId(), invocation.getType());
+            }
+            return;
         }
         if (invocation.isEntrance()) {
             ApplicationModel am = ApplicationModel.instance();
@@ -52,16 +67,34 @@ public class DefaultInvocationListener implements InvocationListener {
             recordModel.setTraceId(invocation.getTraceId());
             recordModel.setTimestamp(invocation.getStart());
             recordModel.setEntranceInvocation(invocation);
-            recordModel.setSubInvocations(RecordCache.getSubInvocation(invocation.getTraceId()));
+            recordModel.setSubInvocations(context.getSubInvocations().drain());
+            if (context.getSubInvocations().getOverflow() > 0) {
+                log.info("sub invocation overflow,traceId={},dropped={}", invocation.getTraceId(), context.getSubInvocations().getOverflow());
+            }
             if (log.isDebugEnabled()){
                 log.debug("sampleOnRecord:traceId={},rootType={},subTypes={}", recordModel.getTraceId(), invocation.getType(), assembleTypes(recordModel));
             }
+            if (RecordDeduplicator.instance().isDuplicate(recordModel)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("duplicate record skipped,traceId={},uri={}", recordModel.getTraceId(), invocation.getIdentity());
+                }
+                return;
+            }
             broadcast.sendRecord(recordModel);
         } else {
-            RecordCache.cacheSubInvocation(invocation);
+            context.getSubInvocations().add(invocation);
         }
     }
 
+    /**
+     * 找不到所属链路上下文而丢弃的调用数
+     *
+     * @return 丢弃数
+     */
+    public static long getOrphanCount() {
+        return orphans.get();
+    }
+
     private String assembleTypes(RecordModel recordModel) {
         StringBuilder builder = new StringBuilder();
         if (CollectionUtils.isNotEmpty(recordModel.getSubInvocations())) {
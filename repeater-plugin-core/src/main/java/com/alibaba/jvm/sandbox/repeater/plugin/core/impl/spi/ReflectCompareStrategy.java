@@ -4,17 +4,15 @@ import com.alibaba.jvm.sandbox.repeater.aide.compare.ComparableFactory;
 import com.alibaba.jvm.sandbox.repeater.aide.compare.CompareResult;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.AbstractMockStrategy;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.SubInvocationIndex;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.mock.MockRequest;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.mock.SelectResult;
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.MockStrategy;
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.kohsuke.MetaInfServices;
 
-import java.util.*;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -26,6 +24,12 @@ import java.util.concurrent.TimeUnit;
 @MetaInfServices(MockStrategy.class)
 public class ReflectCompareStrategy extends AbstractMockStrategy {
 
+    /**
+     * 共享的对比器，内部池化，线程安全；默认忽略时间戳
+     */
+    private static final com.alibaba.jvm.sandbox.repeater.aide.compare.Comparable COMPARABLE = ComparableFactory.instance()
+            .create(com.alibaba.jvm.sandbox.repeater.aide.compare.comparator.Comparator.CompareMode.LENIENT_DATES);
+
     @Override
     protected SelectResult select(MockRequest request) {
         final List<Invocation> subInvocations = request.getRecordModel().getSubInvocations();
@@ -34,60 +38,36 @@ public class ReflectCompareStrategy extends AbstractMockStrategy {
             return null;
         }
         Object[] current = request.getArgumentArray();
-        java.util.List<Invocation> target = Lists.newArrayList();
-        // step1:URI匹配,目前做精确匹配，后续可能需要考虑替换
-        for (Invocation invocation : subInvocations) {
-            if (StringUtils.equals(invocation.getIdentity().getUri(), request.getIdentity().getUri())) {
-                target.add(invocation);
-            }
-        }
+        // step1:URI匹配,目前做精确匹配，后续可能需要考虑替换；候选已按index排序
+        SubInvocationIndex.Bucket bucket = candidates(request);
+        List<Invocation> target = bucket == null ? null : bucket.remaining();
         if (CollectionUtils.isEmpty(target)) {
             log.error("can't find any sub invocation, strategy={}, identity={}", type().name(), request.getIdentity().getUri());
             return SelectResult.builder().match(false).cost(stopwatch.stop().elapsed(TimeUnit.MILLISECONDS)).build();
         }
-        // 根据index排序
-        Collections.sort(target, new Comparator<Invocation>() {
-            @Override
-            public int compare(Invocation o1, Invocation o2) {
-                return o1.getIndex() - o2.getIndex();
-            }
-        });
-        Map<Integer, Invocation> invocationMap = Maps.newHashMap();
-        // step2: 反射对比；默认忽略时间戳
+        // step2: 反射对比；差异数达到当前最少差异数的候选不可能更优，提前停止对比
+        Invocation best = null;
+        int bestCount = Integer.MAX_VALUE;
         for (Invocation invocation : target) {
             Object[] origin = invocation.getRequest();
-            com.alibaba.jvm.sandbox.repeater.aide.compare.Comparable comparable = ComparableFactory.instance()
-                    .create(com.alibaba.jvm.sandbox.repeater.aide.compare.comparator.Comparator.CompareMode.LENIENT_DATES);
-            CompareResult result = comparable.compare(origin, current);
-            if (!result.hasDifference()) {
+            CompareResult result = COMPARABLE.compare(origin, current, bestCount, 0);
+            if (!result.hasDifference() && bucket.consume(invocation)) {
                 log.info("find target invocation by {},index={},identity={}", type().name(), request.getIndex(), request.getIdentity().getUri());
-                Iterator<Invocation> ite = subInvocations.iterator();
-                while (ite.hasNext()) {
-                    if (invocation.equals(ite.next())) {
-                        ite.remove();
-                        break;
-                    }
-                }
                 return SelectResult.builder().match(true).invocation(invocation).cost(stopwatch.stop().elapsed(TimeUnit.MILLISECONDS)).build();
             }
-            invocationMap.put(result.getDifferences().size(), invocation);
+            // 截断的结果差异数不少于当前最优，同样差异数时保留index较小的候选；无差异但已被消费的候选跳过
+            if (result.hasDifference() && !result.isTruncated() && result.getDifferences().size() < bestCount) {
+                best = invocation;
+                bestCount = result.getDifferences().size();
+            }
         }
         // 如果没有找到，返回差异最少的一条
-        List<Integer> scores = new ArrayList<Integer>(invocationMap.keySet());
-        Collections.sort(scores, new Comparator<Integer>() {
-            @Override
-            public int compare(Integer o1, Integer o2) {
-                if (o1.equals(o2)) {
-                    return 0;
-                }
-                return o2 - o1 > 0 ? 1 : -1;
-            }
-        });
-        Integer diffCount = scores.get(0);
-        Invocation invocation = invocationMap.get(diffCount);
+        if (best == null) {
+            return SelectResult.builder().match(false).cost(stopwatch.stop().elapsed(TimeUnit.MILLISECONDS)).build();
+        }
         log.info("find invocation by {}, but have many difference,different count={},identity={}, originRequest={},currentRequest={}", type().name(),
-                diffCount, request.getIdentity().getUri(), invocation.getRequest(), request.getArgumentArray());
-        return SelectResult.builder().match(false).invocation(invocation).cost(stopwatch.stop().elapsed(TimeUnit.MILLISECONDS)).build();
+                bestCount, request.getIdentity().getUri(), best.getRequest(), request.getArgumentArray());
+        return SelectResult.builder().match(false).invocation(best).cost(stopwatch.stop().elapsed(TimeUnit.MILLISECONDS)).build();
     }
 
     @Override
@@ -4,6 +4,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeaterConfig;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.ExceptionAware;
 
 
@@ -116,6 +117,7 @@ public class ApplicationModel {
 
     public void setConfig(RepeaterConfig config) {
         this.config = config;
+        Tracer.configure(config);
     }
 
     public ExceptionAware getEa() {
@@ -0,0 +1,37 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.queue;
+
+/**
+ * {@link DropPolicy} {@link RingBuffer}满时的丢弃策略
+ * <p>
+ * 录制发生在业务线程，队列满时绝不阻塞生产者，只能选择丢弃哪一条
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public enum DropPolicy {
+
+    /**
+     * 丢弃新提交的数据（默认）
+     */
+    DISCARD_NEWEST,
+
+    /**
+     * 丢弃队列中最老的数据，腾出位置给新数据
+     */
+    DISCARD_OLDEST;
+
+    /**
+     * 根据名称解析丢弃策略，未识别时使用{@link #DISCARD_NEWEST}
+     *
+     * @param name 策略名称
+     * @return 丢弃策略
+     */
+    public static DropPolicy of(String name) {
+        for (DropPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        return DISCARD_NEWEST;
+    }
+}
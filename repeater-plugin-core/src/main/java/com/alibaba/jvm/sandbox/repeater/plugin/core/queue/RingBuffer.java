@@ -0,0 +1,170 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link RingBuffer} 有界、预分配的多生产者无锁环形队列
+ * <p>
+ * 每个槽位维护一个序号，生产者/消费者通过CAS推进各自游标，不需要加锁，也不需要像{@code ConcurrentLinkedQueue#size()}一样遍历计数
+ * <p>
+ * 容量会向上取整为2的幂；队列满时按照{@link DropPolicy}处理并计数，消费者空闲时按照{@link WaitStrategy}等待
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class RingBuffer<E> {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> buffer;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong producerCursor = new AtomicLong(0);
+
+    private final AtomicLong consumerCursor = new AtomicLong(0);
+
+    private final WaitStrategy waitStrategy;
+
+    private final DropPolicy dropPolicy;
+
+    /**
+     * 成功入队数
+     */
+    private final AtomicLong offered = new AtomicLong(0);
+
+    /**
+     * 丢弃数
+     */
+    private final AtomicLong dropped = new AtomicLong(0);
+
+    public RingBuffer(int capacity, WaitStrategy waitStrategy, DropPolicy dropPolicy) {
+        int actual = 1;
+        while (actual < capacity) {
+            actual <<= 1;
+        }
+        this.capacity = actual;
+        this.mask = actual - 1;
+        this.buffer = new AtomicReferenceArray<E>(actual);
+        this.sequences = new AtomicLongArray(actual);
+        for (int i = 0; i < actual; i++) {
+            sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+        this.dropPolicy = dropPolicy;
+    }
+
+    /**
+     * 发布一条数据；队列满时按照丢弃策略处理，不会阻塞
+     *
+     * @param element 数据
+     * @return 当前数据是否入队成功
+     */
+    public boolean publish(E element) {
+        if (tryOffer(element)) {
+            offered.incrementAndGet();
+            waitStrategy.signal();
+            return true;
+        }
+        if (dropPolicy == DropPolicy.DISCARD_OLDEST) {
+            // 腾一个位置；并发情况下可能被其他生产者抢占，只重试一次
+            if (poll() != null) {
+                dropped.incrementAndGet();
+            }
+            if (tryOffer(element)) {
+                offered.incrementAndGet();
+                waitStrategy.signal();
+                return true;
+            }
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 非阻塞获取数据
+     *
+     * @return 数据；队列为空返回null
+     */
+    public E poll() {
+        for (; ; ) {
+            long position = consumerCursor.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (consumerCursor.compareAndSet(position, position + 1)) {
+                    E element = buffer.get(index);
+                    buffer.lazySet(index, null);
+                    sequences.set(index, position + capacity);
+                    return element;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 阻塞获取数据，空闲时按照{@link WaitStrategy}等待
+     *
+     * @return 数据
+     * @throws InterruptedException 线程中断
+     */
+    public E take() throws InterruptedException {
+        int idleTimes = 0;
+        for (; ; ) {
+            E element = poll();
+            if (element != null) {
+                return element;
+            }
+            waitStrategy.await(++idleTimes);
+        }
+    }
+
+    private boolean tryOffer(E element) {
+        for (; ; ) {
+            long position = producerCursor.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (producerCursor.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 当前队列深度（近似值，O(1)）
+     *
+     * @return 队列深度
+     */
+    public int size() {
+        long size = producerCursor.get() - consumerCursor.get();
+        return size < 0 ? 0 : (int) Math.min(size, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getOffered() {
+        return offered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+}
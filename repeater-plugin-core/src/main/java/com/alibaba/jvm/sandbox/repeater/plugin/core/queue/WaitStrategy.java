@@ -0,0 +1,141 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link WaitStrategy} 消费者在{@link RingBuffer}为空时的等待策略
+ * <p>
+ * BLOCKING : 基于Condition阻塞，生产者发布时唤醒；CPU占用最低，延迟最高
+ * <p>
+ * SPINNING : 自旋+让出CPU；延迟最低，空闲时也会占用CPU
+ * <p>
+ * PARKING  : 自旋一段时间后逐步延长park时间，最长50ms；折中方案（默认）
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public abstract class WaitStrategy {
+
+    /**
+     * 空闲时等待
+     *
+     * @param idleTimes 连续空轮询次数，从1开始
+     * @throws InterruptedException 线程中断
+     */
+    public abstract void await(int idleTimes) throws InterruptedException;
+
+    /**
+     * 生产者发布数据后唤醒等待的消费者
+     */
+    public abstract void signal();
+
+    /**
+     * 根据名称创建等待策略，未识别时使用{@link ParkingWaitStrategy}
+     *
+     * @param name blocking/spinning/parking
+     * @return 等待策略
+     */
+    public static WaitStrategy of(String name) {
+        if ("blocking".equalsIgnoreCase(name)) {
+            return new BlockingWaitStrategy();
+        }
+        if ("spinning".equalsIgnoreCase(name)) {
+            return new SpinningWaitStrategy();
+        }
+        return new ParkingWaitStrategy();
+    }
+
+    /**
+     * 阻塞等待；带超时保证不会因为信号丢失而永久阻塞
+     */
+    public static class BlockingWaitStrategy extends WaitStrategy {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition notEmpty = lock.newCondition();
+
+        private final AtomicInteger waiters = new AtomicInteger(0);
+
+        @Override
+        public void await(int idleTimes) throws InterruptedException {
+            lock.lock();
+            try {
+                waiters.incrementAndGet();
+                notEmpty.await(10, TimeUnit.MILLISECONDS);
+            } finally {
+                waiters.decrementAndGet();
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signal() {
+            // 没有等待者时不抢锁，避免拖慢业务线程
+            if (waiters.get() > 0) {
+                lock.lock();
+                try {
+                    notEmpty.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * 自旋等待
+     */
+    public static class SpinningWaitStrategy extends WaitStrategy {
+
+        @Override
+        public void await(int idleTimes) throws InterruptedException {
+            if (idleTimes > 100) {
+                Thread.yield();
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        @Override
+        public void signal() {
+            // nothing to do
+        }
+    }
+
+    /**
+     * 自旋后按指数退避park，最长50ms（与原先空轮询的休眠间隔一致），空闲时每个消费线程每秒约唤醒20次
+     */
+    public static class ParkingWaitStrategy extends WaitStrategy {
+
+        private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+        private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+        @Override
+        public void await(int idleTimes) throws InterruptedException {
+            if (idleTimes <= 100) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(parkNanos(idleTimes));
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        @Override
+        public void signal() {
+            // nothing to do
+        }
+
+        static long parkNanos(int idleTimes) {
+            int shift = Math.min(idleTimes - 101, 20);
+            return shift < 0 ? MIN_PARK_NANOS : Math.min(MAX_PARK_NANOS, MIN_PARK_NANOS << shift);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.sample;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.AbstractBroadcaster;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link Sampler} 入口流量的自适应采样
+ * <p>
+ * {@link com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeaterConfig#getSampleRate()}作为比例上限先行过滤，通过的流量再依次经过：
+ * <ul>
+ * <li>按入口URI的配额：每个URI独立的令牌桶，热点URI不会挤占冷门URI的录制机会</li>
+ * <li>全局令牌桶：整个应用每秒录制条数的上限</li>
+ * </ul>
+ * 每秒根据录制队列深度和投递线程CPU占用调整一次退避系数，有压力时减半，压力解除后逐步恢复（AIMD）；
+ * 配置了速率时两级速率都会乘以退避系数，两级速率都不限制（<=0，默认）时退避系数直接作为录制比例，默认配置下同样会退避
+ * <p>
+ * URI配额先于全局令牌桶获取，被全局令牌桶拒绝时URI的令牌不退还；URI数超过上限后新URI共用一个配额
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class Sampler {
+
+    private final static Logger log = LoggerFactory.getLogger(Sampler.class);
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /**
+     * 退避系数的下限
+     */
+    private static final double MIN_THROTTLE = 1.0 / 64;
+
+    /**
+     * 无压力时每个调整周期恢复的系数
+     */
+    private static final double RECOVER_STEP = 0.1;
+
+    private static final String OTHERS = "<others>";
+
+    private static final Sampler instance = new Sampler();
+
+    private final int globalRate = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SAMPLE_GLOBAL_RATE, ""), 0);
+
+    private final int identityRate = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SAMPLE_IDENTITY_RATE, ""), 0);
+
+    private final int maxIdentities = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SAMPLE_MAX_IDENTITIES, ""), 1024);
+
+    private final double queueWatermark = NumberUtils.toDouble(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SAMPLE_QUEUE_WATERMARK, ""), 0.5);
+
+    private final double cpuLimit = NumberUtils.toDouble(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SAMPLE_CPU_LIMIT, ""), 0.1);
+
+    private final int processors = Runtime.getRuntime().availableProcessors();
+
+    private final TokenBucket global = new TokenBucket();
+
+    private final ConcurrentHashMap<String, Quota> quotas = new ConcurrentHashMap<String, Quota>();
+
+    private final Quota others = new Quota(OTHERS);
+
+    private final AtomicLong accepted = new AtomicLong(0);
+
+    private final AtomicLong globalRejected = new AtomicLong(0);
+
+    private final AtomicLong identityRejected = new AtomicLong(0);
+
+    private final AtomicLong throttleRejected = new AtomicLong(0);
+
+    private final AtomicLong backoffs = new AtomicLong(0);
+
+    /**
+     * 未配置速率时按退避系数放行的计数
+     */
+    private final AtomicLong admissions = new AtomicLong(0);
+
+    private final AtomicLong lastAdjust = new AtomicLong(System.nanoTime());
+
+    private volatile AbstractBroadcaster broadcaster;
+
+    private volatile double throttle = 1.0;
+
+    private volatile long lastCpuTime = -1;
+
+    private volatile double queueUsage;
+
+    private volatile double cpuUsage;
+
+    private Sampler() {
+    }
+
+    public static Sampler instance() {
+        return instance;
+    }
+
+    /**
+     * 关联录制消息投递器，用于读取队列深度和投递线程CPU占用
+     *
+     * @param broadcaster 投递器
+     */
+    public void watch(AbstractBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+        this.lastCpuTime = -1;
+    }
+
+    /**
+     * 入口流量是否录制
+     *
+     * @param uri 入口URI
+     * @return 是否录制
+     */
+    public boolean acquire(String uri) {
+        long now = System.nanoTime();
+        long last = lastAdjust.get();
+        if (now - last >= NANOS_PER_SECOND && lastAdjust.compareAndSet(last, now)) {
+            adjust(now - last);
+        }
+        double current = throttle;
+        if (globalRate <= 0 && identityRate <= 0) {
+            if (!admit(current)) {
+                throttleRejected.incrementAndGet();
+                return false;
+            }
+            accepted.incrementAndGet();
+            return true;
+        }
+        // 全局令牌已耗尽时不再消费URI配额
+        if (globalRate > 0 && !global.available(now)) {
+            globalRejected.incrementAndGet();
+            return false;
+        }
+        Quota quota = quota(uri);
+        if (identityRate > 0 && !quota.bucket.tryAcquire(now, interval(identityRate, current))) {
+            quota.rejected.incrementAndGet();
+            identityRejected.incrementAndGet();
+            return false;
+        }
+        if (globalRate > 0 && !global.tryAcquire(now, interval(globalRate, current))) {
+            quota.rejected.incrementAndGet();
+            globalRejected.incrementAndGet();
+            return false;
+        }
+        quota.accepted.incrementAndGet();
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 按退避系数放行：第n次调用在floor(n*throttle)增加时放行，放行比例等于退避系数且分布均匀
+     *
+     * @param current 退避系数
+     * @return 是否放行
+     */
+    private boolean admit(double current) {
+        if (current >= 1.0) {
+            return true;
+        }
+        long n = admissions.incrementAndGet();
+        return (long) (n * current) != (long) ((n - 1) * current);
+    }
+
+    private Quota quota(String uri) {
+        if (uri == null) {
+            return others;
+        }
+        Quota quota = quotas.get(uri);
+        if (quota != null) {
+            return quota;
+        }
+        if (quotas.size() >= maxIdentities) {
+            return others;
+        }
+        quota = new Quota(uri);
+        Quota exist = quotas.putIfAbsent(uri, quota);
+        return exist == null ? quota : exist;
+    }
+
+    private static long interval(int rate, double throttle) {
+        return (long) (NANOS_PER_SECOND / (rate * throttle));
+    }
+
+    /**
+     * 根据上一周期的队列深度和投递线程CPU占用调整退避系数
+     *
+     * @param elapsed 周期长度（纳秒）
+     */
+    private void adjust(long elapsed) {
+        AbstractBroadcaster current = broadcaster;
+        if (current == null) {
+            return;
+        }
+        queueUsage = current.getQueueCapacity() > 0 ? (double) current.getQueueSize() / current.getQueueCapacity() : 0;
+        long cpuTime = current.getConsumerCpuTime();
+        long previous = lastCpuTime;
+        lastCpuTime = cpuTime;
+        cpuUsage = previous < 0 || cpuTime < previous ? 0 : (double) (cpuTime - previous) / elapsed / processors;
+        double old = throttle;
+        if (queueUsage > queueWatermark || cpuUsage > cpuLimit) {
+            throttle = Math.max(MIN_THROTTLE, old / 2);
+            if (old > MIN_THROTTLE) {
+                backoffs.incrementAndGet();
+                log.info("sampler backoff,throttle={},queueUsage={},cpuUsage={}", throttle, queueUsage, cpuUsage);
+            }
+        } else if (old < 1.0) {
+            throttle = Math.min(1.0, old + RECOVER_STEP);
+        }
+    }
+
+    public double getThrottle() {
+        return throttle;
+    }
+
+    public double getQueueUsage() {
+        return queueUsage;
+    }
+
+    public double getCpuUsage() {
+        return cpuUsage;
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getGlobalRejectedCount() {
+        return globalRejected.get();
+    }
+
+    public long getIdentityRejectedCount() {
+        return identityRejected.get();
+    }
+
+    public long getThrottleRejectedCount() {
+        return throttleRejected.get();
+    }
+
+    public long getBackoffCount() {
+        return backoffs.get();
+    }
+
+    /**
+     * 各入口URI的采样计数，按录制数降序
+     *
+     * @return 计数列表
+     */
+    public List<Quota> getQuotas() {
+        List<Quota> result = new ArrayList<Quota>(quotas.values());
+        if (others.accepted.get() > 0 || others.rejected.get() > 0) {
+            result.add(others);
+        }
+        Collections.sort(result, new Comparator<Quota>() {
+            @Override
+            public int compare(Quota o1, Quota o2) {
+                long a1 = o1.getAccepted();
+                long a2 = o2.getAccepted();
+                return a1 > a2 ? -1 : (a1 == a2 ? 0 : 1);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 单个入口URI的配额
+     */
+    public static class Quota {
+
+        private final String uri;
+
+        private final TokenBucket bucket = new TokenBucket();
+
+        private final AtomicLong accepted = new AtomicLong(0);
+
+        private final AtomicLong rejected = new AtomicLong(0);
+
+        private Quota(String uri) {
+            this.uri = uri;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public long getAccepted() {
+            return accepted.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+    }
+}
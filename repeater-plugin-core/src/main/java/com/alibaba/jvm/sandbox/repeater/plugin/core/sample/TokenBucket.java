@@ -0,0 +1,54 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.sample;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link TokenBucket} 无锁令牌桶
+ * <p>
+ * 按GCRA方式实现：只记录下一个令牌的理论到达时间，获取令牌是一次CAS；速率由调用方每次传入，退避调整速率时不需要逐个更新桶
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+class TokenBucket {
+
+    /**
+     * 允许的突发窗口；空闲一秒后最多可以连续获取一秒的令牌
+     */
+    static final long BURST_NANOS = 1000000000L;
+
+    private final AtomicLong next = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * 获取一个令牌
+     *
+     * @param now      当前时间（纳秒）
+     * @param interval 令牌间隔（纳秒）
+     * @return 是否获取成功
+     */
+    boolean tryAcquire(long now, long interval) {
+        for (; ; ) {
+            long current = next.get();
+            // 空闲后的积累不超过突发窗口，速率低于每秒一个时至少保留一个令牌
+            long floor = now - Math.max(BURST_NANOS - interval, 0);
+            long base = current == Long.MIN_VALUE || current - floor < 0 ? floor : current;
+            if (base - now > 0) {
+                return false;
+            }
+            if (next.compareAndSet(current, base + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前是否可能获取到令牌，不消费
+     *
+     * @param now 当前时间（纳秒）
+     * @return 是否可能获取到令牌
+     */
+    boolean available(long now) {
+        long current = next.get();
+        return current == Long.MIN_VALUE || current - now <= 0;
+    }
+}
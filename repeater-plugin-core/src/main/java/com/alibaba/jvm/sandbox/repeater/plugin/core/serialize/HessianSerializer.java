@@ -1,24 +1,38 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.core.serialize;
 
-import com.alibaba.jvm.sandbox.repeater.plugin.core.bridge.ClassloaderBridge;
 import com.caucho.hessian.io.*;
-import com.google.common.collect.Maps;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.kohsuke.MetaInfServices;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.util.Map;
-
 /**
  * {@link HessianSerializer} hessian序列化实现
  * <p>
+ * 输入输出流池化复用，见{@link HessianStreamContext}
  *
  * @author zhaoyb1990
  */
 @MetaInfServices(Serializer.class)
 public class HessianSerializer extends AbstractSerializerAdapter {
 
-    private Map<String, SerializerFactory> cached = Maps.newConcurrentMap();
+    /**
+     * 工厂缓存；key弱引用类加载器（按实例比较），读取无锁
+     * <p>
+     * 工厂内缓存的序列化器会强引用类加载器中的类，value只能使用软引用：插件重载后旧的类加载器要等软引用的工厂被回收（内存紧张时）才能卸载
+     */
+    private final LoadingCache<ClassLoader, SerializerFactory> cached = CacheBuilder.newBuilder()
+            .weakKeys()
+            .softValues()
+            .build(new CacheLoader<ClassLoader, SerializerFactory>() {
+                @Override
+                public SerializerFactory load(ClassLoader key) throws Exception {
+                    SerializerFactory factory = new SerializerFactory(key);
+                    factory.setAllowNonSerializable(true);
+                    registerCustomFactory(factory);
+                    return factory;
+                }
+            });
 
     private static boolean isJava8() {
         String javaVersion = System.getProperty("java.specification.version");
@@ -32,79 +46,68 @@ public class HessianSerializer extends AbstractSerializerAdapter {
 
     @Override
     public byte[] serialize(Object object, ClassLoader classLoader) throws SerializeException {
-        ByteArrayOutputStream byteArray = new ByteArrayOutputStream();
-        Hessian2Output output = new Hessian2Output(byteArray);
-        output.setSerializerFactory(getFactory(classLoader));
+        HessianStreamContext context = HessianStreamContext.acquire();
         try {
+            Hessian2Output output = context.output();
+            output.setSerializerFactory(getFactory(classLoader));
             output.writeObject(object);
             output.close();
+            return context.outputBytes();
         } catch (Throwable t) {
+            context.discardOutput();
             // may produce sof exception
             throw new SerializeException("[Error-1001]-hessian-serialize-error", t);
+        } finally {
+            context.release();
         }
-        return byteArray.toByteArray();
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> T deserialize(byte[] bytes, Class<T> type, ClassLoader classLoader) throws SerializeException {
-        Hessian2Input input = new Hessian2Input(new ByteArrayInputStream(bytes));
-        input.setSerializerFactory(getFactory(classLoader));
-        Object readObject;
-        try {
-            readObject = input.readObject(type);
-            input.close();
-        } catch (Throwable t) {
-            throw new SerializeException("[Error-1002]-hessian-deserialize-error", t);
-        }
-        return (T) readObject;
+        return (T) doDeserialize(bytes, type, getFactory(classLoader));
     }
 
     @Override
     public Object deserialize(byte[] bytes) throws SerializeException {
-        Hessian2Input input = new Hessian2Input(new ByteArrayInputStream(bytes));
-        input.setSerializerFactory(getFactory(null));
-        Object readObject;
+        return doDeserialize(bytes, null, getFactory(null));
+    }
+
+    private Object doDeserialize(byte[] bytes, Class<?> type, SerializerFactory factory) throws SerializeException {
+        HessianStreamContext context = HessianStreamContext.acquire();
+        Hessian2Input input = context.input(bytes);
+        input.setSerializerFactory(factory);
+        boolean success = false;
         try {
-            readObject = input.readObject();
+            Object readObject = type == null ? input.readObject() : input.readObject(type);
             input.close();
+            success = true;
+            return readObject;
         } catch (Throwable t) {
             throw new SerializeException("[Error-1002]-hessian-deserialize-error", t);
+        } finally {
+            context.releaseInput(success);
+            context.release();
         }
-        return readObject;
     }
 
     /**
-     * 通过classLoader获取序列化工厂；需要根据{@link ClassloaderBridge}来编解码类加载器
+     * 通过classLoader获取序列化工厂；按照类加载器实例缓存，同一个类加载器复用同一个工厂及其内部的序列化器缓存
+     * <p>
+     * classLoader为空时与{@link SerializerFactory#SerializerFactory()}一致，使用线程上下文类加载器
      *
      * @param classLoader 类加载器
      * @return 序列化工厂
-     * @see com.alibaba.jvm.sandbox.repeater.plugin.core.bridge.ClassloaderBridge
      */
-    private SerializerFactory getFactory(ClassLoader classLoader) {
-        String token = getToken(classLoader);
-        if (classLoader == null) {
-            final SerializerFactory factory = new SerializerFactory();
-            factory.setAllowNonSerializable(true);
-            registerCustomFactory(factory);
-            return factory;
+    SerializerFactory getFactory(ClassLoader classLoader) {
+        ClassLoader key = classLoader;
+        if (key == null) {
+            key = Thread.currentThread().getContextClassLoader();
         }
-        SerializerFactory factory = cached.get(token);
-        if (factory == null) {
-            factory = new SerializerFactory(classLoader);
-            factory.setAllowNonSerializable(true);
-            registerCustomFactory(factory);
-            cached.put(token, factory);
-        }
-        return factory;
-    }
-
-    private String getToken(ClassLoader classLoader) {
-        ClassloaderBridge instance = ClassloaderBridge.instance();
-        if (instance == null) {
-            return classLoader == null ? "BootstrapClassLoader" : classLoader.getClass().getName();
+        if (key == null) {
+            key = HessianSerializer.class.getClassLoader();
         }
-        return instance.encode(classLoader);
+        return cached.getUnchecked(key);
     }
 
     private void registerCustomFactory(SerializerFactory factory) {
@@ -0,0 +1,172 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.serialize;
+
+import com.caucho.hessian.io.Hessian2Input;
+import com.caucho.hessian.io.Hessian2Output;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link HessianStreamContext} 池化复用的hessian输入输出流
+ * <p>
+ * 录制链路上每次序列化都会新建{@link Hessian2Output}（内部8KB缓冲）与输出流，在业务线程上产生大量短命对象；
+ * 这里从有界的共享池中取出输入输出实例，使用前init重置引用表，使用后释放对序列化工厂和数据的引用，一次序列化只分配最终结果数组
+ * <p>
+ * 实例不挂在业务线程上（不使用ThreadLocal），池只被本类的静态字段引用：模块卸载后池随模块类加载器一起回收，
+ * 线程池中的业务线程不会继续持有模块的类；池满时归还的实例直接丢弃，池空时新建实例（如嵌套序列化）
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+class HessianStreamContext {
+
+    /**
+     * 复用缓冲区的上限；单次序列化结果超过该值时不保留缓冲区，避免大对象长期驻留在池中
+     */
+    private static final int MAX_RETAINED_CAPACITY = 8 * 1024;
+
+    /**
+     * 池中最多保留的实例数
+     */
+    private static final int POOL_SIZE = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), 16));
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final BlockingQueue<HessianStreamContext> POOL = new ArrayBlockingQueue<HessianStreamContext>(POOL_SIZE);
+
+    private final ReusableOutputStream outputStream = new ReusableOutputStream();
+
+    private final ReusableInputStream inputStream = new ReusableInputStream();
+
+    private final Hessian2Output output = new Hessian2Output(outputStream);
+
+    private Hessian2Input input;
+
+    /**
+     * 从池中取出上下文，池空时新建
+     *
+     * @return 上下文
+     */
+    static HessianStreamContext acquire() {
+        HessianStreamContext context = POOL.poll();
+        return context == null ? new HessianStreamContext() : context;
+    }
+
+    /**
+     * 归还上下文；池满时丢弃
+     */
+    void release() {
+        POOL.offer(this);
+    }
+
+    /**
+     * 获取重置后的输出
+     *
+     * @return hessian输出
+     */
+    Hessian2Output output() {
+        outputStream.reset();
+        output.init(outputStream);
+        return output;
+    }
+
+    /**
+     * 取出本次输出的结果并释放引用
+     *
+     * @return 序列化结果
+     */
+    byte[] outputBytes() {
+        byte[] bytes = outputStream.toByteArray();
+        output.free();
+        output.setSerializerFactory(null);
+        outputStream.trim();
+        return bytes;
+    }
+
+    /**
+     * 放弃本次输出（序列化失败时调用）
+     */
+    void discardOutput() {
+        output.free();
+        output.setSerializerFactory(null);
+        outputStream.reset();
+        outputStream.trim();
+    }
+
+    /**
+     * 获取读取指定数据的输入
+     *
+     * @param bytes 数据
+     * @return hessian输入
+     */
+    Hessian2Input input(byte[] bytes) {
+        inputStream.reset(bytes);
+        if (input == null) {
+            input = new Hessian2Input(inputStream);
+        } else {
+            input.init(inputStream);
+        }
+        return input;
+    }
+
+    /**
+     * 读取结束，释放对数据、类定义与序列化工厂的引用；
+     * 读取失败时缓冲区状态不可预期，直接丢弃输入实例
+     *
+     * @param success 是否读取成功
+     */
+    void releaseInput(boolean success) {
+        inputStream.reset(null);
+        if (input == null) {
+            return;
+        }
+        if (!success) {
+            input = null;
+            return;
+        }
+        input.reset();
+        input.setSerializerFactory(null);
+        try {
+            input.resetBuffer();
+        } catch (IllegalStateException e) {
+            // 仍有未读取的数据，下次使用前缓冲区已清零，这里无需处理
+        }
+    }
+
+    /**
+     * 可复用的输出流；reset只重置写入位置，不释放缓冲区
+     */
+    private static class ReusableOutputStream extends ByteArrayOutputStream {
+
+        ReusableOutputStream() {
+            super(INITIAL_CAPACITY);
+        }
+
+        void trim() {
+            if (buf.length > MAX_RETAINED_CAPACITY) {
+                buf = new byte[INITIAL_CAPACITY];
+            }
+        }
+    }
+
+    /**
+     * 可复用的输入流；直接包装传入的数组，不做拷贝
+     */
+    private static class ReusableInputStream extends ByteArrayInputStream {
+
+        ReusableInputStream() {
+            super(EMPTY);
+        }
+
+        void reset(byte[] bytes) {
+            this.buf = bytes == null ? EMPTY : bytes;
+            this.pos = 0;
+            this.mark = 0;
+            this.count = this.buf.length;
+        }
+    }
+}
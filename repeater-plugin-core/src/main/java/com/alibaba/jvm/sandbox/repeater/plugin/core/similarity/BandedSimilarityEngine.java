@@ -0,0 +1,106 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.similarity;
+
+import org.kohsuke.MetaInfServices;
+
+/**
+ * {@link BandedSimilarityEngine} 按阈值限定带宽的编辑距离（Ukkonen）
+ * <p>
+ * 阈值对应的最大编辑距离为{@code k = (1 - threshold) * 较长的长度}，长度差超过k直接返回；
+ * 只计算对角线两侧k以内的状态，某一行的最小值超过k时提前结束，时间复杂度O(n*k)
+ * <p>
+ * 提前结束时返回{@code 1 - (k + 1) / 较长的长度}，是真实相似度的上界且小于阈值
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+@MetaInfServices(SimilarityEngine.class)
+public class BandedSimilarityEngine implements SimilarityEngine {
+
+    @Override
+    public Type type() {
+        return Type.BANDED;
+    }
+
+    @Override
+    public double similarity(byte[] origin, byte[] target, double threshold) {
+        int longer = Math.max(origin.length, target.length);
+        if (longer == 0) {
+            return 1;
+        }
+        int bound = maxDistance(longer, threshold);
+        int distance = distance(origin, target, bound);
+        return 1 - (double) distance / longer;
+    }
+
+    /**
+     * 阈值允许的最大编辑距离
+     *
+     * @param longer    较长的长度
+     * @param threshold 相似度阈值
+     * @return 最大编辑距离
+     */
+    static int maxDistance(int longer, double threshold) {
+        if (threshold <= 0) {
+            return longer;
+        }
+        if (threshold >= 1) {
+            return 0;
+        }
+        return (int) Math.min(longer, Math.floor((1 - threshold) * longer + 1e-9));
+    }
+
+    /**
+     * 计算不超过bound的编辑距离
+     *
+     * @param a     序列a
+     * @param b     序列b
+     * @param bound 最大编辑距离
+     * @return 编辑距离；超过bound时返回bound + 1
+     */
+    static int distance(byte[] a, byte[] b, int bound) {
+        int n = a.length;
+        int m = b.length;
+        int over = bound + 1;
+        if (Math.abs(n - m) > bound) {
+            return over;
+        }
+        int[] prev = new int[m + 1];
+        int[] curr = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j <= bound ? j : over;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - bound);
+            int to = Math.min(m, i + bound);
+            curr[0] = i <= bound ? i : over;
+            // 带宽外的状态视为无穷大，避免读到之前行遗留的值
+            if (from > 1) {
+                curr[from - 1] = over;
+            }
+            int rowMin = from == 1 ? curr[0] : over;
+            byte current = a[i - 1];
+            for (int j = from; j <= to; j++) {
+                int value = prev[j - 1] + (current == b[j - 1] ? 0 : 1);
+                value = Math.min(value, prev[j] + 1);
+                value = Math.min(value, curr[j - 1] + 1);
+                if (value > over) {
+                    value = over;
+                }
+                curr[j] = value;
+                if (value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if (to < m) {
+                curr[to + 1] = over;
+            }
+            if (rowMin > bound) {
+                return over;
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return Math.min(prev[m], over);
+    }
+}
@@ -0,0 +1,48 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.similarity;
+
+import org.kohsuke.MetaInfServices;
+
+/**
+ * {@link LevenshteinSimilarityEngine} 完整计算编辑距离，不使用阈值
+ * <p>
+ * 时间复杂度O(n*m)，只保留两行状态；用于对照或需要精确相似度排序的场景
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+@MetaInfServices(SimilarityEngine.class)
+public class LevenshteinSimilarityEngine implements SimilarityEngine {
+
+    @Override
+    public Type type() {
+        return Type.LEVENSHTEIN;
+    }
+
+    @Override
+    public double similarity(byte[] origin, byte[] target, double threshold) {
+        int n = origin.length;
+        int m = target.length;
+        int longer = Math.max(n, m);
+        if (longer == 0) {
+            return 1;
+        }
+        int[] prev = new int[m + 1];
+        int[] curr = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            curr[0] = i;
+            byte current = origin[i - 1];
+            for (int j = 1; j <= m; j++) {
+                int value = prev[j - 1] + (current == target[j - 1] ? 0 : 1);
+                value = Math.min(value, prev[j] + 1);
+                curr[j] = Math.min(value, curr[j - 1] + 1);
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return 1 - (double) prev[m] / longer;
+    }
+}
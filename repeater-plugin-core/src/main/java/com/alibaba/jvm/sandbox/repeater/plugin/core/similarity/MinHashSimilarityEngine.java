@@ -0,0 +1,124 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.similarity;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.kohsuke.MetaInfServices;
+
+/**
+ * {@link MinHashSimilarityEngine} MinHash预过滤 + 带宽编辑距离
+ * <p>
+ * 阈值较低时带宽编辑距离的带宽很大，接近完整计算；这里先按4字节分片计算MinHash签名估计两段数据的Jaccard相似度，
+ * 与阈值对应的q-gram下界（编辑距离不超过k时至少共享{@code 较长长度 - q + 1 - k * q}个分片）比较，明显达不到的直接排除
+ * <p>
+ * 估计值存在误差，下界上留有余量；分片按集合计算，高度重复的数据可能被误排除，因此作为可选实现
+ * <p>
+ * 签名按数组实例弱引用缓存，同一次回放中的录制数据只计算一次
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+@MetaInfServices(SimilarityEngine.class)
+public class MinHashSimilarityEngine implements SimilarityEngine {
+
+    private static final int SHINGLE = 4;
+
+    private static final int HASHES = 64;
+
+    /**
+     * 估计误差余量；64个哈希的标准差不超过0.0625
+     */
+    private static final double MARGIN = 0.2;
+
+    /**
+     * 带宽小于该值时直接计算编辑距离更便宜，不做预过滤
+     */
+    private static final int MIN_BAND = 128;
+
+    private static final int[] SEEDS = new int[HASHES];
+
+    static {
+        int seed = 0x2545F491;
+        for (int i = 0; i < HASHES; i++) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            SEEDS[i] = seed | 1;
+        }
+    }
+
+    private final Map<byte[], int[]> signatures = Collections.synchronizedMap(new WeakHashMap<byte[], int[]>());
+
+    @Override
+    public Type type() {
+        return Type.MINHASH;
+    }
+
+    @Override
+    public double similarity(byte[] origin, byte[] target, double threshold) {
+        int longer = Math.max(origin.length, target.length);
+        if (longer == 0) {
+            return 1;
+        }
+        int bound = BandedSimilarityEngine.maxDistance(longer, threshold);
+        if (bound >= MIN_BAND && Math.min(origin.length, target.length) >= SHINGLE) {
+            double lower = jaccardLowerBound(origin.length, target.length, bound);
+            if (lower > MARGIN && estimate(signature(origin), signature(target)) < lower - MARGIN) {
+                return 1 - (double) (bound + 1) / longer;
+            }
+        }
+        return 1 - (double) BandedSimilarityEngine.distance(origin, target, bound) / longer;
+    }
+
+    /**
+     * 编辑距离不超过bound时Jaccard相似度的下界（按分片数估计）
+     */
+    private static double jaccardLowerBound(int n, int m, int bound) {
+        long shared = (long) Math.max(n, m) - SHINGLE + 1 - (long) bound * SHINGLE;
+        if (shared <= 0) {
+            return 0;
+        }
+        long union = (long) (n - SHINGLE + 1) + (m - SHINGLE + 1) - shared;
+        return (double) shared / union;
+    }
+
+    private static double estimate(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / HASHES;
+    }
+
+    private int[] signature(byte[] bytes) {
+        int[] signature = signatures.get(bytes);
+        if (signature != null) {
+            return signature;
+        }
+        signature = new int[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            signature[i] = Integer.MAX_VALUE;
+        }
+        for (int i = 0; i + SHINGLE <= bytes.length; i++) {
+            int shingle = (bytes[i] & 0xff) | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff) << 16 | (bytes[i + 3] & 0xff) << 24;
+            for (int h = 0; h < HASHES; h++) {
+                int value = mix(shingle * SEEDS[h]);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        signatures.put(bytes, signature);
+        return signature;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
@@ -0,0 +1,46 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.similarity;
+
+/**
+ * {@link SimilarityEngine} 序列化数据的相似度计算
+ * <p>
+ * 相似度定义为{@code 1 - 编辑距离 / 较长的长度}，在原始序列化字节上计算
+ * <p>
+ * 调用方给出需要达到的相似度阈值，实现可以在确定达不到阈值时提前结束，此时返回一个小于阈值的估计值
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public interface SimilarityEngine {
+
+    /**
+     * 获取相似度计算的类型
+     *
+     * @return 类型
+     */
+    Type type();
+
+    /**
+     * 计算相似度
+     *
+     * @param origin    录制的数据
+     * @param target    当前的数据
+     * @param threshold 需要达到的相似度阈值
+     * @return 相似度；不小于threshold时为精确值
+     */
+    double similarity(byte[] origin, byte[] target, double threshold);
+
+    enum Type {
+        /**
+         * 完整的编辑距离计算
+         */
+        LEVENSHTEIN,
+        /**
+         * 按阈值限定带宽的编辑距离，达不到阈值时提前结束
+         */
+        BANDED,
+        /**
+         * 先用MinHash估计排除明显不相似的数据，再做带宽编辑距离
+         */
+        MINHASH,
+    }
+}
@@ -0,0 +1,65 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.similarity;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.similarity.SimilarityEngine.Type;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
+
+import org.apache.commons.lang3.EnumUtils;
+
+/**
+ * {@link SimilarityEngineProvider} 提供相似度计算实现
+ * <p>
+ * 默认使用{@link Constants#REPEAT_MOCK_SIMILARITY_ENGINE}配置的实现，未配置时使用{@link Type#BANDED}
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class SimilarityEngineProvider {
+
+    private volatile Map<Type, SimilarityEngine> supplier = new HashMap<Type, SimilarityEngine>();
+
+    private final Type defaultType;
+
+    private static SimilarityEngineProvider instance = new SimilarityEngineProvider();
+
+    public static SimilarityEngineProvider instance() {
+        return instance;
+    }
+
+    private SimilarityEngineProvider() {
+        ServiceLoader<SimilarityEngine> engines = ServiceLoader.load(SimilarityEngine.class, this.getClass().getClassLoader());
+        Iterator<SimilarityEngine> iterator = engines.iterator();
+        while (iterator.hasNext()) {
+            SimilarityEngine next = iterator.next();
+            supplier.put(next.type(), next);
+        }
+        Type configured = EnumUtils.getEnum(Type.class,
+            PropertyUtil.getPropertyOrDefault(Constants.REPEAT_MOCK_SIMILARITY_ENGINE, Type.BANDED.name()).toUpperCase());
+        this.defaultType = configured == null ? Type.BANDED : configured;
+    }
+
+    /**
+     * 提供配置的相似度计算实现
+     *
+     * @return 相似度计算
+     */
+    public SimilarityEngine provide() {
+        return provide(defaultType);
+    }
+
+    /**
+     * 提供指定类型的相似度计算实现
+     *
+     * @param type 类型
+     * @return 相似度计算
+     */
+    public SimilarityEngine provide(Type type) {
+        SimilarityEngine engine = supplier.get(type);
+        return engine == null ? supplier.get(Type.LEVENSHTEIN) : engine;
+    }
+}
@@ -0,0 +1,166 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * {@link SubInvocationCollector} 一次调用链路内的子调用收集器，挂在{@link TraceContext}上
+ * <p>
+ * 开启ttl时子调用可能在多个线程上同时完成，这里使用无锁链表追加；入口调用完成时{@link #drain()}一次性取出并关闭，之后到达的子调用直接丢弃
+ * <p>
+ * 单条链路的子调用数和字节数（已序列化部分）有上限，超过上限的子调用丢弃并计数
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class SubInvocationCollector {
+
+    private static final int maxCount = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SUB_INVOCATION_MAX_COUNT, ""), 2048);
+
+    private static final long maxBytes = NumberUtils.toLong(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SUB_INVOCATION_MAX_BYTES, ""), 16 * 1024 * 1024L);
+
+    private static final Node CLOSED = new Node(null, null);
+
+    private static final AtomicReferenceFieldUpdater<SubInvocationCollector, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(SubInvocationCollector.class, Node.class, "head");
+
+    private static final AtomicIntegerFieldUpdater<SubInvocationCollector> COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(SubInvocationCollector.class, "count");
+
+    private static final AtomicLongFieldUpdater<SubInvocationCollector> BYTES =
+            AtomicLongFieldUpdater.newUpdater(SubInvocationCollector.class, "bytes");
+
+    private static final AtomicIntegerFieldUpdater<SubInvocationCollector> OVERFLOW =
+            AtomicIntegerFieldUpdater.newUpdater(SubInvocationCollector.class, "overflow");
+
+    /**
+     * 全局超限丢弃数
+     */
+    private static final AtomicLong overflowTotal = new AtomicLong(0);
+
+    /**
+     * 全局迟到（入口已完成）丢弃数
+     */
+    private static final AtomicLong lateTotal = new AtomicLong(0);
+
+    private volatile Node head;
+
+    private volatile int count;
+
+    private volatile long bytes;
+
+    private volatile int overflow;
+
+    /**
+     * 追加一个子调用
+     *
+     * @param invocation 子调用
+     * @return 是否收集成功
+     */
+    public boolean add(Invocation invocation) {
+        if (head == CLOSED) {
+            lateTotal.incrementAndGet();
+            return false;
+        }
+        long size = sizeOf(invocation);
+        if (COUNT.incrementAndGet(this) > maxCount) {
+            COUNT.decrementAndGet(this);
+            return reject();
+        }
+        if (BYTES.addAndGet(this, size) > maxBytes) {
+            BYTES.addAndGet(this, -size);
+            COUNT.decrementAndGet(this);
+            return reject();
+        }
+        for (; ; ) {
+            Node current = head;
+            if (current == CLOSED) {
+                lateTotal.incrementAndGet();
+                return false;
+            }
+            if (HEAD.compareAndSet(this, current, new Node(invocation, current))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 取出所有子调用（按完成顺序）并关闭收集器
+     *
+     * @return 子调用；没有子调用返回null
+     */
+    public List<Invocation> drain() {
+        Node current = HEAD.getAndSet(this, CLOSED);
+        if (current == null || current == CLOSED) {
+            return null;
+        }
+        List<Invocation> invocations = new ArrayList<Invocation>(count);
+        for (Node node = current; node != null; node = node.next) {
+            invocations.add(node.invocation);
+        }
+        // 链表为头插，反转为完成顺序
+        for (int i = 0, j = invocations.size() - 1; i < j; i++, j--) {
+            invocations.set(i, invocations.set(j, invocations.get(i)));
+        }
+        return invocations;
+    }
+
+    /**
+     * 当前链路因超限丢弃的子调用数
+     *
+     * @return 丢弃数
+     */
+    public int getOverflow() {
+        return overflow;
+    }
+
+    public static long getOverflowTotal() {
+        return overflowTotal.get();
+    }
+
+    public static long getLateTotal() {
+        return lateTotal.get();
+    }
+
+    private boolean reject() {
+        OVERFLOW.incrementAndGet(this);
+        overflowTotal.incrementAndGet();
+        return false;
+    }
+
+    private static long sizeOf(Invocation invocation) {
+        long size = 0;
+        if (invocation.getRequestBytes() != null) {
+            size += invocation.getRequestBytes().length;
+        }
+        if (invocation.getResponseBytes() != null) {
+            size += invocation.getResponseBytes().length;
+        }
+        if (invocation.getThrowableBytes() != null) {
+            size += invocation.getThrowableBytes().length;
+        }
+        return size;
+    }
+
+    private static final class Node {
+
+        private final Invocation invocation;
+
+        private final Node next;
+
+        private Node(Invocation invocation, Node next) {
+            this.invocation = invocation;
+            this.next = next;
+        }
+    }
+}
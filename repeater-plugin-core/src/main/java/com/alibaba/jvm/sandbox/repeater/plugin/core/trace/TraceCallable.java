@@ -0,0 +1,47 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.trace;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link TraceCallable} 轻量的上下文传递；见{@link TraceRunnable}
+ *
+ * @author zhaoyb1990
+ * @see Tracer#isLightPropagation()
+ */
+public class TraceCallable<V> implements Callable<V> {
+
+    private final Callable<V> callable;
+
+    private final TraceContext context;
+
+    private TraceCallable(Callable<V> callable, TraceContext context) {
+        this.callable = callable;
+        this.context = context;
+    }
+
+    /**
+     * 包装任务
+     *
+     * @param callable 任务
+     * @param <V>      返回值类型
+     * @return 包装后的任务；当前没有调用上下文或已经包装过时返回原任务
+     */
+    public static <V> Callable<V> get(Callable<V> callable) {
+        if (callable == null || callable instanceof TraceCallable) {
+            return callable;
+        }
+        TraceContext context = Tracer.getContext();
+        return context == null ? callable : new TraceCallable<V>(callable, context);
+    }
+
+    @Override
+    public V call() throws Exception {
+        TraceContext backup = Tracer.getContext();
+        Tracer.resume(context);
+        try {
+            return callable.call();
+        } finally {
+            Tracer.resume(backup);
+        }
+    }
+}
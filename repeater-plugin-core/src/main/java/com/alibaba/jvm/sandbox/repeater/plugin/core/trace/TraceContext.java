@@ -2,13 +2,15 @@ package com.alibaba.jvm.sandbox.repeater.plugin.core.trace;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import com.alibaba.jvm.sandbox.repeater.plugin.core.model.ApplicationModel;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeatContext;
 
 import static com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceGenerator.getSampleBit;
 import static com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceGenerator.isValid;
-import static java.lang.Long.parseLong;
+import static java.lang.Integer.parseInt;
 
 /**
  * {@link TraceContext} 定义一个简单的上下文，用于串联一次完成调用
@@ -19,11 +21,24 @@ import static java.lang.Long.parseLong;
  */
 public class TraceContext {
 
+    private static final AtomicIntegerFieldUpdater<TraceContext> SEQUENCE =
+            AtomicIntegerFieldUpdater.newUpdater(TraceContext.class, "sequence");
+
     /**
-     * 唯一标识一次调用
+     * 唯一标识一次调用；透传的追踪ID不是{@link TraceId}格式时使用
      */
     private String traceId;
 
+    /**
+     * 数值形式的追踪ID；透传的追踪ID不是{@link TraceId}格式时为空
+     */
+    private final TraceId id;
+
+    /**
+     * 采样位，创建上下文时计算一次；追踪ID不合法时为-1
+     */
+    private final int sampleBits;
+
     /**
      * 调用发生时间
      */
@@ -44,13 +59,43 @@ public class TraceContext {
      */
     private Map<String, String> extra = new HashMap<String, String>();
 
-    TraceContext(String traceId) {
+    /**
+     * 子调用收集器；开启ttl时子线程持有同一个上下文，子调用直接汇聚到这里
+     */
+    private final SubInvocationCollector subInvocations = new SubInvocationCollector();
+
+    /**
+     * 子调用序列；开启ttl时子线程持有同一个上下文，序列在整个调用内唯一
+     */
+    private volatile int sequence;
+
+    /**
+     * 回放上下文；开启追踪时解析一次，非回放流量为空
+     */
+    private volatile RepeatContext repeatContext;
+
+    TraceContext(TraceId id, RepeatContext repeatContext) {
+        this.timestamp = System.currentTimeMillis();
+        this.id = id;
+        this.sampleBits = id.getSampleBits();
+        this.repeatContext = repeatContext;
+    }
+
+    TraceContext(String traceId, RepeatContext repeatContext) {
         this.timestamp = System.currentTimeMillis();
         this.traceId = traceId;
+        this.id = TraceId.parse(traceId);
+        this.sampleBits = id != null ? id.getSampleBits() : (isValid(traceId) ? parseInt(getSampleBit(traceId)) : -1);
+        this.repeatContext = repeatContext;
     }
 
     public String getTraceId() {
-        return traceId;
+        // 字符串由TraceId缓存，新生成的追踪ID在第一次读取时生成
+        return id != null ? id.toString() : traceId;
+    }
+
+    public TraceId getId() {
+        return id;
     }
 
     public long getTimestamp() {
@@ -73,6 +118,41 @@ public class TraceContext {
         this.sampled = sampled;
     }
 
+    /**
+     * 生成子调用序列，从1开始
+     *
+     * @return 序列
+     */
+    public int nextSequence() {
+        return SEQUENCE.incrementAndGet(this);
+    }
+
+    public SubInvocationCollector getSubInvocations() {
+        return subInvocations;
+    }
+
+    /**
+     * 是否回放流量；回放标识在一次调用内不会变化，直接读取上下文字段
+     *
+     * @return 是否回放流量
+     */
+    public boolean isRepeatFlow() {
+        return repeatContext != null;
+    }
+
+    public RepeatContext getRepeatContext() {
+        return repeatContext;
+    }
+
+    /**
+     * 绑定回放上下文；用于入口自身发起回放（如standalone模式下header透传回放）
+     *
+     * @param repeatContext 回放上下文
+     */
+    public void setRepeatContext(RepeatContext repeatContext) {
+        this.repeatContext = repeatContext;
+    }
+
     public InvokeType getInvokeType() {
         return invokeType;
     }
@@ -89,7 +169,7 @@ public class TraceContext {
     public boolean inTimeSample(InvokeType invokeType) {
         // 第一级入口流量才会计算采样；非自身入口类型直接抛弃
         if (this.invokeType == null || this.invokeType.equals(invokeType)) {
-            boolean sampled = isValid(traceId) && parseLong(getSampleBit(traceId)) % 10000 < ApplicationModel.instance().getSampleRate();
+            boolean sampled = sampleBits >= 0 && sampleBits % 10000 < ApplicationModel.instance().getSampleRate();
             this.invokeType = invokeType;
             this.sampled = sampled;
             return sampled;
@@ -5,28 +5,22 @@ import org.apache.commons.lang3.math.NumberUtils;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link TraceGenerator} 作为{@link TraceContext#traceId}的生成器
  * <p>
+ * 生成逻辑见{@link TraceId}
  *
  * @author zhaoyb1990
  */
 public class TraceGenerator {
 
-    private static AtomicInteger count = new AtomicInteger(10000);
-
-    private static String IP_COMPLETION = getCompletionIp();
+    static final String IP_COMPLETION = getCompletionIp();
 
     private static String END_FLAG = "ed";
 
     public static String generate() {
-        StringBuilder builder = new StringBuilder(32);
-        builder.append(IP_COMPLETION)
-                .append(System.currentTimeMillis())
-                .append(getNext()).append(END_FLAG);
-        return builder.toString();
+        return TraceId.generate().toString();
     }
 
     public static boolean isValid(String traceId) {
@@ -39,16 +33,6 @@ public class TraceGenerator {
         return NumberUtils.isDigits(traceId.substring(25, 30));
     }
 
-    private static Integer getNext() {
-        for (; ; ) {
-            int current = count.get();
-            int next = (current > 90000) ? 10000 : current + 1;
-            if (count.compareAndSet(current, next)) {
-                return next;
-            }
-        }
-    }
-
     /**
      * 补全IP为12位数字
      * <p>
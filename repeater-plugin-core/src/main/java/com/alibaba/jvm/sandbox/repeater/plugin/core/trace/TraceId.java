@@ -0,0 +1,182 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.trace;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TraceId} 数值形式的调用追踪ID
+ * <p>
+ * 字符串格式与原有格式保持一致：12位补全IP + 13位毫秒时间戳 + 5位序列 + "ed"，共32位；
+ * 内部用两个long保存（节点、时间戳*100000+序列），字符串在第一次使用时生成并缓存，未被采样的调用不需要生成字符串
+ * <p>
+ * 序列由各线程从全局计数器批量领取，生成时只访问线程本地数据；采样位即序列，直接从数值计算
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public final class TraceId {
+
+    private static final int LENGTH = 32;
+
+    private static final String END_FLAG = "ed";
+
+    private static final long SEQUENCE_FACTOR = 100000L;
+
+    private static final int SEQUENCE_MIN = 10000;
+
+    private static final int SEQUENCE_RANGE = 80000;
+
+    /**
+     * 每次领取的序列数，需要整除{@link #SEQUENCE_RANGE}
+     */
+    private static final int SEQUENCE_BLOCK = 64;
+
+    private static final int BLOCK_COUNT = SEQUENCE_RANGE / SEQUENCE_BLOCK;
+
+    private static final long NODE = parseNode(TraceGenerator.IP_COMPLETION);
+
+    private static final AtomicInteger blocks = new AtomicInteger(0);
+
+    private static final ThreadLocal<int[]> sequences = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            // [下一个序列, 本批结束位置)
+            return new int[2];
+        }
+    };
+
+    private final long node;
+
+    private final long timeSequence;
+
+    private volatile String value;
+
+    private TraceId(long node, long timeSequence, String value) {
+        this.node = node;
+        this.timeSequence = timeSequence;
+        this.value = value;
+    }
+
+    /**
+     * 生成一个新的追踪ID
+     *
+     * @return 追踪ID
+     */
+    public static TraceId generate() {
+        return new TraceId(NODE, System.currentTimeMillis() * SEQUENCE_FACTOR + nextSequence(), null);
+    }
+
+    /**
+     * 解析{@link #generate()}格式的追踪ID
+     *
+     * @param traceId 追踪ID字符串
+     * @return 追踪ID；格式不匹配返回null
+     */
+    public static TraceId parse(String traceId) {
+        if (traceId == null || traceId.length() != LENGTH || !traceId.endsWith(END_FLAG)) {
+            return null;
+        }
+        long node = 0;
+        long timeSequence = 0;
+        for (int i = 0; i < LENGTH - END_FLAG.length(); i++) {
+            char c = traceId.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            if (i < 12) {
+                node = node * 10 + (c - '0');
+            } else {
+                timeSequence = timeSequence * 10 + (c - '0');
+            }
+        }
+        return new TraceId(node, timeSequence, traceId);
+    }
+
+    public long getNode() {
+        return node;
+    }
+
+    public long getTimestamp() {
+        return timeSequence / SEQUENCE_FACTOR;
+    }
+
+    public int getSequence() {
+        return (int) (timeSequence % SEQUENCE_FACTOR);
+    }
+
+    /**
+     * 采样位，与字符串格式的第25~30位一致
+     *
+     * @return 采样位
+     */
+    public int getSampleBits() {
+        return getSequence();
+    }
+
+    @Override
+    public String toString() {
+        String current = value;
+        if (current == null) {
+            char[] chars = new char[LENGTH];
+            fill(chars, 0, 12, node);
+            fill(chars, 12, LENGTH - END_FLAG.length(), timeSequence);
+            chars[LENGTH - 2] = END_FLAG.charAt(0);
+            chars[LENGTH - 1] = END_FLAG.charAt(1);
+            current = new String(chars);
+            value = current;
+        }
+        return current;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TraceId)) {
+            return false;
+        }
+        TraceId other = (TraceId) o;
+        return node == other.node && timeSequence == other.timeSequence;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = node * 31 + timeSequence;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int nextSequence() {
+        int[] local = sequences.get();
+        if (local[0] == local[1]) {
+            int block = blocks.getAndIncrement() % BLOCK_COUNT;
+            if (block < 0) {
+                block += BLOCK_COUNT;
+            }
+            local[0] = SEQUENCE_MIN + block * SEQUENCE_BLOCK;
+            local[1] = local[0] + SEQUENCE_BLOCK;
+        }
+        return local[0]++;
+    }
+
+    private static void fill(char[] chars, int from, int to, long value) {
+        for (int i = to - 1; i >= from; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static long parseNode(String completionIp) {
+        if (completionIp == null || completionIp.length() != 12) {
+            return 127000000001L;
+        }
+        long node = 0;
+        for (int i = 0; i < completionIp.length(); i++) {
+            char c = completionIp.charAt(i);
+            if (c < '0' || c > '9') {
+                return 127000000001L;
+            }
+            node = node * 10 + (c - '0');
+        }
+        return node;
+    }
+}
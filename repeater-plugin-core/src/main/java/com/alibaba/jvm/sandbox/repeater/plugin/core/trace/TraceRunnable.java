@@ -0,0 +1,47 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.trace;
+
+/**
+ * {@link TraceRunnable} 轻量的上下文传递；提交任务时捕获当前调用上下文，执行时绑定到工作线程，执行完成后恢复
+ * <p>
+ * 与{@link com.alibaba.ttl.TtlRunnable}不同，这里只传递{@link TraceContext}一个值；提交时没有上下文的任务不做包装
+ * </p>
+ *
+ * @author zhaoyb1990
+ * @see Tracer#isLightPropagation()
+ */
+public class TraceRunnable implements Runnable {
+
+    private final Runnable runnable;
+
+    private final TraceContext context;
+
+    private TraceRunnable(Runnable runnable, TraceContext context) {
+        this.runnable = runnable;
+        this.context = context;
+    }
+
+    /**
+     * 包装任务
+     *
+     * @param runnable 任务
+     * @return 包装后的任务；当前没有调用上下文或已经包装过时返回原任务
+     */
+    public static Runnable get(Runnable runnable) {
+        if (runnable == null || runnable instanceof TraceRunnable) {
+            return runnable;
+        }
+        TraceContext context = Tracer.getContext();
+        return context == null ? runnable : new TraceRunnable(runnable, context);
+    }
+
+    @Override
+    public void run() {
+        TraceContext backup = Tracer.getContext();
+        Tracer.resume(context);
+        try {
+            runnable.run();
+        } finally {
+            Tracer.resume(backup);
+        }
+    }
+}
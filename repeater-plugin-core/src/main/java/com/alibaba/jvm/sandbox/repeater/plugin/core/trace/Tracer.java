@@ -1,6 +1,9 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.core.trace;
 
-import com.alibaba.jvm.sandbox.repeater.plugin.core.model.ApplicationModel;
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RepeatCache;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeatContext;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeaterConfig;
 import com.alibaba.ttl.TransmittableThreadLocal;
 import org.slf4j.Logger;
@@ -13,6 +16,9 @@ import org.slf4j.LoggerFactory;
  * <p>
  * 如果不开启{@link RepeaterConfig#useTtl}，只能录制到单线程的子调用信息
  * <p>
+ * 上下文载体在配置生效时{@link #configure(RepeaterConfig)}确定，事件处理路径上不再读取配置；
+ * {@link Constants#TRACE_PROPAGATION_MODE}为light时使用普通ThreadLocal，只对注册的线程池通过{@link TraceRunnable}/{@link TraceCallable}传递上下文
+ * <p>
  * 由于上下文信息是从entrance插件开启{@code Tracer.start()}，必须在entrance插件进行关闭({@code Tracer.end()})，否则会出现上下文错乱问题
  * </p>
  *
@@ -27,6 +33,45 @@ public class Tracer {
 
     private static ThreadLocal<TraceContext> normalContext = new ThreadLocal<TraceContext>();
 
+    private static final boolean lightPropagation = "light".equalsIgnoreCase(PropertyUtil.getPropertyOrDefault(Constants.TRACE_PROPAGATION_MODE, "ttl"));
+
+    /**
+     * 当前使用的上下文载体；配置生效前使用普通ThreadLocal
+     */
+    private static volatile ThreadLocal<TraceContext> carrier = normalContext;
+
+    private static volatile boolean configured;
+
+    /**
+     * 运行期切换过载体；切换前开启的追踪可能残留在旧载体上，结束追踪时需要两个载体都清理
+     */
+    private static volatile boolean switched;
+
+    /**
+     * 根据配置确定上下文载体；配置推送时调用
+     *
+     * @param config 配置
+     * @see com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeaterConfig#useTtl
+     */
+    public static synchronized void configure(RepeaterConfig config) {
+        ThreadLocal<TraceContext> target = config != null && config.isUseTtl() && !lightPropagation ? ttlContext : normalContext;
+        if (configured && target != carrier) {
+            switched = true;
+            log.info("[Tracer] context carrier switched,useTtl={}", config != null && config.isUseTtl());
+        }
+        carrier = target;
+        configured = true;
+    }
+
+    /**
+     * 是否使用轻量的上下文传递方式
+     *
+     * @return true / false
+     */
+    public static boolean isLightPropagation() {
+        return lightPropagation;
+    }
+
     /**
      * 开启追踪一次调用，非线程安全
      *
@@ -38,41 +83,60 @@ public class Tracer {
 
     /**
      * 开启追踪一次调用，非线程安全
+     * <p>
+     * 透传了traceId时在这里查询一次{@link RepeatCache}，回放上下文绑定到调用上下文上，之后的回放判断只读取上下文字段
      *
      * @param traceId 调用唯一
      * @return 调用上下文
      */
     public static TraceContext start(String traceId) {
-        TraceContext context = Tracer.getContextCarrie().get();
+        TraceContext context = carrier.get();
         if (context != null) {
             return context;
         }
-        if (!TraceGenerator.isValid(traceId)) {
-            traceId = TraceGenerator.generate();
+        if (TraceGenerator.isValid(traceId)) {
+            context = new TraceContext(traceId, RepeatCache.getRepeatContext(traceId));
+        } else {
+            // 新生成的追踪ID在第一次使用时才生成字符串
+            context = new TraceContext(TraceId.generate(), null);
         }
-        context = new TraceContext(traceId);
         if(log.isDebugEnabled()){
             log.debug("[Tracer] start trace success,traceId={},timestamp={}", context.getTraceId(), context.getTimestamp());
         }
-        Tracer.getContextCarrie().set(context);
+        carrier.set(context);
         return context;
     }
 
+    /**
+     * 将已有的上下文绑定到当前线程；用于异步回调线程上恢复入口的上下文
+     *
+     * @param context 调用上下文；为空时清理当前线程的上下文
+     */
+    public static void resume(TraceContext context) {
+        if (context == null) {
+            carrier.remove();
+        } else {
+            carrier.set(context);
+        }
+    }
+
     /**
      * 获取当前上下文
      *
      * @return TraceContext
      */
     public static TraceContext getContext() {
-        return Tracer.getContextCarrie().get();
+        return carrier.get();
     }
 
     public static String getExtra(String key) {
-        return getContext() == null ? null : getContext().getExtra(key);
+        TraceContext context = carrier.get();
+        return context == null ? null : context.getExtra(key);
     }
 
     public static String putExtra(String key, String value) {
-        return getContext() == null ? null : getContext().putExtra(key, value);
+        TraceContext context = carrier.get();
+        return context == null ? null : context.putExtra(key, value);
     }
 
     /**
@@ -81,7 +145,28 @@ public class Tracer {
      * @return 调用追踪ID
      */
     public static String getTraceId() {
-        return Tracer.getContextCarrie().get() == null ? null : Tracer.getContextCarrie().get().getTraceId();
+        TraceContext context = carrier.get();
+        return context == null ? null : context.getTraceId();
+    }
+
+    /**
+     * 当前调用是否回放流量
+     *
+     * @return 是否回放流量
+     */
+    public static boolean isRepeatFlow() {
+        TraceContext context = carrier.get();
+        return context != null && context.isRepeatFlow();
+    }
+
+    /**
+     * 获取当前调用的回放上下文
+     *
+     * @return 回放上下文；非回放流量返回空
+     */
+    public static RepeatContext getRepeatContext() {
+        TraceContext context = carrier.get();
+        return context == null ? null : context.getRepeatContext();
     }
 
     /**
@@ -92,16 +177,9 @@ public class Tracer {
         if (context != null && log.isDebugEnabled()) {
             log.debug("[Tracer] stop  trace success,type={},traceId={},cost={}ms", context.getInvokeType(), context.getTraceId(), System.currentTimeMillis() - context.getTimestamp());
         }
-        getContextCarrie().remove();
-    }
-
-    /**
-     * 根据用户是否开启ttl选择合适的载体
-     *
-     * @return 上下文threadLocal载体
-     * @see com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeaterConfig#useTtl
-     */
-    private static ThreadLocal<TraceContext> getContextCarrie() {
-        return ApplicationModel.instance().getConfig().isUseTtl() ? ttlContext : normalContext;
+        carrier.remove();
+        if (switched) {
+            (carrier == ttlContext ? normalContext : ttlContext).remove();
+        }
     }
 }
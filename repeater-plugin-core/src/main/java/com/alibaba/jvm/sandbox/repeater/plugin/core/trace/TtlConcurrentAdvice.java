@@ -8,10 +8,14 @@ import com.alibaba.jvm.sandbox.api.listener.ext.AdviceAdapterListener;
 import com.alibaba.jvm.sandbox.api.listener.ext.AdviceListener;
 import com.alibaba.jvm.sandbox.api.listener.ext.EventWatchBuilder;
 import com.alibaba.jvm.sandbox.api.resource.ModuleEventWatcher;
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RepeaterConfig;
 import com.alibaba.ttl.TtlCallable;
 import com.alibaba.ttl.TtlRunnable;
 
+import org.apache.commons.lang3.StringUtils;
+
 
 /**
  * {@link TtlConcurrentAdvice} {@code TransmittableThreadLocal} 多线程适配
@@ -24,6 +28,8 @@ import com.alibaba.ttl.TtlRunnable;
  *
  * {@link TtlConcurrentAdvice} 提供了类似的思路，基于jvm-sandbox的动态编织能力，对concurrent包下的并发处理器进行增强，包装成Ttl类
  *
+ * light传递方式下只增强{@link Constants#TRACE_PROPAGATION_EXECUTORS}注册的线程池类，包装成{@link TraceRunnable}/{@link TraceCallable}
+ *
  * </p>
  *
  * @author zhaoyb1990
@@ -48,6 +54,10 @@ public class TtlConcurrentAdvice {
     }
 
     public synchronized void watch(RepeaterConfig config) {
+        if (config != null && config.isUseTtl() && Tracer.isLightPropagation()) {
+            watchRegistered();
+            return;
+        }
         if (config != null && config.isUseTtl()) {
             new EventWatchBuilder(watcher)
                 .onClass("java.util.concurrent.ThreadPoolExecutor").includeBootstrap()
@@ -79,4 +89,44 @@ public class TtlConcurrentAdvice {
                 }), Type.BEFORE, Type.RETURN, Type.THROWS);
         }
     }
+
+    /**
+     * 只增强注册的线程池类，使用轻量包装传递上下文
+     */
+    private void watchRegistered() {
+        String executors = PropertyUtil.getPropertyOrDefault(Constants.TRACE_PROPAGATION_EXECUTORS,
+            "java.util.concurrent.ThreadPoolExecutor,java.util.concurrent.ScheduledThreadPoolExecutor");
+        for (String executor : StringUtils.split(executors, ",")) {
+            if (StringUtils.isBlank(executor)) {
+                continue;
+            }
+            new EventWatchBuilder(watcher)
+                .onClass(executor.trim()).includeBootstrap()
+                .onBehavior("execute")
+                .onBehavior("submit")
+                .onBehavior("schedule")
+                .onBehavior("scheduleAtFixedRate")
+                .onBehavior("scheduleWithFixedDelay")
+                .onWatch(newTraceListener(), Type.BEFORE, Type.RETURN, Type.THROWS);
+        }
+    }
+
+    private AdviceAdapterListener newTraceListener() {
+        return new AdviceAdapterListener(new AdviceListener() {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected void before(Advice advice) throws Throwable {
+                final Object[] parameterArray = advice.getParameterArray();
+                final Class<?>[] parameterTypeArray = advice.getBehavior().getParameterTypes();
+                if (parameterArray == null || parameterArray.length < 1) {return;}
+                Class<?> parameter0Type = parameterTypeArray[0];
+                if (parameter0Type.isAssignableFrom(Runnable.class) && parameterArray[0] instanceof Runnable) {
+                    parameterArray[0] = TraceRunnable.get((Runnable) parameterArray[0]);
+                }
+                if (parameter0Type.isAssignableFrom(Callable.class) && parameterArray[0] instanceof Callable) {
+                    parameterArray[0] = TraceCallable.get((Callable) parameterArray[0]);
+                }
+            }
+        });
+    }
 }
@@ -0,0 +1,217 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.util;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link AccessorCache} 反射访问缓存
+ * <p>
+ * 插件处理器在业务线程上通过反射读取框架对象（http请求、dubbo调用、mybatis命令等），{@link MethodUtils}每次调用都会重新查找方法；
+ * 这里按（类，成员名，参数类型）缓存查找结果，查找规则与{@link MethodUtils}/{@link FieldUtils}一致，缓存的成员预先设置可访问
+ * <p>
+ * 缓存以类为弱引用key、每个类的成员表为软引用value；缓存的{@link Method}/{@link Field}引用所属类，
+ * 成员表存活期间类及其类加载器不能卸载，要等到GC在内存紧张时清除软引用后才能卸载
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class AccessorCache {
+
+    private final static Object NOT_FOUND = new Object();
+
+    private final static LoadingCache<Class<?>, ConcurrentMap<Signature, Object>> CACHE = CacheBuilder.newBuilder()
+            .weakKeys()
+            .softValues()
+            .build(new CacheLoader<Class<?>, ConcurrentMap<Signature, Object>>() {
+                @Override
+                public ConcurrentMap<Signature, Object> load(Class<?> key) throws Exception {
+                    return new ConcurrentHashMap<Signature, Object>(16);
+                }
+            });
+
+    /**
+     * 调用实例方法，等同于{@link MethodUtils#invokeMethod(Object, String, Object...)}
+     *
+     * @param object     目标对象
+     * @param methodName 方法名
+     * @param args       参数
+     * @return 返回值
+     * @throws NoSuchMethodException     方法不存在
+     * @throws IllegalAccessException    无法访问
+     * @throws InvocationTargetException 方法抛出异常
+     */
+    public static Object invokeMethod(Object object, String methodName, Object... args)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        args = ArrayUtils.nullToEmpty(args);
+        Method method = getAccessibleMethod(object.getClass(), methodName, ClassUtils.toClass(args));
+        if (method.isVarArgs()) {
+            return MethodUtils.invokeMethod(object, methodName, args);
+        }
+        return method.invoke(object, args);
+    }
+
+    /**
+     * 调用静态方法，等同于{@link MethodUtils#invokeStaticMethod(Class, String, Object...)}
+     *
+     * @param clazz      目标类
+     * @param methodName 方法名
+     * @param args       参数
+     * @return 返回值
+     * @throws NoSuchMethodException     方法不存在
+     * @throws IllegalAccessException    无法访问
+     * @throws InvocationTargetException 方法抛出异常
+     */
+    public static Object invokeStaticMethod(Class<?> clazz, String methodName, Object... args)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        args = ArrayUtils.nullToEmpty(args);
+        return invokeStaticMethod(clazz, methodName, args, ClassUtils.toClass(args));
+    }
+
+    /**
+     * 调用静态方法，等同于{@link MethodUtils#invokeStaticMethod(Class, String, Object[], Class[])}
+     *
+     * @param clazz          目标类
+     * @param methodName     方法名
+     * @param args           参数
+     * @param parameterTypes 参数类型
+     * @return 返回值
+     * @throws NoSuchMethodException     方法不存在
+     * @throws IllegalAccessException    无法访问
+     * @throws InvocationTargetException 方法抛出异常
+     */
+    public static Object invokeStaticMethod(Class<?> clazz, String methodName, Object[] args, Class<?>[] parameterTypes)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        args = ArrayUtils.nullToEmpty(args);
+        Method method = getAccessibleMethod(clazz, methodName, ArrayUtils.nullToEmpty(parameterTypes));
+        if (method.isVarArgs()) {
+            return MethodUtils.invokeStaticMethod(clazz, methodName, args, parameterTypes);
+        }
+        return method.invoke(null, args);
+    }
+
+    /**
+     * 查找方法，等同于{@link MethodUtils#getMatchingMethod(Class, String, Class[])}
+     *
+     * @param clazz          目标类
+     * @param methodName     方法名
+     * @param parameterTypes 参数类型
+     * @return 方法；不存在返回null
+     */
+    public static Method getMatchingMethod(Class<?> clazz, String methodName, Class<?>... parameterTypes) {
+        Signature signature = new Signature(Signature.MATCHING, methodName, ArrayUtils.nullToEmpty(parameterTypes));
+        ConcurrentMap<Signature, Object> members = CACHE.getUnchecked(clazz);
+        Object member = members.get(signature);
+        if (member == null) {
+            member = accessible(MethodUtils.getMatchingMethod(clazz, methodName, signature.parameterTypes));
+            members.putIfAbsent(signature, member);
+        }
+        return member == NOT_FOUND ? null : (Method) member;
+    }
+
+    /**
+     * 查找类自身声明的字段并设置可访问，等同于{@code FieldUtils.getDeclaredField(clazz, fieldName, true)}
+     *
+     * @param clazz     目标类
+     * @param fieldName 字段名
+     * @return 字段；不存在返回null
+     */
+    public static Field getDeclaredField(Class<?> clazz, String fieldName) {
+        Signature signature = new Signature(Signature.FIELD, fieldName, ArrayUtils.EMPTY_CLASS_ARRAY);
+        ConcurrentMap<Signature, Object> members = CACHE.getUnchecked(clazz);
+        Object member = members.get(signature);
+        if (member == null) {
+            member = accessible(FieldUtils.getDeclaredField(clazz, fieldName, true));
+            members.putIfAbsent(signature, member);
+        }
+        return member == NOT_FOUND ? null : (Field) member;
+    }
+
+    private static Method getAccessibleMethod(Class<?> clazz, String methodName, Class<?>[] parameterTypes) throws NoSuchMethodException {
+        Signature signature = new Signature(Signature.ACCESSIBLE, methodName, parameterTypes);
+        ConcurrentMap<Signature, Object> members = CACHE.getUnchecked(clazz);
+        Object member = members.get(signature);
+        if (member == null) {
+            Method method = MethodUtils.getMatchingAccessibleMethod(clazz, methodName, parameterTypes);
+            if (method != null && !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                // 非public类上的public方法尽量换成public接口/父类上的声明，避免setAccessible受限时无法调用
+                Method declared = MethodUtils.getAccessibleMethod(method);
+                method = declared == null ? method : declared;
+            }
+            member = accessible(method);
+            members.putIfAbsent(signature, member);
+        }
+        if (member == NOT_FOUND) {
+            throw new NoSuchMethodException("No such accessible method: " + methodName + "() on object: " + clazz.getName());
+        }
+        return (Method) member;
+    }
+
+    /**
+     * 预先关闭访问检查；失败时（如安全管理器或模块访问限制）仍使用原成员
+     */
+    private static Object accessible(AccessibleObject member) {
+        if (member == null) {
+            return NOT_FOUND;
+        }
+        try {
+            member.setAccessible(true);
+        } catch (RuntimeException e) {
+            // ignore
+        }
+        return member;
+    }
+
+    private static final class Signature {
+
+        private final static int ACCESSIBLE = 0;
+        private final static int MATCHING = 1;
+        private final static int FIELD = 2;
+
+        private final int kind;
+
+        private final String name;
+
+        private final Class<?>[] parameterTypes;
+
+        private final int hash;
+
+        private Signature(int kind, String name, Class<?>[] parameterTypes) {
+            this.kind = kind;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.hash = (name.hashCode() * 31 + Arrays.hashCode(parameterTypes)) * 31 + kind;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) obj;
+            return hash == other.hash && kind == other.kind && name.equals(other.name)
+                    && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+    }
+}
@@ -326,6 +326,29 @@ public class HttpUtil {
         return executeRequest(rb.build(), 0);
     }
 
+    /**
+     * Post方法请求，发送二进制body
+     *
+     * @param url         url地址
+     * @param headers     请求头
+     * @param contentType 内容类型
+     * @param body        请求body
+     * @return resp
+     */
+    public static Resp invokePostBody(String url,
+                                      Map<String, String> headers,
+                                      String contentType,
+                                      byte[] body) {
+        RequestBody b = RequestBody.create(MediaType.parse(contentType), body);
+        Request.Builder rb = new Request.Builder().post(b).url(url);
+        if (MapUtils.isNotEmpty(headers)) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                rb.header(entry.getKey(), entry.getValue());
+            }
+        }
+        return executeRequest(rb.build(), 0);
+    }
+
     /**
      * 执行request
      *
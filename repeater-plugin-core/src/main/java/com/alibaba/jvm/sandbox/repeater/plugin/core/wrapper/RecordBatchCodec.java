@@ -0,0 +1,108 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializeException;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * {@link RecordBatchCodec} 批量录制消息的编解码
+ * <p>
+ * 帧格式（整体gzip压缩）：
+ * <pre>
+ * | magic(int) | version(byte) | count(int) | length(int) | payload(byte[length]) | ... |
+ * </pre>
+ * 每个payload是一条{@link RecordWrapper}的hessian序列化结果；agent与console共用该实现
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class RecordBatchCodec {
+
+    private static final int MAGIC = 0x52504254;
+
+    private static final byte VERSION = 1;
+
+    /**
+     * 单条payload上限，防止脏数据导致一次性分配过大数组
+     */
+    private static final int MAX_PAYLOAD_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * 编码批量消息
+     *
+     * @param payloads 序列化后的录制消息
+     * @return 压缩后的帧
+     * @throws SerializeException 序列化异常
+     */
+    public static byte[] encode(List<byte[]> payloads) throws SerializeException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new GZIPOutputStream(bos));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(payloads.size());
+            for (byte[] payload : payloads) {
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            out.close();
+            return bos.toByteArray();
+        } catch (Exception e) {
+            throw new SerializeException("[Error-1004]-encode record batch error", e);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * 解码批量消息
+     *
+     * @param frame 压缩后的帧
+     * @return 每条录制消息的序列化结果
+     * @throws SerializeException 序列化异常
+     */
+    public static List<byte[]> decode(byte[] frame) throws SerializeException {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(frame)));
+            if (in.readInt() != MAGIC) {
+                throw new SerializeException("[Error-1003]-invalid record batch frame, magic mismatch");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new SerializeException("[Error-1003]-unsupported record batch version " + version);
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                throw new SerializeException("[Error-1003]-invalid record batch count " + count);
+            }
+            List<byte[]> payloads = new ArrayList<byte[]>(Math.min(count, 1024));
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_PAYLOAD_LENGTH) {
+                    throw new SerializeException("[Error-1003]-invalid record batch payload length " + length);
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                payloads.add(payload);
+            }
+            return payloads;
+        } catch (SerializeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializeException("[Error-1003]-decode record batch error", e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.alibaba.jvm.sandbox.repeater.plugin.core.serialize.SerializerProvider
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
 
+import com.google.common.io.BaseEncoding;
+
 /**
  * {@link SerializerWrapper} 序列化工具；目标能够直接序列化{@link RecordModel}
  * <p>
@@ -63,6 +65,42 @@ public class SerializerWrapper {
         return provider.provide(Type.HESSIAN).serialize2String(object, classLoader);
     }
 
+    /**
+     * hessian序列化到byte数组（不做base64编码）
+     *
+     * @param object 对象
+     * @return 序列化后的byte数组
+     * @throws SerializeException 序列化异常
+     */
+    public static byte[] hessianSerializeBytes(Object object) throws SerializeException {
+        return provider.provide(Type.HESSIAN).serialize(object);
+    }
+
+    /**
+     * hessian序列化到byte数组（不做base64编码）
+     *
+     * @param object      对象
+     * @param classLoader 类加载器
+     * @return 序列化后的byte数组
+     * @throws SerializeException 序列化异常
+     */
+    public static byte[] hessianSerializeBytes(Object object, ClassLoader classLoader) throws SerializeException {
+        return provider.provide(Type.HESSIAN).serialize(object, classLoader);
+    }
+
+    /**
+     * hessian反序列化byte数组
+     *
+     * @param bytes  序列化后的byte数组
+     * @param tClass 对象类型
+     * @param <T>    泛型对象
+     * @return 反序列化后的对象
+     * @throws SerializeException 序列化异常
+     */
+    public static <T> T hessianDeserialize(byte[] bytes, Class<T> tClass) throws SerializeException {
+        return provider.provide(Type.HESSIAN).deserialize(bytes, tClass);
+    }
+
     /**
      * hessian反序列化
      *
@@ -88,22 +126,51 @@ public class SerializerWrapper {
     }
 
     /**
-     * 及时序列化
+     * hessian反序列化byte数组
+     *
+     * @param bytes       序列化后的byte数组
+     * @param tClass      对象类型
+     * @param classLoader 类加载器
+     * @param <T>         泛型对象
+     * @return 反序列化后的对象
+     * @throws SerializeException 序列化异常
+     */
+    public static <T> T hessianDeserialize(byte[] bytes, Class<T> tClass, ClassLoader classLoader) throws SerializeException {
+        return bytes == null ? null : provider.provide(Type.HESSIAN).deserialize(bytes, tClass, classLoader);
+    }
+
+    /**
+     * 及时序列化；结果以二进制写入{@link Invocation#getRequestBytes()}等字段，不再做base64编码
      *
      * @param invocation 调用信息
      */
     public static void inTimeSerialize(Invocation invocation) throws SerializeException {
-        if (invocation.getResponse() != null && invocation.getResponseSerialized() == null) {
-            invocation.setResponseSerialized(provider.provide(Type.HESSIAN)
-                    .serialize2String(invocation.getResponse(), invocation.getClassLoader()));
+        if (invocation.getResponse() != null && !isResponseSerialized(invocation)) {
+            invocation.setResponseBytes(provider.provide(Type.HESSIAN)
+                    .serialize(invocation.getResponse(), invocation.getClassLoader()));
         }
-        if (invocation.getRequest() != null && invocation.getRequestSerialized() == null) {
-            invocation.setRequestSerialized(provider.provide(Type.HESSIAN)
-                    .serialize2String(invocation.getRequest(), invocation.getClassLoader()));
+        if (invocation.getRequest() != null && !isRequestSerialized(invocation)) {
+            invocation.setRequestBytes(provider.provide(Type.HESSIAN)
+                    .serialize(invocation.getRequest(), invocation.getClassLoader()));
         }
-        if (invocation.getThrowable() != null && invocation.getThrowableSerialized() == null) {
-            invocation.setThrowableSerialized(provider.provide(Type.HESSIAN)
-                    .serialize2String(invocation.getThrowable(), invocation.getClassLoader()));
+        if (invocation.getThrowable() != null && !isThrowableSerialized(invocation)) {
+            invocation.setThrowableBytes(provider.provide(Type.HESSIAN)
+                    .serialize(invocation.getThrowable(), invocation.getClassLoader()));
+        }
+    }
+
+    /**
+     * 序列化录制消息中尚未序列化的调用（快照模式下由投递线程调用）
+     *
+     * @param recordModel 录制消息
+     * @throws SerializeException 序列化异常
+     */
+    public static void inTimeSerialize(RecordModel recordModel) throws SerializeException {
+        inTimeSerialize(recordModel.getEntranceInvocation());
+        if (recordModel.getSubInvocations() != null) {
+            for (Invocation invocation : recordModel.getSubInvocations()) {
+                inTimeSerialize(invocation);
+            }
         }
     }
 
@@ -113,17 +180,63 @@ public class SerializerWrapper {
      * @param invocation 调用信息
      */
     public static void inTimeDeserialize(Invocation invocation) throws SerializeException {
-        if (invocation.getRequest() == null && invocation.getRequestSerialized() != null) {
-            invocation.setRequest((Object[]) provider.provide(Type.HESSIAN).deserialize(invocation.getRequestSerialized(), null,
+        if (invocation.getRequest() == null && isRequestSerialized(invocation)) {
+            invocation.setRequest((Object[]) provider.provide(Type.HESSIAN).deserialize(getRequestBytes(invocation), null,
                     ClassloaderBridge.instance().decode(invocation.getSerializeToken())));
         }
-        if (invocation.getResponse() == null && invocation.getResponseSerialized() != null) {
-            invocation.setResponse(provider.provide(Type.HESSIAN).deserialize(invocation.getResponseSerialized(), null,
+        if (invocation.getResponse() == null && isResponseSerialized(invocation)) {
+            invocation.setResponse(provider.provide(Type.HESSIAN).deserialize(getResponseBytes(invocation), null,
                     ClassloaderBridge.instance().decode(invocation.getSerializeToken())));
         }
-        if (invocation.getThrowable() == null && invocation.getThrowableSerialized() != null) {
-            invocation.setThrowable((Throwable) provider.provide(Type.HESSIAN).deserialize(invocation.getThrowableSerialized(), null,
+        if (invocation.getThrowable() == null && isThrowableSerialized(invocation)) {
+            invocation.setThrowable((Throwable) provider.provide(Type.HESSIAN).deserialize(getThrowableBytes(invocation), null,
                     ClassloaderBridge.instance().decode(invocation.getSerializeToken())));
         }
     }
+
+    /**
+     * 获取请求序列化后的二进制值；兼容旧版本base64字符串格式
+     *
+     * @param invocation 调用信息
+     * @return 二进制值；未序列化返回null
+     */
+    public static byte[] getRequestBytes(Invocation invocation) {
+        return invocation.getRequestBytes() != null ? invocation.getRequestBytes() : decode(invocation.getRequestSerialized());
+    }
+
+    /**
+     * 获取返回值序列化后的二进制值；兼容旧版本base64字符串格式
+     *
+     * @param invocation 调用信息
+     * @return 二进制值；未序列化返回null
+     */
+    public static byte[] getResponseBytes(Invocation invocation) {
+        return invocation.getResponseBytes() != null ? invocation.getResponseBytes() : decode(invocation.getResponseSerialized());
+    }
+
+    /**
+     * 获取异常序列化后的二进制值；兼容旧版本base64字符串格式
+     *
+     * @param invocation 调用信息
+     * @return 二进制值；未序列化返回null
+     */
+    public static byte[] getThrowableBytes(Invocation invocation) {
+        return invocation.getThrowableBytes() != null ? invocation.getThrowableBytes() : decode(invocation.getThrowableSerialized());
+    }
+
+    private static boolean isRequestSerialized(Invocation invocation) {
+        return invocation.getRequestBytes() != null || invocation.getRequestSerialized() != null;
+    }
+
+    private static boolean isResponseSerialized(Invocation invocation) {
+        return invocation.getResponseBytes() != null || invocation.getResponseSerialized() != null;
+    }
+
+    private static boolean isThrowableSerialized(Invocation invocation) {
+        return invocation.getThrowableBytes() != null || invocation.getThrowableSerialized() != null;
+    }
+
+    private static byte[] decode(String sequence) {
+        return sequence == null ? null : BaseEncoding.base64().decode(sequence);
+    }
 }
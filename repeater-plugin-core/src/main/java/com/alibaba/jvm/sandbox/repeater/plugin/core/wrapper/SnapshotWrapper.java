@@ -0,0 +1,235 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
+import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationProcessor;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.AbstractInvocationProcessor;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.PropertyUtil;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * {@link SnapshotWrapper} 快照录制；业务线程上只对入参/返回值做结构拷贝，序列化延迟到投递线程
+ * <p>
+ * 拷贝规则：不可变类型与基本类型包装类直接引用；数组、常用JDK容器、{@link Date}按原类型拷贝；其他业务对象直接引用
+ * <p>
+ * 超过{@link Constants#RECORD_SNAPSHOT_MAX_DEPTH}的层级直接引用；拷贝元素数超过{@link Constants#RECORD_SNAPSHOT_MAX_SIZE}时放弃快照，
+ * 由调用方退回到{@link SerializerWrapper#inTimeSerialize(Invocation)}
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class SnapshotWrapper {
+
+    private static final boolean enabled = Boolean.valueOf(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SNAPSHOT_MODE, "false"));
+
+    private static final int maxDepth = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SNAPSHOT_MAX_DEPTH, ""), 4);
+
+    private static final int maxSize = NumberUtils.toInt(PropertyUtil.getPropertyOrDefault(Constants.RECORD_SNAPSHOT_MAX_SIZE, ""), 1024);
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>();
+
+    static {
+        IMMUTABLE_TYPES.add(String.class);
+        IMMUTABLE_TYPES.add(Boolean.class);
+        IMMUTABLE_TYPES.add(Character.class);
+        IMMUTABLE_TYPES.add(Byte.class);
+        IMMUTABLE_TYPES.add(Short.class);
+        IMMUTABLE_TYPES.add(Integer.class);
+        IMMUTABLE_TYPES.add(Long.class);
+        IMMUTABLE_TYPES.add(Float.class);
+        IMMUTABLE_TYPES.add(Double.class);
+        IMMUTABLE_TYPES.add(BigInteger.class);
+        IMMUTABLE_TYPES.add(BigDecimal.class);
+        IMMUTABLE_TYPES.add(Class.class);
+        IMMUTABLE_TYPES.add(Locale.class);
+        IMMUTABLE_TYPES.add(UUID.class);
+    }
+
+    /**
+     * 是否开启快照录制模式
+     *
+     * @return true / false
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 对调用的入参/返回值做快照；已经做过快照的入参不再重复拷贝，异常对象直接引用
+     * <p>
+     * 返回false时调用方需要及时序列化
+     *
+     * @param invocation 调用
+     * @param processor  调用处理器
+     * @return 是否快照成功
+     */
+    public static boolean capture(Invocation invocation, InvocationProcessor processor) {
+        if (!enabled || !allowSnapshot(invocation, processor)) {
+            return false;
+        }
+        Budget budget = new Budget(maxSize);
+        Object[] request = invocation.getRequest();
+        // 入参已经做过快照或已经及时序列化，无需再拷贝
+        if (request != null && !invocation.isSnapshot() && invocation.getRequestBytes() == null) {
+            request = (Object[]) copy(request, 0, budget);
+        }
+        Object response = copy(invocation.getResponse(), 0, budget);
+        if (budget.overflow) {
+            invocation.setSnapshot(false);
+            return false;
+        }
+        invocation.setRequest(request);
+        invocation.setResponse(response);
+        invocation.setSnapshot(true);
+        return true;
+    }
+
+    /**
+     * 快照开关挂在{@link AbstractInvocationProcessor}上，不扩展{@link InvocationProcessor}接口；未继承抽象类的处理器默认允许快照
+     */
+    private static boolean allowSnapshot(Invocation invocation, InvocationProcessor processor) {
+        return !(processor instanceof AbstractInvocationProcessor)
+                || ((AbstractInvocationProcessor) processor).snapshotCapture(invocation);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copy(Object origin, int depth, Budget budget) {
+        if (origin == null || budget.overflow || depth > maxDepth) {
+            return origin;
+        }
+        Class<?> clazz = origin.getClass();
+        if (IMMUTABLE_TYPES.contains(clazz) || origin instanceof Enum) {
+            return origin;
+        }
+        if (clazz.isArray()) {
+            return copyArray(origin, depth, budget);
+        }
+        if (origin instanceof Date) {
+            return ((Date) origin).clone();
+        }
+        if (clazz == ArrayList.class) {
+            return copyElements((Collection<Object>) origin, new ArrayList<Object>(((Collection<Object>) origin).size()), depth, budget);
+        }
+        if (clazz == LinkedList.class) {
+            return copyElements((Collection<Object>) origin, new LinkedList<Object>(), depth, budget);
+        }
+        if (clazz == HashSet.class) {
+            return copyElements((Collection<Object>) origin, new HashSet<Object>(), depth, budget);
+        }
+        if (clazz == LinkedHashSet.class) {
+            return copyElements((Collection<Object>) origin, new LinkedHashSet<Object>(), depth, budget);
+        }
+        if (clazz == TreeSet.class) {
+            return copyElements((Collection<Object>) origin, new TreeSet<Object>(((TreeSet<Object>) origin).comparator()), depth, budget);
+        }
+        if (clazz == HashMap.class) {
+            return copyEntries((Map<Object, Object>) origin, new HashMap<Object, Object>(), depth, budget);
+        }
+        if (clazz == LinkedHashMap.class) {
+            return copyEntries((Map<Object, Object>) origin, new LinkedHashMap<Object, Object>(), depth, budget);
+        }
+        if (clazz == TreeMap.class) {
+            return copyEntries((Map<Object, Object>) origin, new TreeMap<Object, Object>(((TreeMap<Object, Object>) origin).comparator()), depth, budget);
+        }
+        // 业务对象及未知类型不做拷贝
+        return origin;
+    }
+
+    private static Object copyArray(Object origin, int depth, Budget budget) {
+        if (origin instanceof Object[]) {
+            Object[] array = ((Object[]) origin).clone();
+            if (budget.consume(array.length)) {
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = copy(array[i], depth + 1, budget);
+                }
+            }
+            return array;
+        }
+        // byte/char数组按64个元素计一次预算，避免报文类参数直接打满预算
+        if (origin instanceof byte[]) {
+            return budget.consume(((byte[]) origin).length >> 6) ? ((byte[]) origin).clone() : origin;
+        }
+        if (origin instanceof char[]) {
+            return budget.consume(((char[]) origin).length >> 6) ? ((char[]) origin).clone() : origin;
+        }
+        if (origin instanceof int[]) {
+            return budget.consume(((int[]) origin).length) ? ((int[]) origin).clone() : origin;
+        }
+        if (origin instanceof long[]) {
+            return budget.consume(((long[]) origin).length) ? ((long[]) origin).clone() : origin;
+        }
+        if (origin instanceof boolean[]) {
+            return budget.consume(((boolean[]) origin).length) ? ((boolean[]) origin).clone() : origin;
+        }
+        if (origin instanceof short[]) {
+            return budget.consume(((short[]) origin).length) ? ((short[]) origin).clone() : origin;
+        }
+        if (origin instanceof float[]) {
+            return budget.consume(((float[]) origin).length) ? ((float[]) origin).clone() : origin;
+        }
+        if (origin instanceof double[]) {
+            return budget.consume(((double[]) origin).length) ? ((double[]) origin).clone() : origin;
+        }
+        return origin;
+    }
+
+    private static Object copyElements(Collection<Object> origin, Collection<Object> target, int depth, Budget budget) {
+        if (!budget.consume(origin.size())) {
+            return origin;
+        }
+        for (Object element : origin) {
+            target.add(copy(element, depth + 1, budget));
+        }
+        return target;
+    }
+
+    private static Object copyEntries(Map<Object, Object> origin, Map<Object, Object> target, int depth, Budget budget) {
+        if (!budget.consume(origin.size())) {
+            return origin;
+        }
+        for (Map.Entry<Object, Object> entry : origin.entrySet()) {
+            target.put(copy(entry.getKey(), depth + 1, budget), copy(entry.getValue(), depth + 1, budget));
+        }
+        return target;
+    }
+
+    /**
+     * 单次快照的拷贝预算
+     */
+    private static class Budget {
+
+        private int remaining;
+
+        private boolean overflow;
+
+        private Budget(int remaining) {
+            this.remaining = remaining;
+        }
+
+        private boolean consume(int size) {
+            remaining -= size;
+            if (remaining < 0) {
+                overflow = true;
+            }
+            return !overflow;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * {@link ExpiringIntMap}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class ExpiringIntMapTest {
+
+    @Test
+    public void putGetRemove() {
+        ExpiringIntMap<String> map = new ExpiringIntMap<String>(4, 60000);
+        Map<Integer, String> expect = new HashMap<Integer, String>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(10000) - 5000;
+            switch (random.nextInt(3)) {
+                case 0:
+                    map.put(key, "v" + i);
+                    expect.put(key, "v" + i);
+                    break;
+                case 1:
+                    Assert.assertEquals(map.remove(key), expect.remove(key));
+                    break;
+                default:
+                    Assert.assertEquals(map.get(key), expect.get(key));
+                    break;
+            }
+        }
+        Assert.assertEquals(map.size(), expect.size());
+    }
+
+    @Test
+    public void expire() throws InterruptedException {
+        ExpiringIntMap<String> map = new ExpiringIntMap<String>(1, 50);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "expired");
+        }
+        Thread.sleep(100);
+        for (int i = 100; i < 200; i++) {
+            map.put(i, "live");
+        }
+        Assert.assertEquals(map.getExpiredCount(), 100L);
+        Assert.assertEquals(map.size(), 100);
+        Assert.assertNull(map.get(1));
+        Assert.assertEquals(map.get(150), "live");
+    }
+}
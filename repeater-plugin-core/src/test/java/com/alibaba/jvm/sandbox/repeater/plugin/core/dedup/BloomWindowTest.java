@@ -0,0 +1,83 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.dedup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Identity;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.RecordModel;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * {@link BloomWindow}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class BloomWindowTest {
+
+    @Test
+    public void suppressWithinWindow() {
+        BloomWindow window = new BloomWindow(8192, 1000);
+        long now = System.currentTimeMillis();
+        Assert.assertFalse(window.checkAndPut(42L, now));
+        Assert.assertTrue(window.checkAndPut(42L, now + 10));
+        // 轮换后上一代仍然生效
+        Assert.assertTrue(window.checkAndPut(42L, now + 1500));
+        // 两个窗口后放行
+        Assert.assertFalse(window.checkAndPut(42L, now + 3100));
+    }
+
+    @Test
+    public void falsePositiveRate() {
+        BloomWindow window = new BloomWindow(8192, 60000);
+        long now = System.currentTimeMillis();
+        int duplicates = 0;
+        // 容量内的不同指纹
+        for (long i = 0; i < 800; i++) {
+            if (window.checkAndPut(mix(i), now)) {
+                duplicates++;
+            }
+        }
+        Assert.assertTrue(duplicates < 16, "duplicates=" + duplicates);
+    }
+
+    @Test
+    public void shapeIgnoresValues() {
+        Assert.assertEquals(ShapeFingerprint.of(record("/user", "alice", 2)), ShapeFingerprint.of(record("/user", "bobby", 3)));
+        Assert.assertNotEquals(ShapeFingerprint.of(record("/user", "alice", 1)), ShapeFingerprint.of(record("/order", "alice", 1)));
+        Assert.assertNotEquals(ShapeFingerprint.of(record("/user", "alice", 1)), ShapeFingerprint.of(record("/user", "alice", 40)));
+        RecordModel withSub = record("/user", "alice", 1);
+        Invocation sub = new Invocation();
+        sub.setIdentity(new Identity("mybatis", "select", "", null));
+        withSub.setSubInvocations(Collections.singletonList(sub));
+        Assert.assertNotEquals(ShapeFingerprint.of(withSub), ShapeFingerprint.of(record("/user", "alice", 1)));
+    }
+
+    private static RecordModel record(String uri, String name, int items) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("name", name);
+        params.put("id", (long) items);
+        List<String> response = new ArrayList<String>();
+        for (int i = 0; i < items; i++) {
+            response.add("item" + i);
+        }
+        Invocation invocation = new Invocation();
+        invocation.setIdentity(new Identity("http", uri, "", null));
+        invocation.setRequest(new Object[]{params});
+        invocation.setResponse(response);
+        RecordModel recordModel = new RecordModel();
+        recordModel.setEntranceInvocation(invocation);
+        return recordModel;
+    }
+
+    private static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
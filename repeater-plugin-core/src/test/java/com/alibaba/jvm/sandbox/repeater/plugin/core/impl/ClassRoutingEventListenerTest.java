@@ -0,0 +1,91 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.impl;
+
+import com.alibaba.jvm.sandbox.api.ProcessControlException;
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+import com.alibaba.jvm.sandbox.api.event.Event;
+import com.alibaba.jvm.sandbox.api.event.InvokeEvent;
+import com.alibaba.jvm.sandbox.api.event.ReturnEvent;
+import com.alibaba.jvm.sandbox.api.event.ThrowsEvent;
+import com.alibaba.jvm.sandbox.api.listener.EventListener;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ClassRoutingEventListener}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class ClassRoutingEventListenerTest {
+
+    private static final String OUTER = "com.example.Outer";
+
+    private static final String INNER = "com.example.Inner";
+
+    private final List<String> received = new ArrayList<String>();
+
+    @Test
+    public void crossClassCallReachesBothListeners() throws Throwable {
+        ClassRoutingEventListener router = router(false);
+        router.onEvent(before(1, OUTER));
+        router.onEvent(before(2, INNER));
+        router.onEvent(before(3, INNER));
+        router.onEvent(new ReturnEvent(1, 3, null));
+        router.onEvent(new ThrowsEvent(1, 2, null));
+        router.onEvent(new ReturnEvent(1, 1, null));
+        Assert.assertEquals(received.toString(), "[Outer:BEFORE:1, Inner:BEFORE:2, Inner:BEFORE:3, "
+                + "Inner:RETURN:3, Inner:THROWS:2, Outer:RETURN:1]");
+    }
+
+    @Test
+    public void processControlPopsFrame() throws Throwable {
+        ClassRoutingEventListener router = router(true);
+        router.onEvent(before(1, OUTER));
+        try {
+            router.onEvent(before(2, INNER));
+            Assert.fail("expect ProcessControlException");
+        } catch (ProcessControlException e) {
+            // expected, mocked call returns immediately
+        }
+        router.onEvent(new ReturnEvent(1, 1, null));
+        Assert.assertEquals(received.toString(), "[Outer:BEFORE:1, Inner:BEFORE:2, Outer:RETURN:1]");
+    }
+
+    @Test
+    public void unknownClassKeepsFramesBalanced() throws Throwable {
+        ClassRoutingEventListener router = router(false);
+        router.onEvent(before(1, OUTER));
+        router.onEvent(before(2, "com.example.Unknown"));
+        router.onEvent(new ReturnEvent(1, 2, null));
+        router.onEvent(new ReturnEvent(1, 1, null));
+        Assert.assertEquals(received.toString(), "[Outer:BEFORE:1, Outer:RETURN:1]");
+    }
+
+    private ClassRoutingEventListener router(boolean mockInner) {
+        Map<String, EventListener> listeners = new HashMap<String, EventListener>();
+        listeners.put(OUTER, recorder("Outer", false));
+        listeners.put(INNER, recorder("Inner", mockInner));
+        return new ClassRoutingEventListener(listeners);
+    }
+
+    private EventListener recorder(final String name, final boolean mock) {
+        return new EventListener() {
+            @Override
+            public void onEvent(Event event) throws Throwable {
+                received.add(name + ":" + event.type + ":" + ((InvokeEvent) event).invokeId);
+                if (mock && event.type == Event.Type.BEFORE) {
+                    ProcessControlException.throwReturnImmediately(null);
+                }
+            }
+        };
+    }
+
+    private BeforeEvent before(int invokeId, String className) {
+        return new BeforeEvent(1, invokeId, null, className, "call", "()V", null, new Object[0]);
+    }
+}
@@ -0,0 +1,50 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api;
+
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * {@link CommandInvocationProcessor}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class CommandInvocationProcessorTest {
+
+    private static final String STUB_CONNECTION = "redis.clients.jedis.StubConnection";
+
+    private static final String SEND_DESC = "(Ljava/lang/String;[[B)V";
+
+    /**
+     * 命令由sendCommand的第一个参数决定
+     */
+    private final CommandExtractor extractor = new CommandExtractor() {
+        @Override
+        public String extract(BeforeEvent event) {
+            return "sendCommand".equals(event.javaMethodName) ? (String) event.argumentArray[0] : null;
+        }
+    };
+
+    @Test
+    public void commandFromArguments() {
+        CommandInvocationProcessor processor = new CommandInvocationProcessor(InvokeType.REDIS, extractor);
+        Assert.assertEquals(processor.assembleIdentity(send("GET")).getUri(), "redis://" + STUB_CONNECTION + "/GET~" + SEND_DESC);
+        Assert.assertNotEquals(processor.assembleIdentity(send("SET")).getUri(), processor.assembleIdentity(send("GET")).getUri());
+        Assert.assertSame(processor.assembleIdentity(send("GET")), processor.assembleIdentity(send("GET")));
+    }
+
+    @Test
+    public void nonCommandUsesMethodIdentity() {
+        CommandInvocationProcessor processor = new CommandInvocationProcessor(InvokeType.REDIS, extractor);
+        DefaultInvocationProcessor origin = new DefaultInvocationProcessor(InvokeType.REDIS);
+        BeforeEvent flush = new BeforeEvent(1, 1, null, STUB_CONNECTION, "flush", "()V", null, new Object[0]);
+        Assert.assertEquals(processor.assembleIdentity(flush).getUri(), origin.assembleIdentity(flush).getUri());
+        Assert.assertFalse(processor.ignoreEvent(flush));
+    }
+
+    private BeforeEvent send(String command) {
+        return new BeforeEvent(1, 1, null, STUB_CONNECTION, "sendCommand", SEND_DESC, null, new Object[]{command, new byte[0][]});
+    }
+}
@@ -0,0 +1,78 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.queue;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * {@link RingBuffer}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class RingBufferTest {
+
+    @Test
+    public void discardNewest() {
+        RingBuffer<Integer> ring = new RingBuffer<Integer>(3, WaitStrategy.of("parking"), DropPolicy.DISCARD_NEWEST);
+        Assert.assertEquals(ring.getCapacity(), 4);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(ring.publish(i));
+        }
+        Assert.assertFalse(ring.publish(4));
+        Assert.assertEquals(ring.getDropped(), 1L);
+        Assert.assertEquals(ring.size(), 4);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(ring.poll(), Integer.valueOf(i));
+        }
+        Assert.assertNull(ring.poll());
+    }
+
+    @Test
+    public void discardOldest() {
+        RingBuffer<Integer> ring = new RingBuffer<Integer>(2, WaitStrategy.of("spinning"), DropPolicy.DISCARD_OLDEST);
+        Assert.assertTrue(ring.publish(0));
+        Assert.assertTrue(ring.publish(1));
+        Assert.assertTrue(ring.publish(2));
+        Assert.assertEquals(ring.getDropped(), 1L);
+        Assert.assertEquals(ring.poll(), Integer.valueOf(1));
+        Assert.assertEquals(ring.poll(), Integer.valueOf(2));
+    }
+
+    @Test
+    public void concurrentPublish() throws InterruptedException {
+        final RingBuffer<Integer> ring = new RingBuffer<Integer>(1024, WaitStrategy.of("blocking"), DropPolicy.DISCARD_NEWEST);
+        final int producers = 4;
+        final int perProducer = 10000;
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < perProducer; j++) {
+                        ring.publish(j);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        long consumed = 0;
+        while (consumed + ring.getDropped() < producers * perProducer) {
+            if (ring.poll() != null) {
+                consumed++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(consumed, ring.getOffered());
+        Assert.assertNull(ring.poll());
+    }
+
+    @Test
+    public void parkingBackoff() {
+        Assert.assertEquals(WaitStrategy.ParkingWaitStrategy.parkNanos(101), 10000L);
+        Assert.assertEquals(WaitStrategy.ParkingWaitStrategy.parkNanos(102), 20000L);
+        Assert.assertEquals(WaitStrategy.ParkingWaitStrategy.parkNanos(1000), 50000000L);
+        Assert.assertEquals(WaitStrategy.ParkingWaitStrategy.parkNanos(Integer.MAX_VALUE), 50000000L);
+    }
+}
@@ -0,0 +1,54 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.sample;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * {@link TokenBucket}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class TokenBucketTest {
+
+    private static final long SECOND = 1000000000L;
+
+    @Test
+    public void burstThenRate() {
+        TokenBucket bucket = new TokenBucket();
+        long now = 10 * SECOND;
+        long interval = SECOND / 10;
+        int acquired = 0;
+        while (bucket.tryAcquire(now, interval)) {
+            acquired++;
+        }
+        // 空闲时允许一秒的突发
+        Assert.assertEquals(acquired, 10);
+        Assert.assertFalse(bucket.available(now));
+        Assert.assertFalse(bucket.tryAcquire(now + interval / 2, interval));
+        Assert.assertTrue(bucket.tryAcquire(now + interval, interval));
+        Assert.assertFalse(bucket.tryAcquire(now + interval, interval));
+    }
+
+    @Test
+    public void idleDoesNotAccumulate() {
+        TokenBucket bucket = new TokenBucket();
+        long interval = SECOND / 100;
+        Assert.assertTrue(bucket.tryAcquire(0, interval));
+        long later = 60 * SECOND;
+        int acquired = 0;
+        while (bucket.tryAcquire(later, interval)) {
+            acquired++;
+        }
+        Assert.assertEquals(acquired, 100);
+    }
+
+    @Test
+    public void slowerThanOnePerSecond() {
+        TokenBucket bucket = new TokenBucket();
+        long interval = 4 * SECOND;
+        Assert.assertTrue(bucket.tryAcquire(0, interval));
+        Assert.assertFalse(bucket.tryAcquire(SECOND, interval));
+        Assert.assertTrue(bucket.tryAcquire(4 * SECOND, interval));
+    }
+}
@@ -41,4 +41,47 @@ public class HessianSerializerTest {
             Assert.fail(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void factoryCached() {
+        HessianSerializer serializer = (HessianSerializer) SerializerProvider.instance().provide(Serializer.Type.HESSIAN);
+        ClassLoader loader = HessianSerializerTest.class.getClassLoader();
+        Assert.assertSame(serializer.getFactory(loader), serializer.getFactory(loader));
+        ClassLoader swap = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(loader);
+            Assert.assertSame(serializer.getFactory(null), serializer.getFactory(loader));
+        } finally {
+            Thread.currentThread().setContextClassLoader(swap);
+        }
+    }
+
+    @Test
+    public void streamReused() {
+        Serializer serializer = SerializerProvider.instance().provide(Serializer.Type.HESSIAN);
+        try {
+            byte[] first = serializer.serialize(new HessianSerializeDomain());
+            // 复用的输出流不能残留上一次的数据
+            serializer.serialize(new HessianSerializeDomainSub());
+            Assert.assertEquals(serializer.serialize(new HessianSerializeDomain()), first);
+            for (int i = 0; i < 16; i++) {
+                HessianSerializeDomainSub domain = new HessianSerializeDomainSub();
+                Assert.assertEquals(serializer.deserialize(serializer.serialize(domain), HessianSerializeDomainSub.class), domain);
+            }
+        } catch (SerializeException e) {
+            Assert.fail(e.getMessage());
+        }
+        try {
+            serializer.deserialize(new byte[]{'C', 0x7f, 0x7f});
+            Assert.fail("broken bytes should not be deserialized");
+        } catch (SerializeException e) {
+            // expected
+        }
+        try {
+            HessianSerializeDomain domain = new HessianSerializeDomain();
+            Assert.assertEquals(serializer.deserialize(serializer.serialize(domain), HessianSerializeDomain.class), domain);
+        } catch (SerializeException e) {
+            Assert.fail(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.similarity;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * {@link SimilarityEngine}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class SimilarityEngineTest {
+
+    private static final Charset ISO = Charset.forName("ISO-8859-1");
+
+    private final SimilarityEngine full = new LevenshteinSimilarityEngine();
+
+    @Test
+    public void bandedAgreesWithFullDistance() {
+        SimilarityEngine banded = new BandedSimilarityEngine();
+        Random random = new Random(11);
+        double[] thresholds = new double[]{0, 0.3, 0.5, 0.8, 0.9, 0.95, 1};
+        for (int round = 0; round < 3000; round++) {
+            // 小字母表，制造重复片段
+            byte[] origin = randomBytes(random, random.nextInt(80), 4);
+            byte[] target = mutate(random, origin, random.nextInt(20), 4);
+            double expect = full.similarity(origin, target, 0);
+            for (double threshold : thresholds) {
+                double actual = banded.similarity(origin, target, threshold);
+                if (expect >= threshold) {
+                    Assert.assertEquals(actual, expect, 1e-12);
+                } else {
+                    Assert.assertTrue(actual < threshold && actual >= expect - 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void minHashKeepsSimilarPayloads() {
+        SimilarityEngine minHash = new MinHashSimilarityEngine();
+        Random random = new Random(13);
+        for (int round = 0; round < 20; round++) {
+            byte[] origin = randomBytes(random, 2048 + random.nextInt(2048), 256);
+            byte[] target = mutate(random, origin, 16, 256);
+            double expect = full.similarity(origin, target, 0);
+            Assert.assertEquals(minHash.similarity(origin, target, 0.9), expect, 1e-12);
+            Assert.assertTrue(minHash.similarity(origin, randomBytes(random, origin.length, 256), 0.9) < 0.9);
+        }
+        Assert.assertEquals(minHash.similarity(new byte[0], new byte[0], 0.9), 1d);
+    }
+
+    private static byte[] randomBytes(Random random, int length, int alphabet) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) random.nextInt(alphabet);
+        }
+        return bytes;
+    }
+
+    private static byte[] mutate(Random random, byte[] origin, int edits, int alphabet) {
+        StringBuilder sb = new StringBuilder(new String(origin, ISO));
+        for (int i = 0; i < edits; i++) {
+            int position = sb.length() == 0 ? 0 : random.nextInt(sb.length());
+            switch (random.nextInt(3)) {
+                case 0:
+                    sb.insert(position, (char) random.nextInt(alphabet));
+                    break;
+                case 1:
+                    if (sb.length() > 0) {
+                        sb.deleteCharAt(position);
+                    }
+                    break;
+                default:
+                    if (sb.length() > 0) {
+                        sb.setCharAt(position, (char) random.nextInt(alphabet));
+                    }
+                    break;
+            }
+        }
+        return sb.toString().getBytes(ISO);
+    }
+}
@@ -0,0 +1,69 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.trace;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * {@link TraceId}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class TraceIdTest {
+
+    @Test
+    public void wireCompatible() {
+        long before = System.currentTimeMillis();
+        TraceId id = TraceId.generate();
+        String traceId = id.toString();
+        Assert.assertEquals(traceId.length(), 32);
+        Assert.assertTrue(traceId.endsWith("ed"));
+        Assert.assertTrue(TraceGenerator.isValid(traceId));
+        Assert.assertEquals(traceId.substring(0, 12), TraceGenerator.IP_COMPLETION.length() == 12 ? TraceGenerator.IP_COMPLETION : "127000000001");
+        Assert.assertTrue(id.getTimestamp() >= before && id.getTimestamp() <= System.currentTimeMillis());
+        Assert.assertEquals(Long.parseLong(traceId.substring(12, 25)), id.getTimestamp());
+        Assert.assertEquals(Integer.parseInt(TraceGenerator.getSampleBit(traceId)), id.getSampleBits());
+        Assert.assertSame(id.toString(), traceId);
+    }
+
+    @Test
+    public void parse() {
+        TraceId id = TraceId.generate();
+        TraceId parsed = TraceId.parse(id.toString());
+        Assert.assertEquals(parsed, id);
+        Assert.assertEquals(parsed.hashCode(), id.hashCode());
+        Assert.assertEquals(parsed.toString(), id.toString());
+        Assert.assertEquals(TraceId.parse("127000000001155000000000010001ed").getSequence(), 10001);
+        Assert.assertNull(TraceId.parse(null));
+        Assert.assertNull(TraceId.parse("127000000001155000000000010001"));
+        Assert.assertNull(TraceId.parse("12700000000115500000000001000xed"));
+    }
+
+    @Test
+    public void uniqueAcrossThreads() throws InterruptedException {
+        final Set<String> ids = Collections.synchronizedSet(new HashSet<String>());
+        final int threads = 4;
+        final int perThread = 10000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        TraceId id = TraceId.generate();
+                        Assert.assertTrue(id.getSequence() >= 10000 && id.getSequence() < 90000);
+                        ids.add(id.toString());
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        Assert.assertEquals(ids.size(), threads * perThread);
+    }
+}
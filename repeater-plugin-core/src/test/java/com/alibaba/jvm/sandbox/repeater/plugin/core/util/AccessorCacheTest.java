@@ -0,0 +1,59 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.core.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link AccessorCache}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class AccessorCacheTest {
+
+    @Test
+    public void invokeThroughPublicInterface() throws Exception {
+        // 非public实现类的方法需要通过public接口访问
+        List<String> list = Collections.singletonList("repeater");
+        Assert.assertEquals(AccessorCache.invokeMethod(list, "size"), 1);
+        Assert.assertEquals(AccessorCache.invokeMethod(list, "get", 0), "repeater");
+        Assert.assertEquals(AccessorCache.invokeMethod(list, "get", 0), "repeater");
+    }
+
+    @Test
+    public void invokeStatic() throws Exception {
+        Assert.assertEquals(AccessorCache.invokeStaticMethod(Integer.class, "valueOf", "42"), 42);
+        Assert.assertEquals(AccessorCache.invokeStaticMethod(String.class, "valueOf",
+                new Object[]{7L}, new Class[]{long.class}), "7");
+    }
+
+    @Test
+    public void missingMember() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                AccessorCache.invokeMethod("repeater", "noSuchMethod");
+                Assert.fail("expect NoSuchMethodException");
+            } catch (NoSuchMethodException e) {
+                // expected
+            }
+        }
+        Assert.assertNull(AccessorCache.getDeclaredField(String.class, "noSuchField"));
+        Assert.assertNull(AccessorCache.getMatchingMethod(String.class, "noSuchMethod"));
+    }
+
+    @Test
+    public void declaredField() throws Exception {
+        Field field = AccessorCache.getDeclaredField(Holder.class, "value");
+        Assert.assertNotNull(field);
+        Assert.assertSame(field, AccessorCache.getDeclaredField(Holder.class, "value"));
+        Assert.assertEquals(field.get(new Holder()), "holder");
+    }
+
+    private static class Holder {
+        private final String value = "holder";
+    }
+}
@@ -4,6 +4,7 @@ import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
 import com.alibaba.jvm.sandbox.api.event.Event;
 import com.alibaba.jvm.sandbox.api.event.ReturnEvent;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultInvocationProcessor;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.AccessorCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.HttpUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.LogUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Identity;
@@ -12,8 +13,6 @@ import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.FieldUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -60,10 +59,10 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
 
         try {
             // org.apache.http.RequestLine
-            Object uri = MethodUtils.invokeMethod(request, "getURI");
-            String path = (String) MethodUtils.invokeMethod(uri, "getPath");
-            urlStr = HttpUtil.getPureUrL(MethodUtils.invokeMethod(uri, "getScheme"),
-                    MethodUtils.invokeMethod(uri, "getHost"))+path;
+            Object uri = AccessorCache.invokeMethod(request, "getURI");
+            String path = (String) AccessorCache.invokeMethod(uri, "getPath");
+            urlStr = HttpUtil.getPureUrL(AccessorCache.invokeMethod(uri, "getScheme"),
+                    AccessorCache.invokeMethod(uri, "getHost"))+path;
         }catch (Exception e){
             LogUtil.error("apacheHttpClient-plugin assembleMockResponse error, event={}",
                     event.javaClassName + "|" + event.javaMethodName, e);
@@ -80,10 +79,10 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
             String urlStr = "apacheHttpClient-plugin get urlStr error";
             Object request = event.argumentArray[1];
             // org.apache.http.RequestLine
-            Object requestLine = MethodUtils.invokeMethod(request, "getRequestLine");
-            Object uri = MethodUtils.invokeMethod(request, "getURI");
-            Object queryParam = MethodUtils.invokeMethod(uri, "getQuery");
-            Object method = MethodUtils.invokeMethod(requestLine, "getMethod");
+            Object requestLine = AccessorCache.invokeMethod(request, "getRequestLine");
+            Object uri = AccessorCache.invokeMethod(request, "getURI");
+            Object queryParam = AccessorCache.invokeMethod(uri, "getQuery");
+            Object method = AccessorCache.invokeMethod(requestLine, "getMethod");
             String headersStr = this.getRequestHeadersStr(request);
 
             Map<String, Object> params = new HashMap<String, Object>();
@@ -109,7 +108,7 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
     private String getRequestHeadersStr(Object request) throws Exception{
 
         String headersStr = "";
-        Object[] headers = (Object[]) MethodUtils.invokeMethod(request, "getAllHeaders");
+        Object[] headers = (Object[]) AccessorCache.invokeMethod(request, "getAllHeaders");
         if (headers == null){
             return headersStr;
         }
@@ -119,25 +118,25 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
 
     private String getRequestBody(Object request, ClassLoader classLoader) throws Exception {
 
-        Object httpEntity = MethodUtils.invokeMethod(request, "getEntity");
+        Object httpEntity = AccessorCache.invokeMethod(request, "getEntity");
         if (httpEntity == null){
             return StringUtils.EMPTY;
         }
 
-        Long contentLengthObject = (Long)MethodUtils.invokeMethod(httpEntity, "getContentLength");
+        Long contentLengthObject = (Long)AccessorCache.invokeMethod(httpEntity, "getContentLength");
         if (contentLengthObject == 0){
             return StringUtils.EMPTY;
         }
 
         // 保险起见在可重复读的时候才去获取body体内容
-        Boolean isRepeatable = (Boolean)MethodUtils.invokeMethod(httpEntity, "isRepeatable");
+        Boolean isRepeatable = (Boolean)AccessorCache.invokeMethod(httpEntity, "isRepeatable");
         if (!isRepeatable){
             LogUtil.warn("apacheHttpClient-plugin request body is not repeatable");
             return this.DEFAULT_REQUEST_BODY_STR;
         }
 
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        MethodUtils.invokeMethod(httpEntity, "writeTo", baos);
+        AccessorCache.invokeMethod(httpEntity, "writeTo", baos);
         Charset charset = this.determineCharset(httpEntity, classLoader);
 
         return new String(baos.toByteArray(), charset);
@@ -146,12 +145,12 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
     private Charset determineCharset(Object httpEntity, ClassLoader classLoader) throws Exception {
 
         Class<?> aClass = classLoader.loadClass("org.apache.http.entity.ContentType");
-        Object contentType = MethodUtils.invokeStaticMethod(aClass, "get", httpEntity);
+        Object contentType = AccessorCache.invokeStaticMethod(aClass, "get", httpEntity);
         if (contentType == null) {
             return StandardCharsets.UTF_8;
         }
 
-        Object charset = MethodUtils.invokeMethod(contentType, "getCharset");
+        Object charset = AccessorCache.invokeMethod(contentType, "getCharset");
         if (charset == null){
             return StandardCharsets.UTF_8;
         }
@@ -167,14 +166,14 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
             // org.apache.http.HttpResponse
             Object response = returnEvent.object;
             try {
-                Object statusLine = MethodUtils.invokeMethod(response, "getStatusLine");
-                Object statusCode = MethodUtils.invokeMethod(statusLine, "getStatusCode");
-                Object reasonPhrase = MethodUtils.invokeMethod(statusLine, "getReasonPhrase");
-
-                Object protocolVersion = MethodUtils.invokeMethod(statusLine, "getProtocolVersion");
-                Object protocol = MethodUtils.invokeMethod(protocolVersion, "getProtocol");
-                Object major = MethodUtils.invokeMethod(protocolVersion, "getMajor");
-                Object minor = MethodUtils.invokeMethod(protocolVersion, "getMinor");
+                Object statusLine = AccessorCache.invokeMethod(response, "getStatusLine");
+                Object statusCode = AccessorCache.invokeMethod(statusLine, "getStatusCode");
+                Object reasonPhrase = AccessorCache.invokeMethod(statusLine, "getReasonPhrase");
+
+                Object protocolVersion = AccessorCache.invokeMethod(statusLine, "getProtocolVersion");
+                Object protocol = AccessorCache.invokeMethod(protocolVersion, "getProtocol");
+                Object major = AccessorCache.invokeMethod(protocolVersion, "getMajor");
+                Object minor = AccessorCache.invokeMethod(protocolVersion, "getMinor");
                 Map<String, List<String>> headersMap = this.getResponseHeadersMap(response);
                 String responseBody = this.getResponseBody(response, response.getClass().getClassLoader());
 
@@ -198,15 +197,15 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
 
     private Map<String, List<String>> getResponseHeadersMap(Object response) throws Exception {
 
-        Object[] headers = (Object[]) MethodUtils.invokeMethod(response, "getAllHeaders");
+        Object[] headers = (Object[]) AccessorCache.invokeMethod(response, "getAllHeaders");
         Map<String, List<String>> headersMap = new HashMap<String, List<String>>();
         if (headers == null){
             return new HashMap<String, List<String>>();
         }
 
         for (Object header : headers) {
-            String name = (String) MethodUtils.invokeMethod(header, "getName");
-            String value = (String) MethodUtils.invokeMethod(header, "getValue");
+            String name = (String) AccessorCache.invokeMethod(header, "getName");
+            String value = (String) AccessorCache.invokeMethod(header, "getValue");
             List<String> list = headersMap.get(name);
 
             if (list == null){
@@ -222,17 +221,17 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
     private String getResponseBody(Object response, ClassLoader classLoader) throws Exception{
 
         // org.apache.http.HttpEntity
-        Object httpEntity = MethodUtils.invokeMethod(response, "getEntity");
+        Object httpEntity = AccessorCache.invokeMethod(response, "getEntity");
         if (httpEntity == null){
             return StringUtils.EMPTY;
         }
 
-        Long contentLength = (Long)MethodUtils.invokeMethod(httpEntity, "getContentLength");
+        Long contentLength = (Long)AccessorCache.invokeMethod(httpEntity, "getContentLength");
         if (contentLength == 0){
             return StringUtils.EMPTY;
         }
 
-        Boolean isRepeatable = (Boolean)MethodUtils.invokeMethod(httpEntity, "isRepeatable");
+        Boolean isRepeatable = (Boolean)AccessorCache.invokeMethod(httpEntity, "isRepeatable");
         if (isRepeatable){
             return this.getResponseBodyStr(httpEntity, classLoader);
         }else {
@@ -262,7 +261,7 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
     private String getResponseBodyStr(Object httpEntity, ClassLoader classLoader) throws Exception{
 
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        MethodUtils.invokeMethod(httpEntity, "writeTo", baos);
+        AccessorCache.invokeMethod(httpEntity, "writeTo", baos);
         Charset charset = this.determineCharset(httpEntity, classLoader);
         return new String(baos.toByteArray(), charset);
     }
@@ -270,26 +269,26 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
     private boolean canResetContent(Object httpEntity, ClassLoader classLoader) throws Exception{
 
         Object wrappedEntity = this.getWrappedEntity(httpEntity, classLoader);
-        Method setContent = MethodUtils.getMatchingMethod(wrappedEntity.getClass(), "setContent", InputStream.class);
+        Method setContent = AccessorCache.getMatchingMethod(wrappedEntity.getClass(), "setContent", InputStream.class);
         return setContent != null;
     }
 
     private Object getWrappedEntity(Object httpEntity, ClassLoader classLoader) throws Exception{
 
         Class<?> wrappedEntityClass = classLoader.loadClass("org.apache.http.entity.HttpEntityWrapper");
-        Field wrappedEntityField = FieldUtils.getDeclaredField(wrappedEntityClass, "wrappedEntity", true);
+        Field wrappedEntityField = AccessorCache.getDeclaredField(wrappedEntityClass, "wrappedEntity");
         return wrappedEntityField.get(httpEntity);
     }
 
     // 这里对请求的流进行了重新复制，不同场景的可靠性需要验证
     private void reSetResponseStream(ClassLoader classLoader, Object httpEntity, String responseBodyStr, Boolean gizp) throws Exception {
         Class<?> wrappedEntityClass = classLoader.loadClass("org.apache.http.entity.HttpEntityWrapper");
-        Field wrappedEntityField = FieldUtils.getDeclaredField(wrappedEntityClass, "wrappedEntity", true);
+        Field wrappedEntityField = AccessorCache.getDeclaredField(wrappedEntityClass, "wrappedEntity");
         Object wrappedEntity = wrappedEntityField.get(httpEntity);
         if (gizp){
-            MethodUtils.invokeMethod(wrappedEntity, "setContent", this.getGzipByte(responseBodyStr, classLoader, httpEntity));
+            AccessorCache.invokeMethod(wrappedEntity, "setContent", this.getGzipByte(responseBodyStr, classLoader, httpEntity));
         }else {
-            MethodUtils.invokeMethod(wrappedEntity, "setContent", new ByteArrayInputStream(responseBodyStr.getBytes()));
+            AccessorCache.invokeMethod(wrappedEntity, "setContent", new ByteArrayInputStream(responseBodyStr.getBytes()));
         }
     }
 
@@ -306,7 +305,7 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
 
     private void setContentNull(Object httpEntity, ClassLoader classLoader) throws Exception{
         Class<?> decompressingEntity = classLoader.loadClass("org.apache.http.client.entity.DecompressingEntity");
-        Field wrappedEntityField = FieldUtils.getDeclaredField(decompressingEntity, "content", true);
+        Field wrappedEntityField = AccessorCache.getDeclaredField(decompressingEntity, "content");
         wrappedEntityField.set(httpEntity, null);
     }
 
@@ -389,7 +388,7 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
             }
 
             for (String value : values) {
-                MethodUtils.invokeMethod(response, "addHeader", name, value);
+                AccessorCache.invokeMethod(response, "addHeader", name, value);
             }
         }
     }
@@ -400,9 +399,9 @@ public class ApacheHttpClientProcessor extends DefaultInvocationProcessor {
         byte[] bytes = responseBody.getBytes();
 
         InputStream inputStream = new ByteArrayInputStream(bytes);
-        MethodUtils.invokeMethod(httpEntity, "setContent", inputStream);
-        MethodUtils.invokeMethod(httpEntity, "setContentLength", bytes.length);
-        MethodUtils.invokeMethod(response, "setEntity", httpEntity);
+        AccessorCache.invokeMethod(httpEntity, "setContent", inputStream);
+        AccessorCache.invokeMethod(httpEntity, "setContentLength", bytes.length);
+        AccessorCache.invokeMethod(response, "setEntity", httpEntity);
     }
 
     private Object getMockResponse(Object basicResponse, ClassLoader classLoader) throws Exception{
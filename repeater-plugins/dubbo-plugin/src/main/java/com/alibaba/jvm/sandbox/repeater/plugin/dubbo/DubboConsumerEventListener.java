@@ -4,13 +4,13 @@ import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationListener;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationProcessor;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultEventListener;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.AccessorCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.LogUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.DubboInvocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
 import com.google.common.collect.Lists;
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 import java.util.List;
 import java.util.Map;
@@ -34,15 +34,15 @@ public class DubboConsumerEventListener extends DefaultEventListener {
         Object invoker = event.argumentArray[1];
         Object invocation = event.argumentArray[2];
         try {
-            Object url = MethodUtils.invokeMethod(invoker, "getUrl");
+            Object url = AccessorCache.invokeMethod(invoker, "getUrl");
             @SuppressWarnings("unchecked")
-            Map<String, String> parameters = (Map<String, String>) MethodUtils.invokeMethod(url, "getParameters");
-            String protocol =  (String)MethodUtils.invokeMethod(url, "getProtocol");
+            Map<String, String> parameters = (Map<String, String>) AccessorCache.invokeMethod(url, "getParameters");
+            String protocol =  (String)AccessorCache.invokeMethod(url, "getProtocol");
             // methodName
-            String methodName = (String) MethodUtils.invokeMethod(invocation, "getMethodName");
-            Class<?>[] parameterTypes = (Class<?>[]) MethodUtils.invokeMethod(invocation, "getParameterTypes");
+            String methodName = (String) AccessorCache.invokeMethod(invocation, "getMethodName");
+            Class<?>[] parameterTypes = (Class<?>[]) AccessorCache.invokeMethod(invocation, "getParameterTypes");
             // interfaceName
-            String interfaceName = ((Class) MethodUtils.invokeMethod(invoker, "getInterface")).getCanonicalName();
+            String interfaceName = ((Class) AccessorCache.invokeMethod(invoker, "getInterface")).getCanonicalName();
             dubboInvocation.setProtocol(protocol);
             dubboInvocation.setInterfaceName(interfaceName);
             dubboInvocation.setMethodName(methodName);
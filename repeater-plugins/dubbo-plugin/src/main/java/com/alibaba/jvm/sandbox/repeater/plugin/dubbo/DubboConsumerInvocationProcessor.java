@@ -3,13 +3,13 @@ package com.alibaba.jvm.sandbox.repeater.plugin.dubbo;
 import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
 import com.alibaba.jvm.sandbox.api.event.Event;
 import com.alibaba.jvm.sandbox.api.event.InvokeEvent;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RepeatCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultInvocationProcessor;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.AccessorCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.LogUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Identity;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -52,10 +52,10 @@ class DubboConsumerInvocationProcessor extends DefaultInvocationProcessor {
 
         try {
             // methodName
-            String methodName = (String) MethodUtils.invokeMethod(invocation, "getMethodName");
-            Class<?>[] parameterTypes = (Class<?>[]) MethodUtils.invokeMethod(invocation, "getParameterTypes");
+            String methodName = (String) AccessorCache.invokeMethod(invocation, "getMethodName");
+            Class<?>[] parameterTypes = (Class<?>[]) AccessorCache.invokeMethod(invocation, "getParameterTypes");
             // interfaceName
-            String  interfaceName = ((Class)MethodUtils.invokeMethod(invoker, "getInterface")).getCanonicalName();
+            String  interfaceName = ((Class)AccessorCache.invokeMethod(invoker, "getInterface")).getCanonicalName();
             return new Identity(InvokeType.DUBBO.name(), interfaceName, getMethodDesc(methodName, parameterTypes), getExtra());
         } catch (Exception e) {
             // ignore
@@ -77,7 +77,7 @@ class DubboConsumerInvocationProcessor extends DefaultInvocationProcessor {
             invocation = event.argumentArray[1];
         }
         try {
-            return (Object[]) MethodUtils.invokeMethod(invocation, "getArguments");
+            return (Object[]) AccessorCache.invokeMethod(invocation, "getArguments");
         } catch (Exception e) {
             // ignore
             LogUtil.error("error occurred when assemble dubbo request", e);
@@ -93,7 +93,7 @@ class DubboConsumerInvocationProcessor extends DefaultInvocationProcessor {
             Object response = invocation.getResponse();
             Class<?> aClass = event.javaClassLoader.loadClass("org.apache.dubbo.rpc.AsyncRpcResult");
             // 调用AsyncRpcResult#newDefaultAsyncResult返回;
-            return MethodUtils.invokeStaticMethod(aClass, "newDefaultAsyncResult",
+            return AccessorCache.invokeStaticMethod(aClass, "newDefaultAsyncResult",
                     new Object[]{response, dubboInvocation}, new Class[]{Object.class, dubboInvocation.getClass()});
         } catch (ClassNotFoundException e) {
             LogUtil.error("no valid AsyncRpcResult class fount in classloader {}", event.javaClassLoader, e);
@@ -110,7 +110,7 @@ class DubboConsumerInvocationProcessor extends DefaultInvocationProcessor {
         if (event.type == Event.Type.BEFORE) {
             Object appResponse = ((BeforeEvent) event).argumentArray[0];
             try {
-                return MethodUtils.invokeMethod(appResponse, "getValue");
+                return AccessorCache.invokeMethod(appResponse, "getValue");
             } catch (Exception e) {
                 // ignore
                 LogUtil.error("error occurred when assemble dubbo response", e);
@@ -125,7 +125,7 @@ class DubboConsumerInvocationProcessor extends DefaultInvocationProcessor {
             BeforeEvent be = (BeforeEvent) event;
             String methodName = be.javaMethodName;
             // 回放流量忽略onResponse，非回放流量忽略invoke方法
-            boolean ignore = RepeatCache.isRepeatFlow()
+            boolean ignore = Tracer.isRepeatFlow()
                     ? ON_RESPONSE.equals(methodName)
                     : INVOKE.equals(methodName);
             if (ignore) {
@@ -6,11 +6,10 @@ import com.alibaba.jvm.sandbox.api.event.Event;
 import com.alibaba.jvm.sandbox.repeater.plugin.Constants;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationListener;
 import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationProcessor;
-import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RepeatCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.AccessorCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.LogUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 public class DubboProviderEventListener extends DubboConsumerEventListener {
 
@@ -27,7 +26,7 @@ public class DubboProviderEventListener extends DubboConsumerEventListener {
 
             Object traceId = null;
             try {
-                traceId = MethodUtils.invokeMethod(invocation, "getAttachment", Constants.HEADER_TRACE_ID);
+                traceId = AccessorCache.invokeMethod(invocation, "getAttachment", Constants.HEADER_TRACE_ID);
             } catch (Exception e) {
                 LogUtil.warn("get invocation attachment exception.", e);
             }
@@ -42,7 +41,7 @@ public class DubboProviderEventListener extends DubboConsumerEventListener {
 
     @Override
     protected void doBefore(BeforeEvent event) throws ProcessControlException {
-        if (RepeatCache.isRepeatFlow(Tracer.getTraceId())) {
+        if (Tracer.isRepeatFlow()) {
             return;
         }
 
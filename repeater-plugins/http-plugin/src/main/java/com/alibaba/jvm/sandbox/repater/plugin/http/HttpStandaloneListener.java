@@ -17,6 +17,7 @@ import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RecordCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RepeatCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultEventListener;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.model.ApplicationModel;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceContext;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceGenerator;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.LogUtil;
@@ -78,9 +79,11 @@ public class HttpStandaloneListener extends DefaultEventListener implements Invo
                     meta.setRepeatId(traceIdX);
                     RepeaterResult<RecordModel> pr = StandaloneSwitch.instance().getBroadcaster().pullRecord(meta);
                     if (pr.isSuccess()) {
-                        Tracer.start();
-                        RepeatContext context = new RepeatContext(meta, pr.getData(), Tracer.getTraceId());
+                        TraceContext traceContext = Tracer.start();
+                        pr.getData().setSubInvocationIndex(SubInvocationIndex.build(pr.getData().getSubInvocations()));
+                        RepeatContext context = new RepeatContext(meta, pr.getData(), traceContext.getTraceId());
                         RepeatCache.putRepeatContext(context);
+                        traceContext.setRepeatContext(context);
                         return;
                     }
                 }
@@ -101,7 +104,7 @@ public class HttpStandaloneListener extends DefaultEventListener implements Invo
     @Override
     protected void doBefore(BeforeEvent event) throws ProcessControlException {
         // 回放流量；入口直接返回
-        if (RepeatCache.isRepeatFlow(Tracer.getTraceId())) {
+        if (Tracer.isRepeatFlow()) {
             return;
         }
         Object request = event.argumentArray[0];
@@ -118,6 +121,10 @@ public class HttpStandaloneListener extends DefaultEventListener implements Invo
             Tracer.getContext().setSampled(false);
             return;
         }
+        // http插件没有processor，按requestURI获取采样配额
+        if (!acquireRecord(req.getRequestURI())) {
+            return;
+        }
         WrapperResponseCopier wrapperRes = new WrapperResponseCopier(resp);
         WrapperRequest wrapperReq;
         try {
@@ -148,7 +155,7 @@ public class HttpStandaloneListener extends DefaultEventListener implements Invo
     }
 
     private void doFinish() {
-        if (RepeatCache.isRepeatFlow(Tracer.getTraceId())) {
+        if (Tracer.isRepeatFlow()) {
             return;
         }
         WrapperTransModel wtm = wtmRef.get();
@@ -167,15 +174,23 @@ public class HttpStandaloneListener extends DefaultEventListener implements Invo
             return;
         }
         invocation.setAsync(true);
+        request.setTraceContext(Tracer.getContext());
     }
 
     @Override
     public void onComplete(WrapperRequest request, WrapperTransModel wtm) {
-        HttpInvocation invocation = (HttpInvocation) RecordCache.getInvocation(request.hashCode());
+        HttpInvocation invocation = (HttpInvocation) RecordCache.removeInvocation(request.hashCode());
         if (invocation == null) {
             return;
         }
-        onFinish(invocation, wtm);
+        // 异步完成的回调线程上没有入口的上下文，恢复之后才能拿到子调用
+        TraceContext previous = Tracer.getContext();
+        Tracer.resume(request.getTraceContext());
+        try {
+            onFinish(invocation, wtm);
+        } finally {
+            Tracer.resume(previous);
+        }
     }
 
     @Override
@@ -199,6 +214,8 @@ public class HttpStandaloneListener extends DefaultEventListener implements Invo
         if (invocation == null || invocation.isAsync()) {
             return;
         }
+        // 异步请求在onComplete时移除
+        RecordCache.removeInvocation(request.hashCode());
         try {
             wtm.setResponse(new String(wtm.copier.getResponseData(), wtm.copier.getCharacterEncoding()));
         } catch (Exception e) {
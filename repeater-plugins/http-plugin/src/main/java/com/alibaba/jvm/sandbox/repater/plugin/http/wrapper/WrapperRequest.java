@@ -1,6 +1,7 @@
 package com.alibaba.jvm.sandbox.repater.plugin.http.wrapper;
 
 import com.alibaba.jvm.sandbox.repater.plugin.http.HttpStandaloneListener;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.TraceContext;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
@@ -28,6 +29,11 @@ public class WrapperRequest extends HttpServletRequestWrapper {
 
     private final boolean usingBody;
 
+    /**
+     * 异步请求时记录入口的调用上下文，异步完成的回调线程上需要恢复
+     */
+    private TraceContext traceContext;
+
     /**
      * Constructs a request object wrapping the given request.
      *
@@ -108,4 +114,12 @@ public class WrapperRequest extends HttpServletRequestWrapper {
     public String getBody() {
         return this.body;
     }
+
+    public TraceContext getTraceContext() {
+        return traceContext;
+    }
+
+    public void setTraceContext(TraceContext traceContext) {
+        this.traceContext = traceContext;
+    }
 }
\ No newline at end of file
@@ -20,4 +20,10 @@ class IBatisProcessor extends DefaultInvocationProcessor {
     public boolean inTimeSerializeRequest(Invocation invocation, BeforeEvent event) {
         return false;
     }
+
+    @Override
+    public boolean snapshotCapture(Invocation invocation) {
+        // 入参在return时已被回填，快照只做浅拷贝，需要及时序列化
+        return false;
+    }
 }
@@ -2,11 +2,10 @@ package com.alibaba.jvm.sandbox.repeater.plugin.mybatis;
 
 import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultInvocationProcessor;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.AccessorCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Identity;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
-import org.apache.commons.lang3.reflect.FieldUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 import java.lang.reflect.Field;
 import java.util.HashMap;
@@ -26,14 +25,14 @@ class MybatisProcessor extends DefaultInvocationProcessor {
     public Identity assembleIdentity(BeforeEvent event) {
         Object mapperMethod = event.target;
         // SqlCommand = MapperMethod.command
-        Field field = FieldUtils.getDeclaredField(mapperMethod.getClass(), "command", true);
+        Field field = AccessorCache.getDeclaredField(mapperMethod.getClass(), "command");
         if (field == null) {
             return new Identity(InvokeType.MYBATIS.name(), "Unknown", "Unknown", new HashMap<String, String>(1));
         }
         try {
             Object command = field.get(mapperMethod);
-            Object name = MethodUtils.invokeMethod(command, "getName");
-            Object type = MethodUtils.invokeMethod(command, "getType");
+            Object name = AccessorCache.invokeMethod(command, "getName");
+            Object type = AccessorCache.invokeMethod(command, "getType");
             return new Identity(InvokeType.MYBATIS.name(), type.toString(), name.toString(), new HashMap<String, String>(1));
         } catch (Exception e) {
             return new Identity(InvokeType.MYBATIS.name(), "Unknown", "Unknown", new HashMap<String, String>(1));
@@ -51,4 +50,10 @@ class MybatisProcessor extends DefaultInvocationProcessor {
     public boolean inTimeSerializeRequest(Invocation invocation, BeforeEvent event) {
         return false;
     }
+
+    @Override
+    public boolean snapshotCapture(Invocation invocation) {
+        // 入参在return时已被回填，快照只做浅拷贝，需要及时序列化
+        return false;
+    }
 }
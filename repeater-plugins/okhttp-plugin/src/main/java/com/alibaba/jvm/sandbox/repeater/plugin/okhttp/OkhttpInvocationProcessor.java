@@ -4,6 +4,7 @@ import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
 import com.alibaba.jvm.sandbox.api.event.Event;
 import com.alibaba.jvm.sandbox.api.event.ReturnEvent;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultInvocationProcessor;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.AccessorCache;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.HttpUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.util.LogUtil;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.Identity;
@@ -12,7 +13,6 @@ import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
 import com.alibaba.jvm.sandbox.repeater.plugin.okhttp.util.HttpOkUtil;
 import com.google.common.base.Joiner;
 import org.apache.commons.collections4.MapUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
@@ -45,10 +45,10 @@ public class OkhttpInvocationProcessor extends DefaultInvocationProcessor {
         // 真实对应的类okhttp3.Request
         Object request = this.getRequestFromEvent(event);
         try {
-            Object url =MethodUtils.invokeMethod(request, "url");
-            urlStr = HttpUtil.getPureUrL(MethodUtils.invokeMethod(url, "scheme"),
-                    MethodUtils.invokeMethod(url, "host"));
-            Collection<String>collection = (Collection<String>) MethodUtils.invokeMethod(url, "pathSegments");
+            Object url =AccessorCache.invokeMethod(request, "url");
+            urlStr = HttpUtil.getPureUrL(AccessorCache.invokeMethod(url, "scheme"),
+                    AccessorCache.invokeMethod(url, "host"));
+            Collection<String>collection = (Collection<String>) AccessorCache.invokeMethod(url, "pathSegments");
             if(collection !=null && collection.size() >0) {
                 urlStr = urlStr + joiner.join(collection);
             }
@@ -66,10 +66,10 @@ public class OkhttpInvocationProcessor extends DefaultInvocationProcessor {
         try {
             // 真实对应的类okhttp3.Request
             Object request = this.getRequestFromEvent(event);
-            Object url = MethodUtils.invokeMethod(request, "url");
-            Object method = MethodUtils.invokeMethod(request, "method");
-            Object header = MethodUtils.invokeMethod(request, "headers");
-            Object paramsStr = MethodUtils.invokeMethod(url, "query");
+            Object url = AccessorCache.invokeMethod(request, "url");
+            Object method = AccessorCache.invokeMethod(request, "method");
+            Object header = AccessorCache.invokeMethod(request, "headers");
+            Object paramsStr = AccessorCache.invokeMethod(url, "query");
 
             Map<String, Object> params = new HashMap<String, Object>();
             params.put("requestMethod", String.valueOf(method));
@@ -92,7 +92,7 @@ public class OkhttpInvocationProcessor extends DefaultInvocationProcessor {
         try {
             // Response intercept(Chain chain)
             Object realChain = event.argumentArray[0];
-            return MethodUtils.invokeMethod(realChain, "request");
+            return AccessorCache.invokeMethod(realChain, "request");
         }catch (Exception e){
             LogUtil.error("okhttp-plugin getRequestFromEvent error", e);
         }
@@ -114,12 +114,12 @@ public class OkhttpInvocationProcessor extends DefaultInvocationProcessor {
 
             try {
                 // 拷贝一份返回值
-                Object peekBody = MethodUtils.invokeMethod(response, "peekBody", PEEK_BODY_SIZE);
-                String responseBody = MethodUtils.invokeMethod(peekBody, "string").toString();
+                Object peekBody = AccessorCache.invokeMethod(response, "peekBody", PEEK_BODY_SIZE);
+                String responseBody = AccessorCache.invokeMethod(peekBody, "string").toString();
 
-                Object protocol = MethodUtils.invokeMethod(response, "protocol");
-                Object code = MethodUtils.invokeMethod(response, "code");
-                Object message = MethodUtils.invokeMethod(response, "message");
+                Object protocol = AccessorCache.invokeMethod(response, "protocol");
+                Object code = AccessorCache.invokeMethod(response, "code");
+                Object message = AccessorCache.invokeMethod(response, "message");
                 // 这里需要将header细化，以便后续好构造mock返回结果
                 Map<String, List<String>> headers = this.getResponseHeadersMap(response);
 
@@ -142,12 +142,12 @@ public class OkhttpInvocationProcessor extends DefaultInvocationProcessor {
     //
     private Map<String, List<String>> getResponseHeadersMap(Object response) throws Exception {
 
-        Object headers =  MethodUtils.invokeMethod(response, "headers");
+        Object headers =  AccessorCache.invokeMethod(response, "headers");
         if (headers == null){
             new HashMap<String, List<String>>();
         }
 
-        return (Map<String, List<String>>)MethodUtils.invokeMethod(headers, "toMultimap");
+        return (Map<String, List<String>>)AccessorCache.invokeMethod(headers, "toMultimap");
     }
 
     @Override
@@ -172,14 +172,14 @@ public class OkhttpInvocationProcessor extends DefaultInvocationProcessor {
                 LogUtil.error("okhttp-plugin get response stream error");
                 return new Object();
             }
-            MethodUtils.invokeMethod(buffer, "readFrom", inputStream);
+            AccessorCache.invokeMethod(buffer, "readFrom", inputStream);
             Class<?> realResponseBodyClass = event.javaClassLoader.loadClass("okhttp3.internal.http.RealResponseBody");
             Constructor<?>[] constructors = realResponseBodyClass.getConstructors();
             Object responseBody = constructors[0].newInstance("", responseContentLength, buffer);
             Class<?> protocolClass = event.javaClassLoader.loadClass("okhttp3.Protocol");
 
             // 构建返回协议
-            Object protocol = MethodUtils.invokeStaticMethod(protocolClass, "get", responseMap.get("responseProtocol"));
+            Object protocol = AccessorCache.invokeStaticMethod(protocolClass, "get", responseMap.get("responseProtocol"));
 
              Map<String, List<String>> responseHeaders = (Map<String, List<String>>)responseMap.get("responseHeaders");
 
@@ -189,16 +189,16 @@ public class OkhttpInvocationProcessor extends DefaultInvocationProcessor {
 
             // 构建返回对象response
             long currentTime = System.currentTimeMillis();
-            MethodUtils.invokeMethod(responseBuilder, "request", request);
-            MethodUtils.invokeMethod(responseBuilder, "protocol", protocol);
-            MethodUtils.invokeMethod(responseBuilder, "code", (Integer) responseMap.get("responseCode"));
-            MethodUtils.invokeMethod(responseBuilder, "message",  responseMap.get("responseMessage"));
-            MethodUtils.invokeMethod(responseBuilder, "body", responseBody);
-            MethodUtils.invokeMethod(responseBuilder, "sentRequestAtMillis", currentTime-1);
-            MethodUtils.invokeMethod(responseBuilder, "receivedResponseAtMillis", currentTime);
+            AccessorCache.invokeMethod(responseBuilder, "request", request);
+            AccessorCache.invokeMethod(responseBuilder, "protocol", protocol);
+            AccessorCache.invokeMethod(responseBuilder, "code", (Integer) responseMap.get("responseCode"));
+            AccessorCache.invokeMethod(responseBuilder, "message",  responseMap.get("responseMessage"));
+            AccessorCache.invokeMethod(responseBuilder, "body", responseBody);
+            AccessorCache.invokeMethod(responseBuilder, "sentRequestAtMillis", currentTime-1);
+            AccessorCache.invokeMethod(responseBuilder, "receivedResponseAtMillis", currentTime);
             this.mockResponseAddHeaders(responseBuilder, responseHeaders);
 
-            return MethodUtils.invokeMethod(responseBuilder, "build");
+            return AccessorCache.invokeMethod(responseBuilder, "build");
         }catch (Exception e){
             LogUtil.error("okhttp-plugin assembleMockResponse error, event={}",
                     event.javaClassName + "|" + event.javaMethodName, e);
@@ -218,7 +218,7 @@ public class OkhttpInvocationProcessor extends DefaultInvocationProcessor {
             String name = headerEntry.getKey();
             List<String> valueList = headerEntry.getValue();
             for (String value : valueList) {
-                MethodUtils.invokeMethod(responseBuilder, "addHeader", name, value);
+                AccessorCache.invokeMethod(responseBuilder, "addHeader", name, value);
             }
         }
     }
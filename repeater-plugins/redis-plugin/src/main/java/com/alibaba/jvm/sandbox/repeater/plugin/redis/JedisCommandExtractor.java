@@ -0,0 +1,76 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.redis;
+
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.CommandExtractor;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.util.AccessorCache;
+import org.apache.commons.lang3.ArrayUtils;
+
+import java.nio.charset.Charset;
+
+/**
+ * {@link JedisCommandExtractor} jedis命令提取
+ * <p>
+ * 所有Jedis操作最终都经过{@code Connection.sendCommand(ProtocolCommand, byte[]...)}发送，命令名从第一个参数（ProtocolCommand）中提取：
+ * 枚举（{@code Protocol.Command}）取枚举名，其他实现取{@code getRaw()}；{@link RedisPlugin}拦截的其他方法不是命令
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+class JedisCommandExtractor implements CommandExtractor {
+
+    static final String CONNECTION = "redis.clients.jedis.Connection";
+
+    static final String SEND_COMMAND = "sendCommand";
+
+    static final String[] SEND_COMMAND_PARAMETER_TYPES = new String[]{"redis.clients.jedis.commands.ProtocolCommand", "byte[][]"};
+
+    static final String CONNECT = "connect";
+
+    static final String FLUSH = "flush";
+
+    static final String READ_REPLY = "readProtocolWithCheckingBroken";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Override
+    public String extract(BeforeEvent event) {
+        if (!SEND_COMMAND.equals(event.javaMethodName) || ArrayUtils.isEmpty(event.argumentArray)) {
+            return null;
+        }
+        return command(event.argumentArray[0]);
+    }
+
+    /**
+     * 提取命令名
+     *
+     * @param protocolCommand sendCommand的第一个参数
+     * @return 命令名；无法识别时返回null
+     */
+    static String command(Object protocolCommand) {
+        if (protocolCommand == null) {
+            return null;
+        }
+        if (protocolCommand instanceof Enum) {
+            return ((Enum<?>) protocolCommand).name();
+        }
+        try {
+            Object raw = AccessorCache.invokeMethod(protocolCommand, "getRaw");
+            return raw instanceof byte[] ? new String((byte[]) raw, UTF_8) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * sendCommand的命令参数（不含命令名）
+     *
+     * @param event sendCommand的before事件
+     * @return 命令参数
+     */
+    static Object[] arguments(BeforeEvent event) {
+        if (event.argumentArray != null && event.argumentArray.length > 1 && event.argumentArray[1] instanceof Object[]) {
+            return (Object[]) event.argumentArray[1];
+        }
+        return new Object[0];
+    }
+}
@@ -0,0 +1,98 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.redis;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * {@link PendingCommands} 已发送、等待回复的命令
+ * <p>
+ * redis协议按发送顺序回复（pipeline/事务会先发送多条命令再依次读取），按连接维护先进先出队列：
+ * 录制时sendCommand入队，读取回复时出队并完成录制；回放时mock结果入队，读取回复时出队直接返回
+ * <p>
+ * 连接同一时间只被一个线程使用，队列挂在线程上，不需要加锁；连接作为弱引用key，连接被回收后队列一并释放
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+class PendingCommands {
+
+    /**
+     * 单个连接上最多等待回复的命令数，超过后丢弃最早的命令（只发送不读取回复的场景）
+     */
+    private final static int MAX_PENDING = 1024;
+
+    private final ThreadLocal<Map<Object, LinkedList<Invocation>>> pending = new ThreadLocal<Map<Object, LinkedList<Invocation>>>();
+
+    void offer(Object connection, Invocation invocation) {
+        Map<Object, LinkedList<Invocation>> connections = pending.get();
+        if (connections == null) {
+            connections = new WeakHashMap<Object, LinkedList<Invocation>>(4);
+            pending.set(connections);
+        }
+        LinkedList<Invocation> queue = connections.get(connection);
+        if (queue == null) {
+            queue = new LinkedList<Invocation>();
+            connections.put(connection, queue);
+        }
+        if (queue.size() >= MAX_PENDING) {
+            queue.removeFirst();
+        }
+        queue.addLast(invocation);
+    }
+
+    /**
+     * 取出最早发送的命令
+     *
+     * @param connection 连接
+     * @return 命令；没有等待回复的命令返回null
+     */
+    Invocation poll(Object connection) {
+        LinkedList<Invocation> queue = queue(connection);
+        if (queue == null) {
+            return null;
+        }
+        Invocation invocation = queue.removeFirst();
+        release(connection, queue);
+        return invocation;
+    }
+
+    /**
+     * 移除发送失败的命令；发送失败时命令一定在队尾
+     *
+     * @param connection 连接
+     * @param invocation 命令
+     * @return 是否移除
+     */
+    boolean removeLast(Object connection, Invocation invocation) {
+        LinkedList<Invocation> queue = queue(connection);
+        if (queue == null || queue.getLast() != invocation) {
+            return false;
+        }
+        queue.removeLast();
+        release(connection, queue);
+        return true;
+    }
+
+    boolean isPending(Object connection) {
+        return queue(connection) != null;
+    }
+
+    private LinkedList<Invocation> queue(Object connection) {
+        Map<Object, LinkedList<Invocation>> connections = pending.get();
+        return connections == null || connection == null ? null : connections.get(connection);
+    }
+
+    private void release(Object connection, LinkedList<Invocation> queue) {
+        if (!queue.isEmpty()) {
+            return;
+        }
+        Map<Object, LinkedList<Invocation>> connections = pending.get();
+        connections.remove(connection);
+        if (connections.isEmpty()) {
+            pending.remove();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.redis;
+
+import com.alibaba.jvm.sandbox.api.ProcessControlException;
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+import com.alibaba.jvm.sandbox.api.event.ReturnEvent;
+import com.alibaba.jvm.sandbox.api.event.ThrowsEvent;
+import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationListener;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.cache.RecordCache;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultEventListener;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.trace.Tracer;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.wrapper.SnapshotWrapper;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
+
+/**
+ * {@link RedisEventListener} redis连接上的事件监听
+ * <p>
+ * 一条命令由sendCommand发送、readProtocolWithCheckingBroken读取回复，两次调用之间可能穿插其他命令（pipeline/事务）；
+ * sendCommand组装调用并按连接排队，读取回复时按发送顺序取出完成录制
+ * <p>
+ * 只处理最外层事件：connect中的AUTH/SELECT、sendCommand内触发的重连都是嵌套调用，不会被录制或mock
+ * <p>
+ * 回放时sendCommand直接返回，flush跳过，读取回复时返回mock结果；录制到的异常在sendCommand时抛出
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+class RedisEventListener extends DefaultEventListener {
+
+    private final PendingCommands pending;
+
+    /**
+     * 当前线程上正在执行的最外层调用；最外层事件不会嵌套，return/throw事件按invokeId对应
+     */
+    private final ThreadLocal<Frame> frame = new ThreadLocal<Frame>();
+
+    RedisEventListener(InvokeType invokeType, boolean entrance, InvocationListener listener, RedisProcessor processor) {
+        super(invokeType, entrance, listener, processor);
+        this.pending = processor.pending;
+    }
+
+    @Override
+    protected void doBefore(BeforeEvent event) throws ProcessControlException {
+        if (JedisCommandExtractor.SEND_COMMAND.equals(event.javaMethodName)) {
+            // 回放流量在这里mock，RedisProcessor暂存mock结果
+            super.doBefore(event);
+            Invocation invocation = RecordCache.removeInvocation(event.invokeId);
+            if (invocation != null) {
+                pending.offer(event.target, invocation);
+                frame.set(new Frame(event.invokeId, true, event.target, invocation));
+            }
+            return;
+        }
+        if (Tracer.isRepeatFlow()) {
+            doMockReply(event);
+            return;
+        }
+        if (JedisCommandExtractor.READ_REPLY.equals(event.javaMethodName)) {
+            Invocation invocation = pending.poll(event.target);
+            if (invocation != null) {
+                frame.set(new Frame(event.invokeId, false, event.target, invocation));
+            }
+        }
+    }
+
+    private void doMockReply(BeforeEvent event) throws ProcessControlException {
+        if (JedisCommandExtractor.FLUSH.equals(event.javaMethodName)) {
+            if (pending.isPending(event.target)) {
+                ProcessControlException.throwReturnImmediately(null);
+            }
+        } else if (JedisCommandExtractor.READ_REPLY.equals(event.javaMethodName)) {
+            Invocation invocation = pending.poll(event.target);
+            if (invocation != null) {
+                ProcessControlException.throwReturnImmediately(invocation.getResponse());
+            }
+        }
+    }
+
+    @Override
+    protected void doReturn(ReturnEvent event) {
+        Frame current = take(event.invokeId);
+        // sendCommand返回时命令还没有回复
+        if (current == null || current.send) {
+            return;
+        }
+        current.invocation.setResponse(processor.assembleResponse(event));
+        finish(current.invocation);
+    }
+
+    @Override
+    protected void doThrow(ThrowsEvent event) {
+        Frame current = take(event.invokeId);
+        if (current == null || (current.send && !pending.removeLast(current.connection, current.invocation))) {
+            return;
+        }
+        current.invocation.setThrowable(processor.assembleThrowable(event));
+        finish(current.invocation);
+    }
+
+    private Frame take(int invokeId) {
+        Frame current = frame.get();
+        if (current == null || current.invokeId != invokeId) {
+            return null;
+        }
+        frame.remove();
+        return current;
+    }
+
+    private void finish(Invocation invocation) {
+        invocation.setEnd(System.currentTimeMillis());
+        SnapshotWrapper.capture(invocation, processor);
+        listener.onInvocation(invocation);
+    }
+
+    private static final class Frame {
+
+        private final int invokeId;
+
+        private final boolean send;
+
+        private final Object connection;
+
+        private final Invocation invocation;
+
+        private Frame(int invokeId, boolean send, Object connection, Invocation invocation) {
+            this.invokeId = invokeId;
+            this.send = send;
+            this.connection = connection;
+            this.invocation = invocation;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RedisEventListener:invokeType=" + invokeType;
+    }
+}
@@ -1,23 +1,27 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.redis;
 
 import com.alibaba.jvm.sandbox.api.event.Event;
-import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationProcessor;
+import com.alibaba.jvm.sandbox.api.listener.EventListener;
+import com.alibaba.jvm.sandbox.repeater.plugin.api.InvocationListener;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.AbstractInvokePluginAdapter;
 import com.alibaba.jvm.sandbox.repeater.plugin.core.model.EnhanceModel;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
 import com.alibaba.jvm.sandbox.repeater.plugin.spi.InvokePlugin;
 import com.google.common.collect.Lists;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.kohsuke.MetaInfServices;
-import java.util.*;
+import java.util.List;
 
 /**
  * {@link RedisPlugin} jedis的java插件
  * <p>
- * 拦截{@code redis.clients.jedis.commands}包下面的commands实现类
- *
- * 获取redis常用操作指令，不包括所有命令
- * 详见Jedis类、BinaryJedis类的实现接口
+ * 所有Jedis操作（包括BinaryJedis、pipeline、事务、集群）最终都经过{@code redis.clients.jedis.Connection}发送命令和读取回复，
+ * 插件只拦截连接上的一个发送点{@code sendCommand(ProtocolCommand, byte[]...)}，命令名由{@link JedisCommandExtractor}从参数中提取，
+ * 不再为Jedis/BinaryJedis的每个命令方法注册匹配器
+ * <p>
+ * 同时拦截读取回复（readProtocolWithCheckingBroken）、flush和connect：回复在发送之后读取，由{@link RedisEventListener}按连接配对；
+ * 建连时发送的AUTH/SELECT嵌套在connect中，只录制最外层的发送
  * </p>
  *
  * @author zhaoyb1990
@@ -27,340 +31,33 @@ public class RedisPlugin extends AbstractInvokePluginAdapter {
 
     @Override
     protected List<EnhanceModel> getEnhanceModels() {
-        EnhanceModel jedis = EnhanceModel.builder()
-                .classPattern("redis.clients.jedis.Jedis")
-                .methodPatterns(EnhanceModel.MethodPattern.transform(
-                        "zcount",
-                        "sunionstore",
-                        "zunionstore",
-                        "del",
-                        "echo",
-                        "hscan",
-                        "zinterstore",
-                        "psubscribe",
-                        "type",
-                        "sinterstore",
-                        "xrevrange",
-                        "setex",
-                        "xadd",
-                        "zlexcount",
-                        "brpoplpush",
-                        "bitcount",
-                        "llen",
-                        "zscan",
-                        "lpushx",
-                        "bitpos",
-                        "setnx",
-                        "xack",
-                        "hvals",
-                        "evalsha",
-                        "substr",
-                        "randomKey",
-                        "geodist",
-                        "zrangeByLex",
-                        "geoadd",
-                        "expire",
-                        "bitop",
-                        "zrangeByScore",
-                        "smove",
-                        "lset",
-                        "decrBy",
-                        "pttl",
-                        "scan",
-                        "zrank",
-                        "xtrim",
-                        "blpop",
-                        "zremrangeByLex",
-                        "rpoplpush",
-                        "get",
-                        "lpop",
-                        "persist",
-                        "georadius",
-                        "scriptExists",
-                        "set",
-                        "srandmember",
-                        "incr",
-                        "setbit",
-                        "hexists",
-                        "expireAt",
-                        "pexpire",
-                        "zcard",
-                        "bitfield",
-                        "zrevrangeByLex",
-                        "sinter",
-                        "srem",
-                        "getrange",
-                        "rename",
-                        "watch",
-                        "zrevrank",
-                        "exists",
-                        "setrange",
-                        "zremrangeByRank",
-                        "sadd",
-                        "sdiff",
-                        "zrevrange",
-                        "unwatch",
-                        "getbit",
-                        "scard",
-                        "sdiffstore",
-                        "zrevrangeByScore",
-                        "zincrby",
-                        "rpushx",
-                        "psetex",
-                        "strlen",
-                        "zrevrangeWithScores",
-                        "hdel",
-                        "zremrangeByScore",
-                        "geohash",
-                        "xgroupDestroy",
-                        "brpop",
-                        "lrem",
-                        "hlen",
-                        "decr",
-                        "scriptLoad",
-                        "lpush",
-                        "lindex",
-                        "zrange",
-                        "incrBy",
-                        "getSet",
-                        "xlen",
-                        "ltrim",
-                        "georadiusReadonly",
-                        "touch",
-                        "incrByFloat",
-                        "rpop",
-                        "sort",
-                        "xdel",
-                        "zrevrangeByScoreWithScores",
-                        "xreadGroup",
-                        "xclaim",
-                        "pfadd",
-                        "eval",
-                        "linsert",
-                        "pfcount",
-                        "hkeys",
-                        "hsetnx",
-                        "hincrBy",
-                        "xpending",
-                        "hgetAll",
-                        "xgroupSetID",
-                        "georadiusByMemberReadonly",
-                        "keys",
-                        "restoreReplace",
-                        "hset",
-                        "spop",
-                        "zrangeWithScores",
-                        "hincrByFloat",
-                        "hmset",
-                        "renamenx",
-                        "zrem",
-                        "dump",
-                        "msetnx",
-                        "hmget",
-                        "sunion",
-                        "hget",
-                        "xread",
-                        "zadd",
-                        "move",
-                        "restore",
-                        "geopos",
-                        "subscribe",
-                        "mset",
-                        "zrangeByScoreWithScores",
-                        "zscore",
-                        "pexpireAt",
-                        "georadiusByMember",
-                        "ttl",
-                        "lrange",
-                        "hstrlen",
-                        "smembers",
-                        "xgroupCreate",
-                        "unlink",
-                        "pfmerge",
-                        "rpush",
-                        "publish",
-                        "sscan",
-                        "mget",
-                        "xrange",
-                        "append",
-                        "sismember",
-                        "xgroupDelConsumer",
-                        "sismember"
-                ))
-                .watchTypes(Event.Type.BEFORE, Event.Type.RETURN, Event.Type.THROWS)
+        // 拦截redis.clients.jedis.Connection#sendCommand(ProtocolCommand cmd, byte[]... args)
+        EnhanceModel.MethodPattern send = EnhanceModel.MethodPattern.builder()
+                .methodName(JedisCommandExtractor.SEND_COMMAND)
+                .parameterType(JedisCommandExtractor.SEND_COMMAND_PARAMETER_TYPES)
                 .build();
-        EnhanceModel binaryJedis = EnhanceModel.builder()
-                .classPattern("redis.clients.jedis.BinaryJedis")
-                .methodPatterns(EnhanceModel.MethodPattern.transform(
-                        "zcount",
-                        "sunionstore",
-                        "scriptKill",
-                        "zunionstore",
-                        "del",
-                        "echo",
-                        "hscan",
-                        "zinterstore",
-                        "psubscribe",
-                        "type",
-                        "sinterstore",
-                        "xrevrange",
-                        "setex",
-                        "xadd",
-                        "zlexcount",
-                        "brpoplpush",
-                        "bitcount",
-                        "llen",
-                        "zscan",
-                        "lpushx",
-                        "setnx",
-                        "xack",
-                        "hvals",
-                        "evalsha",
-                        "substr",
-                        "geodist",
-                        "zrangeByLex",
-                        "geoadd",
-                        "expire",
-                        "bitop",
-                        "zrangeByScore",
-                        "smove",
-                        "lset",
-                        "decrBy",
-                        "pttl",
-                        "scriptFlush",
-                        "zrank",
-                        "xtrim",
-                        "blpop",
-                        "zremrangeByLex",
-                        "rpoplpush",
-                        "get",
-                        "lpop",
-                        "persist",
-                        "georadius",
-                        "scriptExists",
-                        "set",
-                        "srandmember",
-                        "incr",
-                        "setbit",
-                        "hexists",
-                        "expireAt",
-                        "pexpire",
-                        "zcard",
-                        "bitfield",
-                        "zrevrangeByLex",
-                        "sinter",
-                        "srem",
-                        "getrange",
-                        "rename",
-                        "watch",
-                        "zrevrank",
-                        "exists",
-                        "setrange",
-                        "zremrangeByRank",
-                        "sadd",
-                        "sdiff",
-                        "zrevrange",
-                        "unwatch",
-                        "getbit",
-                        "scard",
-                        "sdiffstore",
-                        "zrevrangeByScore",
-                        "zincrby",
-                        "rpushx",
-                        "psetex",
-                        "strlen",
-                        "zrevrangeWithScores",
-                        "hdel",
-                        "zremrangeByScore",
-                        "geohash",
-                        "xgroupDestroy",
-                        "brpop",
-                        "lrem",
-                        "hlen",
-                        "decr",
-                        "scriptLoad",
-                        "lpush",
-                        "lindex",
-                        "zrange",
-                        "incrBy",
-                        "getSet",
-                        "xlen",
-                        "ltrim",
-                        "georadiusReadonly",
-                        "touch",
-                        "incrByFloat",
-                        "rpop",
-                        "sort",
-                        "xdel",
-                        "zrevrangeByScoreWithScores",
-                        "xreadGroup",
-                        "xclaim",
-                        "pfadd",
-                        "eval",
-                        "linsert",
-                        "pfcount",
-                        "hkeys",
-                        "hsetnx",
-                        "hincrBy",
-                        "xpending",
-                        "hgetAll",
-                        "xgroupSetID",
-                        "georadiusByMemberReadonly",
-                        "keys",
-                        "restoreReplace",
-                        "hset",
-                        "spop",
-                        "randomBinaryKey",
-                        "zrangeWithScores",
-                        "hincrByFloat",
-                        "hmset",
-                        "renamenx",
-                        "zrem",
-                        "dump",
-                        "msetnx",
-                        "hmget",
-                        "sunion",
-                        "hget",
-                        "xread",
-                        "zadd",
-                        "move",
-                        "restore",
-                        "geopos",
-                        "subscribe",
-                        "mset",
-                        "zrangeByScoreWithScores",
-                        "zscore",
-                        "pexpireAt",
-                        "georadiusByMember",
-                        "ttl",
-                        "lrange",
-                        "hstrlen",
-                        "smembers",
-                        "xgroupCreate",
-                        "unlink",
-                        "pfmerge",
-                        "rpush",
-                        "publish",
-                        "sscan",
-                        "mget",
-                        "xrange",
-                        "append",
-                        "sismember",
-                        "xgroupDelConsumer",
-                        "sismember"
-
-                ))
+        EnhanceModel.MethodPattern[] connectionPatterns = EnhanceModel.MethodPattern.transform(
+                JedisCommandExtractor.READ_REPLY, JedisCommandExtractor.FLUSH, JedisCommandExtractor.CONNECT);
+        EnhanceModel connection = EnhanceModel.builder()
+                .classPattern(JedisCommandExtractor.CONNECTION)
+                .methodPatterns(ArrayUtils.add(connectionPatterns, 0, send))
+                // BinaryClient重写了connect，在其中发送AUTH/SELECT
+                .includeSubClasses(true)
                 .watchTypes(Event.Type.BEFORE, Event.Type.RETURN, Event.Type.THROWS)
                 .build();
-        return Lists.newArrayList(jedis, binaryJedis);
+        return Lists.newArrayList(connection);
     }
 
-
     @Override
-    protected InvocationProcessor getInvocationProcessor() {
+    protected RedisProcessor getInvocationProcessor() {
         return new RedisProcessor(getType());
     }
 
+    @Override
+    protected EventListener getEventListener(InvocationListener listener) {
+        return new RedisEventListener(getType(), isEntrance(), listener, getInvocationProcessor());
+    }
+
     @Override
     public InvokeType getType() {
         return InvokeType.REDIS;
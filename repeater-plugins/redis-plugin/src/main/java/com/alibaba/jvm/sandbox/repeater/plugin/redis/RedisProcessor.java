@@ -1,18 +1,36 @@
 package com.alibaba.jvm.sandbox.repeater.plugin.redis;
 
-import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.DefaultInvocationProcessor;
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.impl.api.CommandInvocationProcessor;
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
 import com.alibaba.jvm.sandbox.repeater.plugin.domain.InvokeType;
 
 /**
  * {@link RedisProcessor}
  * <p>
+ * 请求为sendCommand的命令参数，返回值为读取到的原始回复（byte[]/Long/List）；
+ * 回放时sendCommand不发送，mock结果暂存到{@link PendingCommands}，读取回复时返回
+ * </p>
  *
  * @author zhaoyb1990
  */
-class RedisProcessor extends DefaultInvocationProcessor {
+class RedisProcessor extends CommandInvocationProcessor {
+
+    final PendingCommands pending = new PendingCommands();
 
     RedisProcessor(InvokeType type) {
-        super(type);
+        super(type, new JedisCommandExtractor());
+    }
+
+    @Override
+    public Object[] assembleRequest(BeforeEvent event) {
+        return JedisCommandExtractor.arguments(event);
     }
 
+    @Override
+    public Object assembleMockResponse(BeforeEvent event, Invocation invocation) {
+        pending.offer(event.target, invocation);
+        // 2.x的sendCommand返回连接本身，3.x返回void
+        return event.target;
+    }
 }
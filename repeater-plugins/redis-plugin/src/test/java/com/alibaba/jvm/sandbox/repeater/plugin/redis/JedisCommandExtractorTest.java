@@ -0,0 +1,52 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.redis;
+
+import com.alibaba.jvm.sandbox.api.event.BeforeEvent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.commands.ProtocolCommand;
+
+import java.nio.charset.Charset;
+
+/**
+ * {@link JedisCommandExtractor}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class JedisCommandExtractorTest {
+
+    private static final String SEND_DESC = "(Lredis/clients/jedis/commands/ProtocolCommand;[[B)V";
+
+    private final JedisCommandExtractor extractor = new JedisCommandExtractor();
+
+    @Test
+    public void commandFromProtocolCommand() {
+        byte[][] args = new byte[][]{"key".getBytes(Charset.forName("UTF-8"))};
+        BeforeEvent event = before("sendCommand", Protocol.Command.HGETALL, args);
+        Assert.assertEquals(extractor.extract(event), "HGETALL");
+        Assert.assertSame(JedisCommandExtractor.arguments(event), args);
+    }
+
+    @Test
+    public void commandFromRaw() {
+        ProtocolCommand module = new ProtocolCommand() {
+            @Override
+            public byte[] getRaw() {
+                return "BF.ADD".getBytes(Charset.forName("UTF-8"));
+            }
+        };
+        Assert.assertEquals(extractor.extract(before("sendCommand", module, new byte[0][])), "BF.ADD");
+    }
+
+    @Test
+    public void nonCommand() {
+        Assert.assertNull(extractor.extract(new BeforeEvent(1, 1, null, JedisCommandExtractor.CONNECTION, "flush", "()V", null, new Object[0])));
+        Assert.assertNull(extractor.extract(before("sendCommand", null, new byte[0][])));
+        Assert.assertEquals(JedisCommandExtractor.arguments(new BeforeEvent(1, 1, null, JedisCommandExtractor.CONNECTION, "flush", "()V", null, new Object[0])).length, 0);
+    }
+
+    private BeforeEvent before(String method, Object command, byte[][] args) {
+        return new BeforeEvent(1, 1, null, JedisCommandExtractor.CONNECTION, method, SEND_DESC, null, new Object[]{command, args});
+    }
+}
@@ -0,0 +1,59 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.redis;
+
+import com.alibaba.jvm.sandbox.repeater.plugin.domain.Invocation;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * {@link PendingCommands}
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class PendingCommandsTest {
+
+    @Test
+    public void pipelineRepliesInSendOrder() {
+        PendingCommands pending = new PendingCommands();
+        Object connection = new Object();
+        Object other = new Object();
+        Invocation first = new Invocation();
+        Invocation second = new Invocation();
+        Invocation another = new Invocation();
+        pending.offer(connection, first);
+        pending.offer(other, another);
+        pending.offer(connection, second);
+        Assert.assertSame(pending.poll(connection), first);
+        Assert.assertSame(pending.poll(other), another);
+        Assert.assertFalse(pending.isPending(other));
+        Assert.assertSame(pending.poll(connection), second);
+        Assert.assertNull(pending.poll(connection));
+        Assert.assertFalse(pending.isPending(connection));
+    }
+
+    @Test
+    public void removeFailedSend() {
+        PendingCommands pending = new PendingCommands();
+        Object connection = new Object();
+        Invocation sent = new Invocation();
+        Invocation failed = new Invocation();
+        pending.offer(connection, sent);
+        pending.offer(connection, failed);
+        Assert.assertFalse(pending.removeLast(connection, sent));
+        Assert.assertTrue(pending.removeLast(connection, failed));
+        Assert.assertSame(pending.poll(connection), sent);
+        Assert.assertFalse(pending.removeLast(connection, sent));
+    }
+
+    @Test
+    public void boundedPerConnection() {
+        PendingCommands pending = new PendingCommands();
+        Object connection = new Object();
+        Invocation first = new Invocation();
+        pending.offer(connection, first);
+        for (int i = 0; i < 1024; i++) {
+            pending.offer(connection, new Invocation());
+        }
+        Assert.assertNotSame(pending.poll(connection), first);
+    }
+}
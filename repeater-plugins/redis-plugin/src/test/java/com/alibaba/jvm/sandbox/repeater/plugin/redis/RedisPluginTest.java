@@ -0,0 +1,151 @@
+package com.alibaba.jvm.sandbox.repeater.plugin.redis;
+
+import com.alibaba.jvm.sandbox.api.event.Event;
+import com.alibaba.jvm.sandbox.repeater.plugin.core.model.EnhanceModel;
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.ArrayUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import redis.clients.jedis.BinaryClient;
+import redis.clients.jedis.BinaryJedis;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.commands.ProtocolCommand;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link RedisPlugin}
+ * <p>
+ * 对比按命令方法逐个注册匹配器（每个Jedis类一个命令方法一个匹配器）和只拦截Connection发送点两种增强方式的匹配器数量和挂载开销；
+ * 挂载开销按sandbox的匹配方式计算：被匹配类的每个方法依次和匹配器比较（comparisons），匹配成功的方法会被织入（woven）
+ * </p>
+ *
+ * @author zhaoyb1990
+ */
+public class RedisPluginTest {
+
+    private static final Class<?>[] LOADED = new Class<?>[]{Connection.class, BinaryClient.class, Client.class, BinaryJedis.class, Jedis.class};
+
+    @Test
+    public void singlePointEnhancement() {
+        Enhancement perMethod = enhance(perMethodModels());
+        Enhancement singlePoint = enhance(new RedisPlugin().getEnhanceModels());
+
+        // 逐个方法注册时匹配器数量随命令数量增长，发送点方式固定为4个
+        Assert.assertEquals(perMethod.matchers, commands(Jedis.class).length + commands(BinaryJedis.class).length);
+        Assert.assertEquals(singlePoint.matchers, 4);
+
+        Assert.assertEquals(perMethod.woven, perMethod.matchers);
+        // Connection的sendCommand(byte[][])/connect/flush/readProtocolWithCheckingBroken + BinaryClient的connect
+        Assert.assertEquals(singlePoint.woven, 5);
+        Assert.assertTrue(singlePoint.woven * 10 < perMethod.woven, perMethod + " vs " + singlePoint);
+        // 逐个方法注册时比较次数是方法数*匹配器数（随命令数平方增长），发送点方式随连接类的方法数线性增长
+        Assert.assertTrue(singlePoint.comparisons * 4 < perMethod.comparisons, perMethod + " vs " + singlePoint);
+    }
+
+    @Test
+    public void sendCommandPatternMatchesByteArrayOverload() throws Exception {
+        EnhanceModel model = new RedisPlugin().getEnhanceModels().get(0);
+        Method bytes = Connection.class.getMethod("sendCommand", ProtocolCommand.class, byte[][].class);
+        Method strings = Connection.class.getMethod("sendCommand", ProtocolCommand.class, String[].class);
+        Assert.assertTrue(matches(model.getMethodPatterns()[0], bytes));
+        Assert.assertFalse(matches(model.getMethodPatterns()[0], strings));
+    }
+
+    /**
+     * 按命令方法逐个注册匹配器的增强方式
+     */
+    private List<EnhanceModel> perMethodModels() {
+        List<EnhanceModel> models = Lists.newArrayList();
+        for (Class<?> clazz : new Class<?>[]{Jedis.class, BinaryJedis.class}) {
+            models.add(EnhanceModel.builder()
+                    .classPattern(clazz.getName())
+                    .methodPatterns(EnhanceModel.MethodPattern.transform(commands(clazz)))
+                    .watchTypes(Event.Type.BEFORE, Event.Type.RETURN, Event.Type.THROWS)
+                    .build());
+        }
+        return models;
+    }
+
+    private String[] commands(Class<?> clazz) {
+        List<String> commands = new ArrayList<String>();
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers())) {
+                commands.add(method.getName());
+            }
+        }
+        return commands.toArray(new String[0]);
+    }
+
+    private Enhancement enhance(List<EnhanceModel> models) {
+        Enhancement enhancement = new Enhancement();
+        for (EnhanceModel model : models) {
+            enhancement.matchers += model.getMethodPatterns().length;
+            for (Class<?> clazz : LOADED) {
+                if (!matches(model, clazz)) {
+                    continue;
+                }
+                for (Method method : clazz.getDeclaredMethods()) {
+                    for (EnhanceModel.MethodPattern pattern : model.getMethodPatterns()) {
+                        enhancement.comparisons++;
+                        if (matches(pattern, method)) {
+                            enhancement.woven++;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return enhancement;
+    }
+
+    private boolean matches(EnhanceModel model, Class<?> clazz) {
+        if (model.isIncludeSubClasses()) {
+            for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+                if (type.getName().equals(model.getClassPattern())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return clazz.getName().equals(model.getClassPattern());
+    }
+
+    private boolean matches(EnhanceModel.MethodPattern pattern, Method method) {
+        if (!pattern.getMethodName().equals(method.getName())) {
+            return false;
+        }
+        if (ArrayUtils.isEmpty(pattern.getParameterType())) {
+            return true;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        if (types.length != pattern.getParameterType().length) {
+            return false;
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (!types[i].getCanonicalName().equals(pattern.getParameterType()[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Enhancement {
+
+        private int matchers;
+
+        private int comparisons;
+
+        private int woven;
+
+        @Override
+        public String toString() {
+            return "matchers=" + matchers + ",comparisons=" + comparisons + ",woven=" + woven;
+        }
+    }
+}
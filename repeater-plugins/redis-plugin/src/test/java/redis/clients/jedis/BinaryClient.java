@@ -0,0 +1,187 @@
+package redis.clients.jedis;
+
+/**
+ * 测试用的Jedis桩，只保留插件关心的结构
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class BinaryClient extends Connection {
+
+    private String password;
+
+    @Override
+    public void connect() {
+        if (!isConnected()) {
+            super.connect();
+            if (password != null) {
+                sendCommand(Protocol.Command.AUTH, password);
+                getStatusCodeReply();
+            }
+        }
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public void get(byte[] key) {
+        sendCommand(Protocol.Command.GET, key);
+    }
+
+    public void set(byte[] key) {
+        sendCommand(Protocol.Command.SET, key);
+    }
+
+    public void del(byte[] key) {
+        sendCommand(Protocol.Command.DEL, key);
+    }
+
+    public void exists(byte[] key) {
+        sendCommand(Protocol.Command.EXISTS, key);
+    }
+
+    public void expire(byte[] key) {
+        sendCommand(Protocol.Command.EXPIRE, key);
+    }
+
+    public void ttl(byte[] key) {
+        sendCommand(Protocol.Command.TTL, key);
+    }
+
+    public void incr(byte[] key) {
+        sendCommand(Protocol.Command.INCR, key);
+    }
+
+    public void decr(byte[] key) {
+        sendCommand(Protocol.Command.DECR, key);
+    }
+
+    public void incrBy(byte[] key) {
+        sendCommand(Protocol.Command.INCRBY, key);
+    }
+
+    public void decrBy(byte[] key) {
+        sendCommand(Protocol.Command.DECRBY, key);
+    }
+
+    public void append(byte[] key) {
+        sendCommand(Protocol.Command.APPEND, key);
+    }
+
+    public void strlen(byte[] key) {
+        sendCommand(Protocol.Command.STRLEN, key);
+    }
+
+    public void getSet(byte[] key) {
+        sendCommand(Protocol.Command.GETSET, key);
+    }
+
+    public void setnx(byte[] key) {
+        sendCommand(Protocol.Command.SETNX, key);
+    }
+
+    public void setex(byte[] key) {
+        sendCommand(Protocol.Command.SETEX, key);
+    }
+
+    public void mget(byte[] key) {
+        sendCommand(Protocol.Command.MGET, key);
+    }
+
+    public void mset(byte[] key) {
+        sendCommand(Protocol.Command.MSET, key);
+    }
+
+    public void hget(byte[] key) {
+        sendCommand(Protocol.Command.HGET, key);
+    }
+
+    public void hset(byte[] key) {
+        sendCommand(Protocol.Command.HSET, key);
+    }
+
+    public void hdel(byte[] key) {
+        sendCommand(Protocol.Command.HDEL, key);
+    }
+
+    public void hgetAll(byte[] key) {
+        sendCommand(Protocol.Command.HGETALL, key);
+    }
+
+    public void hkeys(byte[] key) {
+        sendCommand(Protocol.Command.HKEYS, key);
+    }
+
+    public void hvals(byte[] key) {
+        sendCommand(Protocol.Command.HVALS, key);
+    }
+
+    public void hlen(byte[] key) {
+        sendCommand(Protocol.Command.HLEN, key);
+    }
+
+    public void hexists(byte[] key) {
+        sendCommand(Protocol.Command.HEXISTS, key);
+    }
+
+    public void lpush(byte[] key) {
+        sendCommand(Protocol.Command.LPUSH, key);
+    }
+
+    public void rpush(byte[] key) {
+        sendCommand(Protocol.Command.RPUSH, key);
+    }
+
+    public void lpop(byte[] key) {
+        sendCommand(Protocol.Command.LPOP, key);
+    }
+
+    public void rpop(byte[] key) {
+        sendCommand(Protocol.Command.RPOP, key);
+    }
+
+    public void llen(byte[] key) {
+        sendCommand(Protocol.Command.LLEN, key);
+    }
+
+    public void lrange(byte[] key) {
+        sendCommand(Protocol.Command.LRANGE, key);
+    }
+
+    public void sadd(byte[] key) {
+        sendCommand(Protocol.Command.SADD, key);
+    }
+
+    public void srem(byte[] key) {
+        sendCommand(Protocol.Command.SREM, key);
+    }
+
+    public void smembers(byte[] key) {
+        sendCommand(Protocol.Command.SMEMBERS, key);
+    }
+
+    public void sismember(byte[] key) {
+        sendCommand(Protocol.Command.SISMEMBER, key);
+    }
+
+    public void scard(byte[] key) {
+        sendCommand(Protocol.Command.SCARD, key);
+    }
+
+    public void zadd(byte[] key) {
+        sendCommand(Protocol.Command.ZADD, key);
+    }
+
+    public void zrem(byte[] key) {
+        sendCommand(Protocol.Command.ZREM, key);
+    }
+
+    public void zrange(byte[] key) {
+        sendCommand(Protocol.Command.ZRANGE, key);
+    }
+
+    public void zscore(byte[] key) {
+        sendCommand(Protocol.Command.ZSCORE, key);
+    }
+}
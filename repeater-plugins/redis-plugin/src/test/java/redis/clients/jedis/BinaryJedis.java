@@ -0,0 +1,212 @@
+package redis.clients.jedis;
+
+/**
+ * 测试用的Jedis桩，只保留插件关心的结构
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class BinaryJedis {
+
+    protected final Client client = new Client();
+
+    public Object get(byte[] key) {
+        client.get(key);
+        return client.getOne();
+    }
+
+    public Object set(byte[] key) {
+        client.set(key);
+        return client.getOne();
+    }
+
+    public Object del(byte[] key) {
+        client.del(key);
+        return client.getOne();
+    }
+
+    public Object exists(byte[] key) {
+        client.exists(key);
+        return client.getOne();
+    }
+
+    public Object expire(byte[] key) {
+        client.expire(key);
+        return client.getOne();
+    }
+
+    public Object ttl(byte[] key) {
+        client.ttl(key);
+        return client.getOne();
+    }
+
+    public Object incr(byte[] key) {
+        client.incr(key);
+        return client.getOne();
+    }
+
+    public Object decr(byte[] key) {
+        client.decr(key);
+        return client.getOne();
+    }
+
+    public Object incrBy(byte[] key) {
+        client.incrBy(key);
+        return client.getOne();
+    }
+
+    public Object decrBy(byte[] key) {
+        client.decrBy(key);
+        return client.getOne();
+    }
+
+    public Object append(byte[] key) {
+        client.append(key);
+        return client.getOne();
+    }
+
+    public Object strlen(byte[] key) {
+        client.strlen(key);
+        return client.getOne();
+    }
+
+    public Object getSet(byte[] key) {
+        client.getSet(key);
+        return client.getOne();
+    }
+
+    public Object setnx(byte[] key) {
+        client.setnx(key);
+        return client.getOne();
+    }
+
+    public Object setex(byte[] key) {
+        client.setex(key);
+        return client.getOne();
+    }
+
+    public Object mget(byte[] key) {
+        client.mget(key);
+        return client.getOne();
+    }
+
+    public Object mset(byte[] key) {
+        client.mset(key);
+        return client.getOne();
+    }
+
+    public Object hget(byte[] key) {
+        client.hget(key);
+        return client.getOne();
+    }
+
+    public Object hset(byte[] key) {
+        client.hset(key);
+        return client.getOne();
+    }
+
+    public Object hdel(byte[] key) {
+        client.hdel(key);
+        return client.getOne();
+    }
+
+    public Object hgetAll(byte[] key) {
+        client.hgetAll(key);
+        return client.getOne();
+    }
+
+    public Object hkeys(byte[] key) {
+        client.hkeys(key);
+        return client.getOne();
+    }
+
+    public Object hvals(byte[] key) {
+        client.hvals(key);
+        return client.getOne();
+    }
+
+    public Object hlen(byte[] key) {
+        client.hlen(key);
+        return client.getOne();
+    }
+
+    public Object hexists(byte[] key) {
+        client.hexists(key);
+        return client.getOne();
+    }
+
+    public Object lpush(byte[] key) {
+        client.lpush(key);
+        return client.getOne();
+    }
+
+    public Object rpush(byte[] key) {
+        client.rpush(key);
+        return client.getOne();
+    }
+
+    public Object lpop(byte[] key) {
+        client.lpop(key);
+        return client.getOne();
+    }
+
+    public Object rpop(byte[] key) {
+        client.rpop(key);
+        return client.getOne();
+    }
+
+    public Object llen(byte[] key) {
+        client.llen(key);
+        return client.getOne();
+    }
+
+    public Object lrange(byte[] key) {
+        client.lrange(key);
+        return client.getOne();
+    }
+
+    public Object sadd(byte[] key) {
+        client.sadd(key);
+        return client.getOne();
+    }
+
+    public Object srem(byte[] key) {
+        client.srem(key);
+        return client.getOne();
+    }
+
+    public Object smembers(byte[] key) {
+        client.smembers(key);
+        return client.getOne();
+    }
+
+    public Object sismember(byte[] key) {
+        client.sismember(key);
+        return client.getOne();
+    }
+
+    public Object scard(byte[] key) {
+        client.scard(key);
+        return client.getOne();
+    }
+
+    public Object zadd(byte[] key) {
+        client.zadd(key);
+        return client.getOne();
+    }
+
+    public Object zrem(byte[] key) {
+        client.zrem(key);
+        return client.getOne();
+    }
+
+    public Object zrange(byte[] key) {
+        client.zrange(key);
+        return client.getOne();
+    }
+
+    public Object zscore(byte[] key) {
+        client.zscore(key);
+        return client.getOne();
+    }
+}
@@ -0,0 +1,170 @@
+package redis.clients.jedis;
+
+/**
+ * 测试用的Jedis桩，只保留插件关心的结构
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class Client extends BinaryClient {
+
+    public void get(String key) {
+        sendCommand(Protocol.Command.GET, key);
+    }
+
+    public void set(String key) {
+        sendCommand(Protocol.Command.SET, key);
+    }
+
+    public void del(String key) {
+        sendCommand(Protocol.Command.DEL, key);
+    }
+
+    public void exists(String key) {
+        sendCommand(Protocol.Command.EXISTS, key);
+    }
+
+    public void expire(String key) {
+        sendCommand(Protocol.Command.EXPIRE, key);
+    }
+
+    public void ttl(String key) {
+        sendCommand(Protocol.Command.TTL, key);
+    }
+
+    public void incr(String key) {
+        sendCommand(Protocol.Command.INCR, key);
+    }
+
+    public void decr(String key) {
+        sendCommand(Protocol.Command.DECR, key);
+    }
+
+    public void incrBy(String key) {
+        sendCommand(Protocol.Command.INCRBY, key);
+    }
+
+    public void decrBy(String key) {
+        sendCommand(Protocol.Command.DECRBY, key);
+    }
+
+    public void append(String key) {
+        sendCommand(Protocol.Command.APPEND, key);
+    }
+
+    public void strlen(String key) {
+        sendCommand(Protocol.Command.STRLEN, key);
+    }
+
+    public void getSet(String key) {
+        sendCommand(Protocol.Command.GETSET, key);
+    }
+
+    public void setnx(String key) {
+        sendCommand(Protocol.Command.SETNX, key);
+    }
+
+    public void setex(String key) {
+        sendCommand(Protocol.Command.SETEX, key);
+    }
+
+    public void mget(String key) {
+        sendCommand(Protocol.Command.MGET, key);
+    }
+
+    public void mset(String key) {
+        sendCommand(Protocol.Command.MSET, key);
+    }
+
+    public void hget(String key) {
+        sendCommand(Protocol.Command.HGET, key);
+    }
+
+    public void hset(String key) {
+        sendCommand(Protocol.Command.HSET, key);
+    }
+
+    public void hdel(String key) {
+        sendCommand(Protocol.Command.HDEL, key);
+    }
+
+    public void hgetAll(String key) {
+        sendCommand(Protocol.Command.HGETALL, key);
+    }
+
+    public void hkeys(String key) {
+        sendCommand(Protocol.Command.HKEYS, key);
+    }
+
+    public void hvals(String key) {
+        sendCommand(Protocol.Command.HVALS, key);
+    }
+
+    public void hlen(String key) {
+        sendCommand(Protocol.Command.HLEN, key);
+    }
+
+    public void hexists(String key) {
+        sendCommand(Protocol.Command.HEXISTS, key);
+    }
+
+    public void lpush(String key) {
+        sendCommand(Protocol.Command.LPUSH, key);
+    }
+
+    public void rpush(String key) {
+        sendCommand(Protocol.Command.RPUSH, key);
+    }
+
+    public void lpop(String key) {
+        sendCommand(Protocol.Command.LPOP, key);
+    }
+
+    public void rpop(String key) {
+        sendCommand(Protocol.Command.RPOP, key);
+    }
+
+    public void llen(String key) {
+        sendCommand(Protocol.Command.LLEN, key);
+    }
+
+    public void lrange(String key) {
+        sendCommand(Protocol.Command.LRANGE, key);
+    }
+
+    public void sadd(String key) {
+        sendCommand(Protocol.Command.SADD, key);
+    }
+
+    public void srem(String key) {
+        sendCommand(Protocol.Command.SREM, key);
+    }
+
+    public void smembers(String key) {
+        sendCommand(Protocol.Command.SMEMBERS, key);
+    }
+
+    public void sismember(String key) {
+        sendCommand(Protocol.Command.SISMEMBER, key);
+    }
+
+    public void scard(String key) {
+        sendCommand(Protocol.Command.SCARD, key);
+    }
+
+    public void zadd(String key) {
+        sendCommand(Protocol.Command.ZADD, key);
+    }
+
+    public void zrem(String key) {
+        sendCommand(Protocol.Command.ZREM, key);
+    }
+
+    public void zrange(String key) {
+        sendCommand(Protocol.Command.ZRANGE, key);
+    }
+
+    public void zscore(String key) {
+        sendCommand(Protocol.Command.ZSCORE, key);
+    }
+}
@@ -0,0 +1,57 @@
+package redis.clients.jedis;
+
+import redis.clients.jedis.commands.ProtocolCommand;
+
+import java.nio.charset.Charset;
+
+/**
+ * 测试用的Jedis桩，只保留插件关心的结构
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class Connection {
+
+    private boolean connected;
+
+    public void sendCommand(ProtocolCommand cmd, String... args) {
+        byte[][] bargs = new byte[args.length][];
+        for (int i = 0; i < args.length; i++) {
+            bargs[i] = args[i].getBytes(Charset.forName("UTF-8"));
+        }
+        sendCommand(cmd, bargs);
+    }
+
+    public void sendCommand(ProtocolCommand cmd, byte[]... args) {
+        connect();
+    }
+
+    public void connect() {
+        connected = true;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public void disconnect() {
+        connected = false;
+    }
+
+    protected void flush() {
+    }
+
+    protected Object readProtocolWithCheckingBroken() {
+        return null;
+    }
+
+    public String getStatusCodeReply() {
+        flush();
+        return (String) readProtocolWithCheckingBroken();
+    }
+
+    public Object getOne() {
+        flush();
+        return readProtocolWithCheckingBroken();
+    }
+}
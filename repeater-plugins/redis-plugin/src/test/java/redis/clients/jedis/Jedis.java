@@ -0,0 +1,210 @@
+package redis.clients.jedis;
+
+/**
+ * 测试用的Jedis桩，只保留插件关心的结构
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public class Jedis extends BinaryJedis {
+
+    public Object get(String key) {
+        client.get(key);
+        return client.getOne();
+    }
+
+    public Object set(String key) {
+        client.set(key);
+        return client.getOne();
+    }
+
+    public Object del(String key) {
+        client.del(key);
+        return client.getOne();
+    }
+
+    public Object exists(String key) {
+        client.exists(key);
+        return client.getOne();
+    }
+
+    public Object expire(String key) {
+        client.expire(key);
+        return client.getOne();
+    }
+
+    public Object ttl(String key) {
+        client.ttl(key);
+        return client.getOne();
+    }
+
+    public Object incr(String key) {
+        client.incr(key);
+        return client.getOne();
+    }
+
+    public Object decr(String key) {
+        client.decr(key);
+        return client.getOne();
+    }
+
+    public Object incrBy(String key) {
+        client.incrBy(key);
+        return client.getOne();
+    }
+
+    public Object decrBy(String key) {
+        client.decrBy(key);
+        return client.getOne();
+    }
+
+    public Object append(String key) {
+        client.append(key);
+        return client.getOne();
+    }
+
+    public Object strlen(String key) {
+        client.strlen(key);
+        return client.getOne();
+    }
+
+    public Object getSet(String key) {
+        client.getSet(key);
+        return client.getOne();
+    }
+
+    public Object setnx(String key) {
+        client.setnx(key);
+        return client.getOne();
+    }
+
+    public Object setex(String key) {
+        client.setex(key);
+        return client.getOne();
+    }
+
+    public Object mget(String key) {
+        client.mget(key);
+        return client.getOne();
+    }
+
+    public Object mset(String key) {
+        client.mset(key);
+        return client.getOne();
+    }
+
+    public Object hget(String key) {
+        client.hget(key);
+        return client.getOne();
+    }
+
+    public Object hset(String key) {
+        client.hset(key);
+        return client.getOne();
+    }
+
+    public Object hdel(String key) {
+        client.hdel(key);
+        return client.getOne();
+    }
+
+    public Object hgetAll(String key) {
+        client.hgetAll(key);
+        return client.getOne();
+    }
+
+    public Object hkeys(String key) {
+        client.hkeys(key);
+        return client.getOne();
+    }
+
+    public Object hvals(String key) {
+        client.hvals(key);
+        return client.getOne();
+    }
+
+    public Object hlen(String key) {
+        client.hlen(key);
+        return client.getOne();
+    }
+
+    public Object hexists(String key) {
+        client.hexists(key);
+        return client.getOne();
+    }
+
+    public Object lpush(String key) {
+        client.lpush(key);
+        return client.getOne();
+    }
+
+    public Object rpush(String key) {
+        client.rpush(key);
+        return client.getOne();
+    }
+
+    public Object lpop(String key) {
+        client.lpop(key);
+        return client.getOne();
+    }
+
+    public Object rpop(String key) {
+        client.rpop(key);
+        return client.getOne();
+    }
+
+    public Object llen(String key) {
+        client.llen(key);
+        return client.getOne();
+    }
+
+    public Object lrange(String key) {
+        client.lrange(key);
+        return client.getOne();
+    }
+
+    public Object sadd(String key) {
+        client.sadd(key);
+        return client.getOne();
+    }
+
+    public Object srem(String key) {
+        client.srem(key);
+        return client.getOne();
+    }
+
+    public Object smembers(String key) {
+        client.smembers(key);
+        return client.getOne();
+    }
+
+    public Object sismember(String key) {
+        client.sismember(key);
+        return client.getOne();
+    }
+
+    public Object scard(String key) {
+        client.scard(key);
+        return client.getOne();
+    }
+
+    public Object zadd(String key) {
+        client.zadd(key);
+        return client.getOne();
+    }
+
+    public Object zrem(String key) {
+        client.zrem(key);
+        return client.getOne();
+    }
+
+    public Object zrange(String key) {
+        client.zrange(key);
+        return client.getOne();
+    }
+
+    public Object zscore(String key) {
+        client.zscore(key);
+        return client.getOne();
+    }
+}
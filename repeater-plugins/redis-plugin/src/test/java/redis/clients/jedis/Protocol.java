@@ -0,0 +1,30 @@
+package redis.clients.jedis;
+
+import redis.clients.jedis.commands.ProtocolCommand;
+
+import java.nio.charset.Charset;
+
+/**
+ * 测试用的Jedis桩，只保留插件关心的结构
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public final class Protocol {
+
+    public enum Command implements ProtocolCommand {
+        GET, SET, DEL, EXISTS, EXPIRE, TTL, INCR, DECR,
+        INCRBY, DECRBY, APPEND, STRLEN, GETSET, SETNX, SETEX, MGET,
+        MSET, HGET, HSET, HDEL, HGETALL, HKEYS, HVALS, HLEN,
+        HEXISTS, LPUSH, RPUSH, LPOP, RPOP, LLEN, LRANGE, SADD,
+        SREM, SMEMBERS, SISMEMBER, SCARD, ZADD, ZREM, ZRANGE, ZSCORE,
+        AUTH, SELECT;
+
+        private final byte[] raw = name().getBytes(Charset.forName("UTF-8"));
+
+        @Override
+        public byte[] getRaw() {
+            return raw;
+        }
+    }
+}
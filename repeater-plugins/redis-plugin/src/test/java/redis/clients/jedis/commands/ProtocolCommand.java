@@ -0,0 +1,12 @@
+package redis.clients.jedis.commands;
+
+/**
+ * 测试用的Jedis桩，只保留插件关心的结构
+ * <p>
+ *
+ * @author zhaoyb1990
+ */
+public interface ProtocolCommand {
+
+    byte[] getRaw();
+}